@@ -6,7 +6,7 @@ import java.util.List;
 
 @FeignClient(name = "api-gateway", configuration = com.platform.admin.admin_service.config.FeignClientInterceptorConfig.class, url = "http://localhost:8020") // Use API Gateway
 public interface ProductClient {
-    @GetMapping("/products")
+    @GetMapping("/products?all=true")
     List<Object> getAllProducts();
 
     @GetMapping("/products/{id}")
@@ -9,6 +9,6 @@ public interface ProductClient {
     @GetMapping("/products/admin/analytics/count")
     long getProductCount();
     
-    @GetMapping("/products")
+    @GetMapping("/products?all=true")
     Object getAllProducts();
 } 
\ No newline at end of file
@@ -18,6 +18,8 @@ public class CorsConfig {
         corsConfig.addAllowedOrigin("http://localhost:3000");
         corsConfig.addAllowedMethod("*");
         corsConfig.addAllowedHeader("*");
+        // Let the frontend read product ETags for conditional GETs (If-None-Match)
+        corsConfig.addExposedHeader("ETag");
         corsConfig.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -94,7 +94,7 @@ public class JwtGatewayFilter implements GlobalFilter, Ordered {
         }
 
         // Public GET endpoints for products
-        if (path.matches("^/products($|/\\d+$|/category/.*|/search.*|/price-range.*|/category-price-range.*|/in-stock.*|/advanced-search.*)") && HttpMethod.GET.matches(method)) {
+        if (path.matches("^/products($|/\\d+$|/category/.*|/search.*|/price-range.*|/category-price-range.*|/in-stock.*|/advanced-search.*|/suggest.*|/changes.*)") && HttpMethod.GET.matches(method)) {
             logger.debug("[JwtGatewayFilter] Allowing public product GET: {}", path);
             return chain.filter(exchange);
         }
@@ -0,0 +1,150 @@
+package com.platform.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.platform.feign.ProductClient;
+import com.platform.model.ProductChange;
+import com.platform.model.ProductChangeFeed;
+import com.platform.model.ProductDTO;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Cart-local copy of the product fields a cart needs (name, price, image, stock).
+ *
+ * Lookups take whatever is cached and fetch everything missing with a single
+ * batch call to product-service, so a cart request costs at most one round
+ * trip however many lines it has. Entries expire after a TTL and are dropped
+ * as soon as product-service's change feed reports the product changed, so
+ * prices and stock are normally seconds old at most; the TTL bounds staleness
+ * while the feed cannot be reached.
+ *
+ * While the feed position is held below a version that has not committed yet,
+ * the changes above it come back on every poll; those already applied are
+ * skipped so they do not keep emptying the cache.
+ */
+@Component
+public class ProductSnapshotCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSnapshotCache.class);
+
+    // product-service rejects larger batches
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int FEED_PAGE_SIZE = 500;
+
+    @Autowired
+    private ProductClient productClient;
+
+    @Value("${cart.product-cache.max-size:10000}")
+    private long maxSize = 10000;
+
+    @Value("${cart.product-cache.ttl-ms:60000}")
+    private long ttlMillis = 60000;
+
+    private Cache<Long, ProductDTO> products;
+    // Change feed position; -1 until the first poll has read the catalog version
+    private volatile long since = -1;
+    // Bumped on every invalidation, so a fetch that raced with one does not cache what it read
+    private volatile long generation;
+    // Versions above the feed position already applied; only touched by the polling thread
+    private final Set<Long> appliedAhead = new HashSet<>();
+
+    @PostConstruct
+    public void init() {
+        products = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .build();
+    }
+
+    public ProductDTO get(Long productId) {
+        return getAll(List.of(productId)).get(productId);
+    }
+
+    /**
+     * The products with the given ids, keyed by id. Unknown ids are left out.
+     * Throws when product-service cannot be reached and some ids are not cached.
+     */
+    public Map<Long, ProductDTO> getAll(Collection<Long> productIds) {
+        Set<Long> ids = new LinkedHashSet<>(productIds);
+        Map<Long, ProductDTO> found = new HashMap<>(products.getAllPresent(ids));
+        List<Long> missing = ids.stream().filter(id -> !found.containsKey(id)).collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return found;
+        }
+        long fetchedAt = generation;
+        List<ProductDTO> fetched = new ArrayList<>();
+        for (int from = 0; from < missing.size(); from += MAX_BATCH_SIZE) {
+            fetched.addAll(productClient.getProductsByIds(missing.subList(from, Math.min(missing.size(), from + MAX_BATCH_SIZE))));
+        }
+        Map<Long, ProductDTO> byId = fetched.stream()
+                .collect(Collectors.toMap(ProductDTO::getProductId, product -> product, (first, second) -> first));
+        if (fetchedAt == generation) {
+            products.putAll(byId);
+        }
+        found.putAll(byId);
+        logger.debug("Product cache: {} cached, {} fetched", ids.size() - missing.size(), missing.size());
+        return found;
+    }
+
+    // Drops changed products; the next lookup fetches them again
+    @Scheduled(fixedDelayString = "${cart.product-cache.poll-interval-ms:2000}")
+    public void pollChanges() {
+        try {
+            if (since < 0) {
+                since = productClient.getCatalogVersion();
+                // Anything cached before the feed position was known may already be stale
+                invalidate(null);
+                logger.info("Product cache following catalog changes from version {}", since);
+                return;
+            }
+            ProductChangeFeed feed;
+            do {
+                feed = productClient.getChanges(since, FEED_PAGE_SIZE);
+                long position = feed.getVersion();
+                List<Long> changed = feed.getChanges().stream()
+                        .filter(change -> !appliedAhead.contains(change.getVersion()))
+                        .map(ProductChange::getProductId)
+                        .distinct()
+                        .collect(Collectors.toList());
+                if (!changed.isEmpty()) {
+                    invalidate(changed);
+                    logger.debug("Product cache dropped {} changed products", changed.size());
+                }
+                feed.getChanges().stream()
+                        .filter(change -> change.getVersion() > position)
+                        .forEach(change -> appliedAhead.add(change.getVersion()));
+                appliedAhead.removeIf(version -> version <= position);
+                since = position;
+            } while (feed.isHasMore());
+        } catch (Exception e) {
+            // Entries still expire by TTL; the next poll resumes from the same position
+            logger.warn("Polling product changes failed: {}", e.getMessage());
+        }
+    }
+
+    private void invalidate(Collection<Long> productIds) {
+        generation++;
+        if (productIds == null) {
+            products.invalidateAll();
+        } else {
+            products.invalidateAll(productIds);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.platform.config;
+
+import com.platform.store.CartItemDeduplicator;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the EntityManagerFactory, and with it Hibernate's schema update, only
+ * after CartItemDeduplicator has merged the lines the cart_item unique key
+ * would reject.
+ */
+@Component
+public class CartSchemaConfig extends EntityManagerFactoryDependsOnPostProcessor {
+
+    public CartSchemaConfig() {
+        super(CartItemDeduplicator.class);
+    }
+}
@@ -0,0 +1,12 @@
+package com.platform.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (product cache change-feed poll, cart store flush, abandoned cart sweep).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
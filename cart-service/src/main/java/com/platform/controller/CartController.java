@@ -11,6 +11,7 @@ import io.jsonwebtoken.SignatureAlgorithm;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import com.platform.model.CartItemDTO;
+import com.platform.model.CartOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,6 +68,19 @@ public class CartController {
             throw e;
         }
     }
+    // Several adds, quantity changes and removals in one request and one transaction; returns the resulting cart
+    @PostMapping("/batch")
+    public List<CartItemDTO> applyCartOperations(@RequestBody List<CartOperation> operations, @RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+        logger.info("POST /cart/batch called with {} operations", operations.size());
+        try {
+            Long userId = extractUserIdFromToken(authHeader);
+            return cartService.applyCartOperations(operations, userId);
+        } catch (Exception e) {
+            logger.error("Apply cart operations failed", e);
+            throw e;
+        }
+    }
+
     @DeleteMapping("/remove/{cartItemId}")
     public void removeCartItem(@PathVariable Long cartItemId) {
         logger.info("DELETE /cart/remove/{} called", cartItemId);
@@ -156,5 +170,15 @@ public class CartController {
             throw e;
         }
     }
-}
 
+    @PostMapping("/remove-by-products")
+    public int removeCartItemsByProductIds(@RequestBody List<Long> productIds) {
+        logger.info("POST /cart/remove-by-products called with {} products", productIds.size());
+        try {
+            return cartService.removeCartItemsByProductIds(productIds);
+        } catch (Exception e) {
+            logger.error("Remove cart items by product IDs failed for {} products", productIds.size(), e);
+            throw e;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package com.platform.entity;
 import jakarta.persistence.*;
 
 @Entity
+// One line per product per user; CartRepository.upsertQuantity relies on it. Lines duplicated before the key
+// existed are merged at startup by CartItemDeduplicator
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_cart_item_user_product", columnNames = {"userId", "productId"}))
 public class CartItem {
 
     @Id
@@ -11,6 +14,9 @@ public class CartItem {
     private Long productId;
     private int quantity;
     private double totalPrice;
+    // The product price and price version the line was priced at (no version: priced before versions existed)
+    private double unitPrice;
+    private Long priceVersion;
 
     public Long getCartItemid() {
         return cartItemid;
@@ -42,6 +48,18 @@ public class CartItem {
     public void setTotalPrice(double totalPrice) {
         this.totalPrice = totalPrice;
     }
+    public double getUnitPrice() {
+        return unitPrice;
+    }
+    public void setUnitPrice(double unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+    public Long getPriceVersion() {
+        return priceVersion;
+    }
+    public void setPriceVersion(Long priceVersion) {
+        this.priceVersion = priceVersion;
+    }
     // @Override
     // public String toString() {
     //     return "CartItem{" +
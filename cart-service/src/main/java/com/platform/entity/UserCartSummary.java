@@ -0,0 +1,63 @@
+package com.platform.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Totals of one user's cart, kept up to date by every cart change so the
+ * summary and total endpoints read one row instead of summing the lines.
+ * {@code updatedAt} is when the user last changed the cart; the abandoned
+ * cart sweeper walks its index from the oldest.
+ */
+@Entity
+@Table(name = "cart_summary", indexes = @Index(name = "idx_cart_summary_updated_at", columnList = "updatedAt"))
+public class UserCartSummary {
+
+    @Id
+    private Long userId;
+    private double totalPrice;
+    private int totalItems;
+    private int uniqueProducts;
+    private LocalDateTime updatedAt;
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(double totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public int getTotalItems() {
+        return totalItems;
+    }
+
+    public void setTotalItems(int totalItems) {
+        this.totalItems = totalItems;
+    }
+
+    public int getUniqueProducts() {
+        return uniqueProducts;
+    }
+
+    public void setUniqueProducts(int uniqueProducts) {
+        this.uniqueProducts = uniqueProducts;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -2,11 +2,22 @@ package com.platform.feign;
 
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
+import com.platform.model.ProductChangeFeed;
 import com.platform.model.ProductDTO;
+import java.util.List;
 
 @FeignClient(name = "ecom-product-service")
 public interface ProductClient {
 
     @GetMapping("/products/{productId}")
     ProductDTO getProductById(@PathVariable("productId") Long productId);
+
+    @GetMapping("/products/batch")
+    List<ProductDTO> getProductsByIds(@RequestParam("ids") List<Long> ids);
+
+    @GetMapping("/products/changes")
+    ProductChangeFeed getChanges(@RequestParam("since") long since, @RequestParam("limit") int limit);
+
+    @GetMapping("/products/changes/version")
+    long getCatalogVersion();
 }
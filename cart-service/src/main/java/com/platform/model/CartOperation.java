@@ -0,0 +1,42 @@
+package com.platform.model;
+
+/**
+ * One entry of POST /cart/batch. Operations address cart lines by product:
+ * ADD adds {@code quantity} units, SET sets the line to {@code quantity}
+ * (0 removes it), REMOVE removes the line.
+ */
+public class CartOperation {
+
+    public enum Type { ADD, SET, REMOVE }
+
+    private Type type;
+    private Long productId;
+    private int quantity;
+
+    public CartOperation() {}
+
+    public CartOperation(Type type, Long productId, int quantity) {
+        this.type = type;
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public Type getType() {
+        return type;
+    }
+    public void setType(Type type) {
+        this.type = type;
+    }
+    public Long getProductId() {
+        return productId;
+    }
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    public int getQuantity() {
+        return quantity;
+    }
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,15 @@
+package com.platform.model;
+
+// One entry of product-service's catalog change feed (GET /products/changes)
+public class ProductChange {
+    private Long version;
+    private Long productId;
+    private String changeType;
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public Long getProductId() { return productId; }
+    public void setProductId(Long productId) { this.productId = productId; }
+    public String getChangeType() { return changeType; }
+    public void setChangeType(String changeType) { this.changeType = changeType; }
+}
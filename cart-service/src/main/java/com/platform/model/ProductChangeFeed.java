@@ -0,0 +1,17 @@
+package com.platform.model;
+
+import java.util.List;
+
+// Response of product-service's GET /products/changes; version is the next "since"
+public class ProductChangeFeed {
+    private List<ProductChange> changes;
+    private long version;
+    private boolean hasMore;
+
+    public List<ProductChange> getChanges() { return changes; }
+    public void setChanges(List<ProductChange> changes) { this.changes = changes; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+}
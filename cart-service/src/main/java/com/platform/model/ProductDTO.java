@@ -5,6 +5,7 @@ public class ProductDTO {
     private Long productId;
     private String name;
     private double price;
+    private long priceVersion;
     private String imageUrl;
     private int stockQuantity;
     private String description;
@@ -17,6 +18,14 @@ public class ProductDTO {
         this.productId = productId;
     }
 
+    public long getPriceVersion() {
+        return priceVersion;
+    }
+
+    public void setPriceVersion(long priceVersion) {
+        this.priceVersion = priceVersion;
+    }
+
     public String getName() {
         return name;
     }
@@ -3,20 +3,66 @@ package com.platform.repository;
 import java.util.List;
 
 import com.platform.entity.CartItem;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<CartItem, Long> {
 
     List<CartItem> findByUserId(Long userId);
     Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
+
+    // The user's lines, locked until the end of the transaction
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM CartItem c WHERE c.userId = :userId")
+    List<CartItem> findByUserIdForUpdate(Long userId);
+
+    // Adds to the user's line for the product, creating it if needed, in one statement, and prices the whole
+    // line at the given price (total_price is assigned first, so it sees the old quantity whichever way the
+    // assignments are evaluated)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO cart_item (user_id, product_id, quantity, total_price, unit_price, price_version) "
+            + "VALUES (:userId, :productId, :quantity, :quantity * :unitPrice, :unitPrice, :priceVersion) "
+            + "ON DUPLICATE KEY UPDATE total_price = (quantity + :quantity) * :unitPrice, quantity = quantity + :quantity, "
+            + "unit_price = :unitPrice, price_version = :priceVersion",
+            nativeQuery = true)
+    int upsertQuantity(Long userId, Long productId, int quantity, double unitPrice, long priceVersion);
     @Modifying
     @Transactional
     @Query("DELETE FROM CartItem c WHERE c.productId = :productId")
     void deleteByProductId(Long productId);
+    // The next users with cart lines after {@code afterUserId}, read in order from the (user_id, product_id) key
+    @Query("SELECT DISTINCT c.userId FROM CartItem c WHERE c.userId > :afterUserId ORDER BY c.userId")
+    List<Long> findUserIdsAfter(Long afterUserId, Pageable pageable);
+
+    @Query("SELECT DISTINCT c.userId FROM CartItem c WHERE c.productId IN :productIds")
+    List<Long> findUserIdsByProductIdIn(List<Long> productIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CartItem c WHERE c.productId IN :productIds")
+    int deleteByProductIdIn(List<Long> productIds);
+
+    // One statement for the whole cart, on the (user_id, product_id) key
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CartItem c WHERE c.userId = :userId")
+    int deleteByUserId(Long userId);
+
+    // The lines of those of these users whose cart summary is still unchanged since {@code changedBefore}: a cart
+    // changed after it was picked by the sweeper is kept
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CartItem c WHERE c.userId IN (SELECT s.userId FROM UserCartSummary s "
+            + "WHERE s.userId IN :userIds AND s.updatedAt < :changedBefore)")
+    int deleteUnchangedCarts(List<Long> userIds, LocalDateTime changedBefore);
 
 }
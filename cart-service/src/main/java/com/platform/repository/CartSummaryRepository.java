@@ -0,0 +1,79 @@
+package com.platform.repository;
+
+import com.platform.entity.UserCartSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface CartSummaryRepository extends JpaRepository<UserCartSummary, Long> {
+
+    // Locks the user's summary row until commit, creating an empty one if missing. Every change to a cart
+    // takes this lock before touching its lines, so concurrent changes to one cart queue here instead of
+    // locking lines in different orders and deadlocking in refresh
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO cart_summary (user_id, total_price, total_items, unique_products, updated_at) "
+            + "VALUES (:userId, 0, 0, 0, NOW()) ON DUPLICATE KEY UPDATE user_id = user_id",
+            nativeQuery = true)
+    int lockForUpdate(Long userId);
+
+    // The same for changes spanning several carts; the rows are locked in user order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserCartSummary s WHERE s.userId IN :userIds ORDER BY s.userId")
+    List<UserCartSummary> findByUserIdInForUpdate(Collection<Long> userIds);
+
+    // Rewrites the user's summary from their lines (an index range on the (user_id, product_id) key) and marks
+    // the cart as changed now. The SELECT of an INSERT ... SELECT reads the latest committed lines and locks
+    // them, so concurrent changes to the same cart cannot leave a stale summary behind. Callers hold
+    // lockForUpdate first
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO cart_summary (user_id, total_price, total_items, unique_products, updated_at) "
+            + "SELECT :userId, COALESCE(SUM(c.total_price), 0), COALESCE(SUM(c.quantity), 0), COUNT(*), NOW() "
+            + "FROM cart_item c WHERE c.user_id = :userId "
+            + "ON DUPLICATE KEY UPDATE total_price = VALUES(total_price), total_items = VALUES(total_items), "
+            + "unique_products = VALUES(unique_products), updated_at = VALUES(updated_at)",
+            nativeQuery = true)
+    int refresh(Long userId);
+
+    // Recomputes the totals of these users' summaries in one statement, for changes the users did not make
+    // (products taken out of the catalog): when they last touched their cart stays as it was
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserCartSummary s SET "
+            + "s.totalPrice = (SELECT COALESCE(SUM(c.totalPrice), 0) FROM CartItem c WHERE c.userId = s.userId), "
+            + "s.totalItems = (SELECT COALESCE(SUM(c.quantity), 0) FROM CartItem c WHERE c.userId = s.userId), "
+            + "s.uniqueProducts = (SELECT COUNT(c) FROM CartItem c WHERE c.userId = s.userId) "
+            + "WHERE s.userId IN :userIds")
+    int recalculate(List<Long> userIds);
+
+    // Creates the summaries missing for these users with cart lines, as changed now (carts from before
+    // summaries existed)
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO cart_summary (user_id, total_price, total_items, unique_products, updated_at) "
+            + "SELECT c.user_id, SUM(c.total_price), SUM(c.quantity), COUNT(*), NOW() FROM cart_item c "
+            + "WHERE c.user_id IN :userIds "
+            + "AND NOT EXISTS (SELECT 1 FROM cart_summary s WHERE s.user_id = c.user_id) "
+            + "GROUP BY c.user_id",
+            nativeQuery = true)
+    int createMissing(List<Long> userIds);
+
+    // Oldest first, read from the updated_at index
+    @Query("SELECT s.userId FROM UserCartSummary s WHERE s.updatedAt < :changedBefore ORDER BY s.updatedAt")
+    List<Long> findUserIdsChangedBefore(LocalDateTime changedBefore, Pageable pageable);
+
+    // Only the summaries still unchanged since {@code changedBefore}
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserCartSummary s WHERE s.userId IN :userIds AND s.updatedAt < :changedBefore")
+    int deleteByUserIdInAndUpdatedAtBefore(List<Long> userIds, LocalDateTime changedBefore);
+}
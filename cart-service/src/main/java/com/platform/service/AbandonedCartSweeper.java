@@ -0,0 +1,102 @@
+package com.platform.service;
+
+import com.platform.repository.CartRepository;
+import com.platform.repository.CartSummaryRepository;
+import com.platform.store.CartStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Removes carts nobody has changed for cart.sweeper.idle-days.
+ *
+ * Each run walks the cart_summary updated_at index from the oldest cart and
+ * deletes chunks of cart.sweeper.batch-size carts, each chunk with one bulk
+ * DELETE per table in its own transaction, so no run holds locks on more than
+ * a chunk of carts. The first run also creates the summaries missing for
+ * carts from before summaries existed, so every cart ages out, walking the
+ * users with cart lines in id order a chunk at a time.
+ */
+@Component
+public class AbandonedCartSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Value("${cart.sweeper.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${cart.sweeper.idle-days:30}")
+    private long idleDays = 30;
+
+    @Value("${cart.sweeper.batch-size:500}")
+    private int batchSize = 500;
+
+    private volatile boolean summariesComplete;
+
+    @Scheduled(initialDelayString = "${cart.sweeper.initial-delay-ms:60000}", fixedDelayString = "${cart.sweeper.interval-ms:3600000}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!summariesComplete) {
+                createMissingSummaries();
+            }
+            // The summaries are stamped by the database clock; against a period of days a clock or time zone
+            // difference with this service does not matter
+            LocalDateTime changedBefore = LocalDateTime.now().minusDays(idleDays);
+            int removed = 0;
+            List<Long> userIds;
+            int deleted;
+            do {
+                userIds = cartSummaryRepository.findUserIdsChangedBefore(changedBefore, PageRequest.of(0, batchSize));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                deleted = cartStore.deleteUnchangedCarts(userIds, changedBefore);
+                removed += deleted;
+                // A shorter chunk was the last one; kept carts (changed meanwhile) would be picked again
+            } while (userIds.size() == batchSize && deleted == userIds.size());
+            if (removed > 0) {
+                logger.info("Removed {} carts unchanged for {} days", removed, idleDays);
+            }
+        } catch (Exception e) {
+            // The next run picks up where this one stopped
+            logger.error("Abandoned cart sweep failed", e);
+        }
+    }
+
+    private void createMissingSummaries() {
+        int created = 0;
+        long afterUserId = 0;
+        List<Long> userIds;
+        do {
+            userIds = cartRepository.findUserIdsAfter(afterUserId, PageRequest.of(0, batchSize));
+            if (userIds.isEmpty()) {
+                break;
+            }
+            created += cartSummaryRepository.createMissing(userIds);
+            afterUserId = userIds.get(userIds.size() - 1);
+        } while (userIds.size() == batchSize);
+        summariesComplete = true;
+        if (created > 0) {
+            logger.info("Created {} missing cart summaries", created);
+        }
+    }
+}
@@ -3,16 +3,22 @@ package com.platform.service;
 import org.springframework.stereotype.Service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import com.platform.repository.CartRepository;
+import com.platform.store.CartStore;
 import com.platform.entity.CartItem;
 import com.platform.model.ProductDTO;
-import com.platform.feign.ProductClient;
+import com.platform.catalog.ProductSnapshotCache;
 import java.util.Optional;
 import java.util.List;
 import com.platform.model.CartItemRequest;
 import com.platform.model.CartSummary;
 import com.platform.model.CartItemDTO;
+import com.platform.model.CartOperation;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,74 +27,136 @@ public class CartService {
 
     private static final Logger logger = LoggerFactory.getLogger(CartService.class);
 
+    private static final int MAX_BATCH_OPERATIONS = 100;
+
     @Autowired
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Autowired
-    private ProductClient productClient;
+    private ProductSnapshotCache productCache;
 
     public List<CartItemDTO> getCartItemsByUserId(Long userId) {
         logger.info("Getting cart items by user ID: {}", userId);
         try {
-            List<CartItem> items = cartRepository.findByUserId(userId);
+            List<CartItem> items = cartStore.findByUserId(userId);
             List<CartItemDTO> dtos = new ArrayList<>();
-            for (CartItem item : items) {
-                ProductDTO product;
-                try {
-                    product = productClient.getProductById(item.getProductId());
-                } catch (Exception e) {
-                    continue; // Skip if product does not exist
-                }
-                if (product == null || product.getStockQuantity() <= 0) {
-                    continue; // Skip if product does not exist or is out of stock
-                }
-                CartItemDTO dto = new CartItemDTO();
-                dto.setId(item.getCartItemid());
-                dto.setProductId(item.getProductId());
-                dto.setProductName(product.getName());
-                dto.setPrice(product.getPrice());
-                dto.setQuantity(item.getQuantity());
-                dto.setImageUrl(product.getImageUrl()); // if available
-                dtos.add(dto);
+            if (items.isEmpty()) {
+                return dtos;
+            }
+            // Cached products, plus at most one batch call for the rest; they also carry the price versions
+            Map<Long, ProductDTO> products;
+            try {
+                products = productCache.getAll(items.stream()
+                        .map(CartItem::getProductId)
+                        .collect(Collectors.toList()));
+            } catch (Exception e) {
+                logger.error("Batch product lookup failed for user ID: {}", userId, e);
+                return dtos; // Skip items whose products cannot be resolved
             }
-            return dtos;
+            items = repriceStaleLines(userId, items, products);
+            return toDtos(items, products);
         } catch (Exception e) {
             logger.error("Get cart items by user ID failed for user ID: {}", userId, e);
             throw e;
         }
     }
 
+    // Applies a list of add / set-quantity / remove operations as one unit and returns the resulting cart
+    public List<CartItemDTO> applyCartOperations(List<CartOperation> operations, Long userId) {
+        logger.info("Applying {} cart operations for user ID: {}", operations == null ? 0 : operations.size(), userId);
+        try {
+            validate(operations);
+            List<CartItem> items = cartStore.findByUserId(userId);
+            // One product lookup covers validation and the response: the products in the cart and in the batch
+            Set<Long> productIds = new LinkedHashSet<>();
+            items.forEach(item -> productIds.add(item.getProductId()));
+            operations.forEach(operation -> productIds.add(operation.getProductId()));
+            Map<Long, ProductDTO> products = productCache.getAll(productIds);
+            List<CartItem> result = cartStore.applyBatch(userId, operations, products);
+            logger.info("Applied {} cart operations for user ID: {}, {} lines now", operations.size(), userId, result.size());
+            return toDtos(result, products);
+        } catch (Exception e) {
+            logger.error("Apply cart operations failed for user ID: {}", userId, e);
+            throw e;
+        }
+    }
+
+    private void validate(List<CartOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new RuntimeException("No cart operations given");
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            throw new RuntimeException("Too many cart operations: " + operations.size() + " (max " + MAX_BATCH_OPERATIONS + ")");
+        }
+        for (CartOperation operation : operations) {
+            if (operation.getType() == null || operation.getProductId() == null) {
+                throw new RuntimeException("Cart operation needs a type and a product ID");
+            }
+            if (operation.getType() == CartOperation.Type.ADD && operation.getQuantity() <= 0
+                    || operation.getType() == CartOperation.Type.SET && operation.getQuantity() < 0) {
+                throw new RuntimeException("Invalid quantity " + operation.getQuantity() + " for product ID: " + operation.getProductId());
+            }
+        }
+    }
+
+    /**
+     * Brings the lines priced at an older price version up to the current
+     * price, comparing them with the price versions of the products already
+     * looked up for the response; lines still at the current version are not
+     * touched. A cached product may be a little behind a line priced since,
+     * so only newer versions re-price.
+     */
+    private List<CartItem> repriceStaleLines(Long userId, List<CartItem> items, Map<Long, ProductDTO> products) {
+        Map<Long, ProductDTO> stale = new HashMap<>();
+        for (CartItem item : items) {
+            ProductDTO product = products.get(item.getProductId());
+            if (product != null && (item.getPriceVersion() == null || item.getPriceVersion() < product.getPriceVersion())) {
+                stale.put(item.getProductId(), product);
+            }
+        }
+        if (stale.isEmpty()) {
+            return items;
+        }
+        logger.info("Re-pricing {} of {} cart lines for user ID: {}", stale.size(), items.size(), userId);
+        return cartStore.reprice(userId, stale);
+    }
+
+    private List<CartItemDTO> toDtos(List<CartItem> items, Map<Long, ProductDTO> products) {
+        List<CartItemDTO> dtos = new ArrayList<>();
+        for (CartItem item : items) {
+            ProductDTO product = products.get(item.getProductId());
+            if (product == null || product.getStockQuantity() <= 0) {
+                continue; // Skip if product does not exist or is out of stock
+            }
+            CartItemDTO dto = new CartItemDTO();
+            dto.setId(item.getCartItemid());
+            dto.setProductId(item.getProductId());
+            dto.setProductName(product.getName());
+            // The price the line is charged at, which is what its total and the cart summary add up (lines
+            // priced before unit prices were recorded show the catalog price until they are re-priced)
+            dto.setPrice(item.getPriceVersion() != null ? item.getUnitPrice() : product.getPrice());
+            dto.setQuantity(item.getQuantity());
+            dto.setImageUrl(product.getImageUrl()); // if available
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
     public CartItem addCartItem(CartItemRequest request, Long userId) {
         logger.info("Adding cart item for user ID: {} with product ID: {}", userId, request.getProductId());
         try {
-            Optional<CartItem> existingItem = cartRepository.findByUserIdAndProductId(userId, request.getProductId());
-            ProductDTO product = productClient.getProductById(request.getProductId());
+            ProductDTO product = productCache.get(request.getProductId());
             if (product == null) {
                 throw new RuntimeException("Product does not exist");
             }
             if (product.getStockQuantity() < request.getQuantity() || product.getStockQuantity() <= 0) {
                 throw new RuntimeException("Product is out of stock");
             }
-            double pricePerUnit = product.getPrice();
-            if (existingItem.isPresent()) {
-                CartItem item = existingItem.get();
-                int newQuantity = item.getQuantity() + request.getQuantity();
-                if (product.getStockQuantity() < newQuantity) {
-                    throw new RuntimeException("Not enough stock for the requested quantity");
-                }
-                item.setQuantity(newQuantity);
-                item.setTotalPrice(newQuantity * pricePerUnit);
-                logger.info("Cart item updated for user ID: {} with product ID: {}", userId, request.getProductId());
-                return cartRepository.save(item);
-            } else {
-                CartItem newItem = new CartItem();
-                newItem.setUserId(userId);
-                newItem.setProductId(request.getProductId());
-                newItem.setQuantity(request.getQuantity());
-                newItem.setTotalPrice(request.getQuantity() * pricePerUnit);
-                logger.info("New cart item added for user ID: {} with product ID: {}", userId, request.getProductId());
-                return cartRepository.save(newItem);
-            }
+            // One upsert: no read of the existing line, and concurrent adds to it are not lost
+            CartItem item = cartStore.addQuantity(userId, request.getProductId(), request.getQuantity(),
+                    product.getPrice(), product.getPriceVersion(), product.getStockQuantity());
+            logger.info("Cart item added for user ID: {} with product ID: {}, quantity now {}", userId, request.getProductId(), item.getQuantity());
+            return item;
         } catch (Exception e) {
             logger.error("Add cart item failed for user ID: {} with product ID: {}", userId, request.getProductId(), e);
             throw e;
@@ -98,19 +166,25 @@ public class CartService {
     public void removeCartItem(Long cartItemId) {
         logger.info("Removing cart item with ID: {}", cartItemId);
         try {
-            Optional<CartItem> existingItem = cartRepository.findById(cartItemId);
+            Optional<CartItem> existingItem = cartStore.findById(cartItemId);
             if (existingItem.isPresent()) {
                 CartItem Item = existingItem.get();
                 int currQuantity = Item.getQuantity();
                 if (currQuantity > 1) {
                     Item.setQuantity(currQuantity - 1);
-                    ProductDTO product = productClient.getProductById(Item.getProductId());
-                    double pricePerUnit = product.getPrice();
-                    Item.setTotalPrice((currQuantity - 1) * pricePerUnit);
-                    cartRepository.save(Item);
+                    ProductDTO product = productCache.get(Item.getProductId());
+                    // A product deleted meanwhile keeps the unit price it was added at
+                    if (product != null) {
+                        Item.setUnitPrice(product.getPrice());
+                        Item.setPriceVersion(product.getPriceVersion());
+                    } else {
+                        Item.setUnitPrice(Item.getTotalPrice() / currQuantity);
+                    }
+                    Item.setTotalPrice((currQuantity - 1) * Item.getUnitPrice());
+                    cartStore.save(Item);
                     logger.info("Cart item quantity reduced for cart item ID: {}", cartItemId);
                 } else {
-                    cartRepository.deleteById(cartItemId);
+                    cartStore.deleteById(cartItemId);
                     logger.info("Cart item deleted for cart item ID: {}", cartItemId);
                 }
             } else {
@@ -125,10 +199,7 @@ public class CartService {
     public double calculateTotalPrice(Long userId) {
         logger.info("Calculating total price for user ID: {}", userId);
         try {
-            List<CartItem> items = cartRepository.findByUserId(userId);
-            return items.stream()
-                    .mapToDouble(CartItem::getTotalPrice)
-                    .sum();
+            return cartStore.getSummary(userId).getTotalPrice();
         } catch (Exception e) {
             logger.error("Calculate total price failed for user ID: {}", userId, e);
             throw e;
@@ -138,16 +209,8 @@ public class CartService {
     public CartSummary getCartSummary(Long userId) {
         logger.info("Getting cart summary for user ID: {}", userId);
         try {
-            List<CartItem> items = cartRepository.findByUserId(userId);
-            double totalPrice = items.stream()
-                    .mapToDouble(CartItem::getTotalPrice)
-                    .sum();
-            int totalItems = items.stream()
-                    .mapToInt(CartItem::getQuantity)
-                    .sum();
-            int uniqueProducts = items.size();
-            
-            return new CartSummary(totalPrice, totalItems, uniqueProducts);
+            // Maintained by every cart change, so no lines are read here
+            return cartStore.getSummary(userId);
         } catch (Exception e) {
             logger.error("Get cart summary failed for user ID: {}", userId, e);
             throw e;
@@ -157,11 +220,10 @@ public class CartService {
     public void clearCart(Long userId) {
         logger.info("Clearing cart for user ID: {}", userId);
         try {
-            List<CartItem> items = cartRepository.findByUserId(userId);
-            if (items.isEmpty()) {
+            // One bulk delete; the lines are not loaded first
+            if (cartStore.deleteByUserId(userId) == 0) {
                 throw new RuntimeException("Cart is already empty for user with id: " + userId);
             }
-            cartRepository.deleteAll(items);
             logger.info("Cart cleared successfully for user ID: {}", userId);
         } catch (Exception e) {
             logger.error("Clear cart failed for user ID: {}", userId, e);
@@ -172,15 +234,15 @@ public class CartService {
     public CartItem updateCartItemQuantity(Long cartItemId, int quantity) {
         logger.info("Updating cart item quantity for cart item ID: {} with quantity: {}", cartItemId, quantity);
         try {
-            Optional<CartItem> itemOpt = cartRepository.findById(cartItemId);
+            Optional<CartItem> itemOpt = cartStore.findById(cartItemId);
             if (itemOpt.isPresent()) {
                 CartItem item = itemOpt.get();
                 if (quantity <= 0) {
-                    cartRepository.deleteById(cartItemId);
+                    cartStore.deleteById(cartItemId);
                     logger.info("Cart item deleted due to zero quantity for cart item ID: {}", cartItemId);
                     return null;
                 }
-                ProductDTO product = productClient.getProductById(item.getProductId());
+                ProductDTO product = productCache.get(item.getProductId());
                 if (product == null) {
                     throw new RuntimeException("Product does not exist");
                 }
@@ -188,9 +250,11 @@ public class CartService {
                     throw new RuntimeException("Not enough stock for the requested quantity");
                 }
                 item.setQuantity(quantity);
+                item.setUnitPrice(product.getPrice());
+                item.setPriceVersion(product.getPriceVersion());
                 item.setTotalPrice(quantity * product.getPrice());
                 logger.info("Cart item quantity updated for cart item ID: {}", cartItemId);
-                return cartRepository.save(item);
+                return cartStore.save(item);
             } else {
                 throw new RuntimeException("Cart item not found with id: " + cartItemId);
             }
@@ -203,11 +267,27 @@ public class CartService {
     public void removeCartItemsByProductId(Long productId) {
         logger.info("Removing cart items by product ID: {}", productId);
         try {
-            cartRepository.deleteByProductId(productId);
+            cartStore.deleteByProductIdIn(List.of(productId));
             logger.info("Cart items removed successfully for product ID: {}", productId);
         } catch (Exception e) {
             logger.error("Remove cart items by product ID failed for product ID: {}", productId, e);
             throw e;
         }
     }
+
+    // Used by product-service's cleanup relay: one statement for a whole batch of products
+    public int removeCartItemsByProductIds(List<Long> productIds) {
+        logger.info("Removing cart items for {} products", productIds.size());
+        try {
+            if (productIds.isEmpty()) {
+                return 0;
+            }
+            int removed = cartStore.deleteByProductIdIn(productIds);
+            logger.info("Removed {} cart items for {} products", removed, productIds.size());
+            return removed;
+        } catch (Exception e) {
+            logger.error("Remove cart items by product IDs failed for {} products", productIds.size(), e);
+            throw e;
+        }
+    }
 }
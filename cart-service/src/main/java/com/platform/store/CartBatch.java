@@ -0,0 +1,71 @@
+package com.platform.store;
+
+import com.platform.entity.CartItem;
+import com.platform.model.CartOperation;
+import com.platform.model.ProductDTO;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// The arithmetic of a cart batch and of line prices, shared by the stores so both apply it the same way
+final class CartBatch {
+
+    private CartBatch() {}
+
+    /**
+     * The quantity every product touched by {@code operations} ends up with
+     * (0 for a removed line), given the user's current {@code lines}. Throws
+     * before anything is written if a product does not exist or would exceed
+     * its stock.
+     */
+    static Map<Long, Integer> resultingQuantities(List<CartItem> lines, List<CartOperation> operations,
+                                                  Map<Long, ProductDTO> products) {
+        Map<Long, Integer> current = new HashMap<>();
+        lines.forEach(line -> current.put(line.getProductId(), line.getQuantity()));
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartOperation operation : operations) {
+            Long productId = operation.getProductId();
+            int quantity = quantities.getOrDefault(productId, current.getOrDefault(productId, 0));
+            switch (operation.getType()) {
+                case ADD -> quantity += operation.getQuantity();
+                case SET -> quantity = operation.getQuantity();
+                case REMOVE -> quantity = 0;
+            }
+            quantities.put(productId, quantity);
+        }
+        quantities.forEach((productId, quantity) -> {
+            if (quantity == 0) {
+                return;
+            }
+            ProductDTO product = products.get(productId);
+            if (product == null) {
+                throw new RuntimeException("Product does not exist: " + productId);
+            }
+            if (product.getStockQuantity() < quantity) {
+                throw new RuntimeException("Not enough stock for product " + productId + " for the requested quantity");
+            }
+        });
+        return quantities;
+    }
+
+    // Sets the line's quantity and prices it at the product's current price
+    static void price(CartItem line, int quantity, ProductDTO product) {
+        line.setQuantity(quantity);
+        line.setUnitPrice(product.getPrice());
+        line.setPriceVersion(product.getPriceVersion());
+        line.setTotalPrice(quantity * product.getPrice());
+    }
+
+    // Re-prices the line if it was priced at an older price version; true if it changed
+    static boolean reprice(CartItem line, ProductDTO current) {
+        if (current == null || line.getPriceVersion() != null && line.getPriceVersion() >= current.getPriceVersion()) {
+            return false;
+        }
+        line.setUnitPrice(current.getPrice());
+        line.setPriceVersion(current.getPriceVersion());
+        line.setTotalPrice(line.getQuantity() * current.getPrice());
+        return true;
+    }
+}
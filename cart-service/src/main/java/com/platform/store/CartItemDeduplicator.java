@@ -0,0 +1,131 @@
+package com.platform.store;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * One-time merge of the duplicate (userId, productId) cart lines left from
+ * before CartItem had its unique key. Hibernate adds the key when it updates
+ * the schema at startup and cannot while duplicates exist, so this runs before
+ * the EntityManagerFactory is built (see CartSchemaConfig). Once the key
+ * exists it does nothing.
+ *
+ * The oldest line of each product is kept with the quantity and total of all
+ * of them, the others are deleted and the users' summaries recounted.
+ */
+@Component
+public class CartItemDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartItemDeduplicator.class);
+
+    static final String UNIQUE_KEY = "uk_cart_item_user_product";
+
+    private static final String FIND_DUPLICATES_SQL = "SELECT user_id, product_id, MIN(cart_itemid), SUM(quantity), SUM(total_price) "
+            + "FROM cart_item GROUP BY user_id, product_id HAVING COUNT(*) > 1";
+    private static final String MERGE_SQL = "UPDATE cart_item SET quantity = ?, total_price = ? WHERE cart_itemid = ?";
+    private static final String DELETE_OTHERS_SQL = "DELETE FROM cart_item WHERE user_id = ? AND product_id = ? AND cart_itemid <> ?";
+    private static final String RECOUNT_SUMMARY_SQL = "UPDATE cart_summary SET unique_products = "
+            + "(SELECT COUNT(*) FROM cart_item c WHERE c.user_id = cart_summary.user_id) WHERE user_id = ?";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @PostConstruct
+    public void mergeDuplicates() {
+        try {
+            if (!tableExists("cart_item") || hasUniqueKey()) {
+                return;
+            }
+            int removed = merge();
+            if (removed > 0) {
+                logger.info("Merged {} duplicate cart lines before adding {}", removed, UNIQUE_KEY);
+            }
+        } catch (Exception e) {
+            // Without the key the cart upserts would add lines instead of updating them, so do not start
+            logger.error("Merging duplicate cart lines failed", e);
+            throw new RuntimeException("Merging duplicate cart lines failed: " + e.getMessage(), e);
+        }
+    }
+
+    // Returns the number of lines removed
+    int merge() throws SQLException {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<DuplicateLines> duplicates = jdbcTemplate.query(FIND_DUPLICATES_SQL, (rs, row) -> new DuplicateLines(
+                rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4), rs.getDouble(5)));
+        if (duplicates.isEmpty()) {
+            return 0;
+        }
+        boolean summaries = tableExists("cart_summary");
+        List<Long> userIds = duplicates.stream().map(DuplicateLines::userId).distinct().collect(Collectors.toList());
+        // JDBC transaction: the JPA transaction manager needs the EntityManagerFactory this runs before
+        Integer removed = new TransactionTemplate(new DataSourceTransactionManager(dataSource)).execute(tx -> {
+            jdbcTemplate.batchUpdate(MERGE_SQL, duplicates, duplicates.size(), (ps, lines) -> {
+                ps.setInt(1, lines.quantity());
+                ps.setDouble(2, lines.totalPrice());
+                ps.setLong(3, lines.keepId());
+            });
+            int deleted = 0;
+            for (int[] counts : jdbcTemplate.batchUpdate(DELETE_OTHERS_SQL, duplicates, duplicates.size(), (ps, lines) -> {
+                ps.setLong(1, lines.userId());
+                ps.setLong(2, lines.productId());
+                ps.setLong(3, lines.keepId());
+            })) {
+                for (int count : counts) {
+                    deleted += count;
+                }
+            }
+            if (summaries) {
+                jdbcTemplate.batchUpdate(RECOUNT_SUMMARY_SQL, userIds, userIds.size(), (ps, userId) -> ps.setLong(1, userId));
+            }
+            return deleted;
+        });
+        return removed != null ? removed : 0;
+    }
+
+    private boolean tableExists(String table) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), identifier(metaData, table), null)) {
+                return tables.next();
+            }
+        }
+    }
+
+    private boolean hasUniqueKey() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                    identifier(metaData, "cart_item"), true, false)) {
+                while (indexes.next()) {
+                    String name = indexes.getString("INDEX_NAME");
+                    // Some databases name the index after the constraint with a suffix
+                    if (name != null && name.toLowerCase().startsWith(UNIQUE_KEY)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+    }
+
+    private static String identifier(DatabaseMetaData metaData, String name) throws SQLException {
+        return metaData.storesUpperCaseIdentifiers() ? name.toUpperCase() : name;
+    }
+
+    private record DuplicateLines(long userId, long productId, long keepId, int quantity, double totalPrice) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.platform.store;
+
+import com.platform.entity.CartItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of the cart changes not yet written to the database.
+ *
+ * Changes go to numbered segment files, one line each:
+ * <pre>
+ *   U,cartItemId,userId,productId,quantity,totalPrice,unitPrice,priceVersion   line updated
+ *   D,cartItemId                                                                line deleted
+ * </pre>
+ * An update without a price version has an empty last field; updates written
+ * before unit prices were journaled have only the first six fields.
+ * A flush starts a new segment and deletes the older ones once its batch has
+ * committed, so after a crash the remaining segments hold every change the
+ * database may be missing. Replaying a change twice is harmless. An entry
+ * without its newline (crash mid-write) is skipped.
+ */
+final class CartJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartJournal.class);
+
+    private static final String PREFIX = "cart-journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final boolean sync;
+    private long segment;
+    private FileChannel channel;
+
+    CartJournal(Path dir, boolean sync) throws IOException {
+        this.dir = dir;
+        this.sync = sync;
+        Files.createDirectories(dir);
+        List<Long> existing = segments();
+        segment = existing.isEmpty() ? 0 : existing.get(existing.size() - 1);
+    }
+
+    /**
+     * The changes left by a previous run, coalesced per cart line (null value
+     * for a deleted line).
+     */
+    Map<Long, CartItem> recover() throws IOException {
+        Map<Long, CartItem> changes = new LinkedHashMap<>();
+        for (long number : segments()) {
+            String content = Files.readString(path(number), StandardCharsets.UTF_8);
+            // Only complete entries: whatever follows the last newline was cut off mid-write
+            String[] lines = content.substring(0, content.lastIndexOf('\n') + 1).split("\n");
+            for (String line : lines) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    parse(line, changes);
+                } catch (RuntimeException e) {
+                    logger.warn("Skipping unreadable cart journal entry in segment {}: {}", number, line);
+                }
+            }
+        }
+        return changes;
+    }
+
+    // Opens a new segment for changes from now on and returns its number; older segments are kept
+    synchronized long rotate() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        segment++;
+        channel = FileChannel.open(path(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return segment;
+    }
+
+    // Once every change written before segment {@code number} is in the database
+    void deleteBefore(long number) throws IOException {
+        for (long old : segments()) {
+            if (old < number) {
+                Files.deleteIfExists(path(old));
+            }
+        }
+    }
+
+    void update(CartItem item) throws IOException {
+        append("U," + item.getCartItemid() + "," + item.getUserId() + "," + item.getProductId() + ","
+                + item.getQuantity() + "," + item.getTotalPrice() + "," + item.getUnitPrice() + ","
+                + (item.getPriceVersion() != null ? item.getPriceVersion() : "") + "\n");
+    }
+
+    void delete(Long cartItemId) throws IOException {
+        append("D," + cartItemId + "\n");
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private synchronized void append(String entry) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(entry.getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        // Without sync the entry survives a process crash (it is in the OS page cache), not a power loss
+        if (sync) {
+            channel.force(false);
+        }
+    }
+
+    private static void parse(String line, Map<Long, CartItem> changes) {
+        String[] fields = line.split(",", -1);
+        Long cartItemId = Long.valueOf(fields[1]);
+        if ("D".equals(fields[0]) && fields.length == 2) {
+            changes.put(cartItemId, null);
+        } else if ("U".equals(fields[0]) && (fields.length == 6 || fields.length == 8)) {
+            CartItem item = new CartItem();
+            item.setCartItemid(cartItemId);
+            item.setUserId(Long.valueOf(fields[2]));
+            item.setProductId(Long.valueOf(fields[3]));
+            item.setQuantity(Integer.parseInt(fields[4]));
+            item.setTotalPrice(Double.parseDouble(fields[5]));
+            if (fields.length == 8) {
+                item.setUnitPrice(Double.parseDouble(fields[6]));
+                item.setPriceVersion(fields[7].isEmpty() ? null : Long.valueOf(fields[7]));
+            } else if (item.getQuantity() > 0) {
+                item.setUnitPrice(item.getTotalPrice() / item.getQuantity());
+            }
+            changes.put(cartItemId, item);
+        } else {
+            throw new IllegalArgumentException("Unknown cart journal entry");
+        }
+    }
+
+    private List<Long> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.valueOf(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    private Path path(long number) {
+        return dir.resolve(PREFIX + number + SUFFIX);
+    }
+}
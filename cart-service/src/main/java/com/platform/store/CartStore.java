@@ -0,0 +1,69 @@
+package com.platform.store;
+
+import com.platform.entity.CartItem;
+import com.platform.model.CartOperation;
+import com.platform.model.CartSummary;
+import com.platform.model.ProductDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Where CartService keeps cart lines. Selected with cart.store.mode:
+ * "jpa" (default) reads and writes cart_item directly, "memory" keeps active
+ * carts in memory and writes them behind to cart_item.
+ */
+public interface CartStore {
+
+    List<CartItem> findByUserId(Long userId);
+
+    Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
+
+    Optional<CartItem> findById(Long cartItemId);
+
+    /**
+     * Adds {@code quantity} units to the user's line for the product, creating
+     * the line if there is none, prices the whole line at {@code unitPrice}
+     * (price version {@code priceVersion}) and returns it. Throws without
+     * changing anything when the line would exceed {@code maxQuantity}.
+     * Concurrent adds to the same line are not lost.
+     */
+    CartItem addQuantity(Long userId, Long productId, int quantity, double unitPrice, long priceVersion, int maxQuantity);
+
+    /**
+     * Applies {@code operations} to the user's cart as one unit, pricing
+     * changed lines from {@code products}, and returns the resulting lines.
+     * Nothing is changed when any operation fails validation.
+     */
+    List<CartItem> applyBatch(Long userId, List<CartOperation> operations, Map<Long, ProductDTO> products);
+
+    /**
+     * Re-prices the user's lines for the products in {@code prices} priced at
+     * an older price version, keeping their quantities, and returns all of the
+     * user's lines.
+     */
+    List<CartItem> reprice(Long userId, Map<Long, ProductDTO> prices);
+
+    // Returns the saved line; a new line comes back with its id
+    CartItem save(CartItem item);
+
+    void deleteById(Long cartItemId);
+
+    // Empties the user's cart, returns the number of lines removed
+    int deleteByUserId(Long userId);
+
+    // Removes every user's lines for the given products, returns the number removed
+    int deleteByProductIdIn(List<Long> productIds);
+
+    /**
+     * Removes the carts, lines and summary, of those of {@code userIds} whose
+     * cart has not changed since {@code changedBefore}, and returns how many
+     * carts were removed. A cart changed meanwhile is kept.
+     */
+    int deleteUnchangedCarts(List<Long> userIds, LocalDateTime changedBefore);
+
+    // The user's totals without reading their lines
+    CartSummary getSummary(Long userId);
+}
@@ -0,0 +1,179 @@
+package com.platform.store;
+
+import com.platform.entity.CartItem;
+import com.platform.entity.UserCartSummary;
+import com.platform.model.CartSummary;
+import com.platform.model.CartOperation;
+import com.platform.model.ProductDTO;
+import com.platform.repository.CartRepository;
+import com.platform.repository.CartSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Every call goes straight to cart_item; each change also rewrites the user's cart_summary row in its transaction,
+// locking that row before any line so changes to one cart run one after another
+@Component
+@ConditionalOnProperty(name = "cart.store.mode", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Override
+    public List<CartItem> findByUserId(Long userId) {
+        return cartRepository.findByUserId(userId);
+    }
+
+    @Override
+    public Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId) {
+        return cartRepository.findByUserIdAndProductId(userId, productId);
+    }
+
+    @Override
+    public Optional<CartItem> findById(Long cartItemId) {
+        return cartRepository.findById(cartItemId);
+    }
+
+    // The upsert locks the line until commit, so the stock check sees every earlier add and a failed
+    // check rolls this one back
+    @Override
+    @Transactional
+    public CartItem addQuantity(Long userId, Long productId, int quantity, double unitPrice, long priceVersion, int maxQuantity) {
+        cartSummaryRepository.lockForUpdate(userId);
+        cartRepository.upsertQuantity(userId, productId, quantity, unitPrice, priceVersion);
+        CartItem item = cartRepository.findByUserIdAndProductId(userId, productId)
+                .orElseThrow(() -> new IllegalStateException("Cart line missing after upsert"));
+        if (item.getQuantity() > maxQuantity) {
+            throw new RuntimeException("Not enough stock for the requested quantity");
+        }
+        cartSummaryRepository.refresh(userId);
+        return item;
+    }
+
+    @Override
+    @Transactional
+    public List<CartItem> applyBatch(Long userId, List<CartOperation> operations, Map<Long, ProductDTO> products) {
+        cartSummaryRepository.lockForUpdate(userId);
+        List<CartItem> lines = cartRepository.findByUserIdForUpdate(userId);
+        Map<Long, Integer> quantities = CartBatch.resultingQuantities(lines, operations, products);
+        List<CartItem> result = new ArrayList<>();
+        List<CartItem> removed = new ArrayList<>();
+        for (CartItem line : lines) {
+            Integer quantity = quantities.remove(line.getProductId());
+            if (quantity == null) {
+                result.add(line);
+            } else if (quantity == 0) {
+                removed.add(line);
+            } else {
+                // Managed entity: the UPDATE goes out with the commit
+                CartBatch.price(line, quantity, products.get(line.getProductId()));
+                result.add(line);
+            }
+        }
+        cartRepository.deleteAll(removed);
+        quantities.forEach((productId, quantity) -> {
+            if (quantity > 0) {
+                CartItem line = new CartItem();
+                line.setUserId(userId);
+                line.setProductId(productId);
+                CartBatch.price(line, quantity, products.get(productId));
+                result.add(cartRepository.save(line));
+            }
+        });
+        cartRepository.flush();
+        cartSummaryRepository.refresh(userId);
+        return result;
+    }
+
+    // Only called with stale prices; the lines are locked so a concurrent quantity change is not overwritten.
+    // The summary is refreshed even if another request repriced them first, as the lock may have created it
+    @Override
+    @Transactional
+    public List<CartItem> reprice(Long userId, Map<Long, ProductDTO> prices) {
+        cartSummaryRepository.lockForUpdate(userId);
+        List<CartItem> lines = cartRepository.findByUserIdForUpdate(userId);
+        for (CartItem line : lines) {
+            // Managed entities: the UPDATEs go out with the flush
+            CartBatch.reprice(line, prices.get(line.getProductId()));
+        }
+        cartRepository.flush();
+        cartSummaryRepository.refresh(userId);
+        return lines;
+    }
+
+    @Override
+    @Transactional
+    public CartItem save(CartItem item) {
+        cartSummaryRepository.lockForUpdate(item.getUserId());
+        CartItem saved = cartRepository.saveAndFlush(item);
+        cartSummaryRepository.refresh(saved.getUserId());
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public void deleteById(Long cartItemId) {
+        cartRepository.findById(cartItemId).ifPresent(item -> {
+            cartSummaryRepository.lockForUpdate(item.getUserId());
+            cartRepository.delete(item);
+            cartRepository.flush();
+            cartSummaryRepository.refresh(item.getUserId());
+        });
+    }
+
+    @Override
+    @Transactional
+    public int deleteByUserId(Long userId) {
+        cartSummaryRepository.lockForUpdate(userId);
+        int removed = cartRepository.deleteByUserId(userId);
+        cartSummaryRepository.refresh(userId);
+        return removed;
+    }
+
+    // Possibly many users: their totals are recalculated in one statement
+    @Override
+    @Transactional
+    public int deleteByProductIdIn(List<Long> productIds) {
+        List<Long> userIds = cartRepository.findUserIdsByProductIdIn(productIds);
+        if (!userIds.isEmpty()) {
+            cartSummaryRepository.findByUserIdInForUpdate(userIds);
+        }
+        int removed = cartRepository.deleteByProductIdIn(productIds);
+        if (!userIds.isEmpty()) {
+            cartSummaryRepository.recalculate(userIds);
+        }
+        return removed;
+    }
+
+    @Override
+    @Transactional
+    public int deleteUnchangedCarts(List<Long> userIds, LocalDateTime changedBefore) {
+        cartSummaryRepository.findByUserIdInForUpdate(userIds);
+        cartRepository.deleteUnchangedCarts(userIds, changedBefore);
+        return cartSummaryRepository.deleteByUserIdInAndUpdatedAtBefore(userIds, changedBefore);
+    }
+
+    @Override
+    @Transactional
+    public CartSummary getSummary(Long userId) {
+        UserCartSummary summary = cartSummaryRepository.findById(userId).orElse(null);
+        if (summary == null) {
+            // Carts from before summaries existed, or removed by the sweeper
+            cartSummaryRepository.lockForUpdate(userId);
+            cartSummaryRepository.refresh(userId);
+            summary = cartSummaryRepository.findById(userId).orElseThrow();
+        }
+        return new CartSummary(summary.getTotalPrice(), summary.getTotalItems(), summary.getUniqueProducts());
+    }
+}
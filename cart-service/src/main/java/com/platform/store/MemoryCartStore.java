@@ -0,0 +1,632 @@
+package com.platform.store;
+
+import com.platform.entity.CartItem;
+import com.platform.model.CartOperation;
+import com.platform.model.CartSummary;
+import com.platform.model.ProductDTO;
+import com.platform.repository.CartRepository;
+import com.platform.repository.CartSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind cart store (cart.store.mode=memory).
+ *
+ * A user's cart is loaded from cart_item on first use and then served from
+ * memory. Quantity changes and removals update memory, are appended to the
+ * {@link CartJournal} and are coalesced per line: a scheduled flush writes the
+ * latest state of every changed line in one transaction and batch, so ten
+ * clicks on "+" cost one UPDATE. On startup the journal is replayed into the
+ * database before anything is served, so the database stays the source of
+ * truth after a crash.
+ *
+ * New lines are still inserted immediately, as their id comes from the
+ * database and is what the client refers to the line by. Bulk removals by
+ * product (catalog cleanup) and by the abandoned cart sweeper also go to the
+ * database immediately. The cart_summary rows are rewritten with the lines
+ * they summarize, so they say when each cart last changed.
+ *
+ * Carts live in the memory of one instance, so with more than one cart-service
+ * instance requests must be routed to instances by user.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.mode", havingValue = "memory")
+public class MemoryCartStore implements CartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemoryCartStore.class);
+
+    private static final String UPDATE_SQL = "UPDATE cart_item SET quantity = ?, total_price = ?, unit_price = ?, price_version = ? "
+            + "WHERE cart_itemid = ?";
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cart.store.journal-dir:data/cart-journal}")
+    private String journalDir = "data/cart-journal";
+
+    @Value("${cart.store.journal-sync:false}")
+    private boolean journalSync;
+
+    @Value("${cart.store.idle-ms:1800000}")
+    private long idleMillis = 1800000;
+
+    // userId -> cart
+    private final Map<Long, Cart> carts = new ConcurrentHashMap<>();
+    // cartItemId -> userId, for lookups by line id
+    private final Map<Long, Long> owners = new ConcurrentHashMap<>();
+    // cartItemId -> latest state not yet in the database (Change.item null for a deleted line)
+    private volatile Map<Long, Change> pending = new ConcurrentHashMap<>();
+    // The changes a flush is writing right now
+    private volatile Map<Long, Change> flushing = Map.of();
+    // Mutations share it; a flush takes it exclusively to swap the pending changes and the journal segment
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private CartJournal journal;
+
+    @PostConstruct
+    public void open() throws IOException {
+        journal = new CartJournal(Paths.get(journalDir), journalSync);
+        Map<Long, CartItem> recovered = journal.recover();
+        if (!recovered.isEmpty()) {
+            List<Change> changes = recovered.entrySet().stream()
+                    .map(entry -> new Change(entry.getKey(), null, null, entry.getValue()))
+                    .collect(Collectors.toList());
+            // Fails startup if the database is not reachable, rather than serving carts without these changes
+            write(changes);
+            logger.info("Replayed {} cart changes from the journal", changes.size());
+        }
+        journal.deleteBefore(journal.rotate());
+    }
+
+    @Override
+    public List<CartItem> findByUserId(Long userId) {
+        lock.readLock().lock();
+        try {
+            return cart(userId).items.values().stream().map(MemoryCartStore::copy).collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId) {
+        lock.readLock().lock();
+        try {
+            return cart(userId).items.values().stream()
+                    .filter(item -> item.getProductId().equals(productId))
+                    .findFirst()
+                    .map(MemoryCartStore::copy);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<CartItem> findById(Long cartItemId) {
+        lock.readLock().lock();
+        try {
+            Cart cart = owningCart(cartItemId);
+            return cart == null ? Optional.empty() : Optional.ofNullable(cart.items.get(cartItemId)).map(MemoryCartStore::copy);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CartItem addQuantity(Long userId, Long productId, int quantity, double unitPrice, long priceVersion, int maxQuantity) {
+        lock.readLock().lock();
+        try {
+            Cart cart = cart(userId);
+            synchronized (cart) {
+                CartItem item = cart.items.values().stream()
+                        .filter(line -> line.getProductId().equals(productId))
+                        .findFirst()
+                        .map(MemoryCartStore::copy)
+                        .orElse(null);
+                int newQuantity = (item != null ? item.getQuantity() : 0) + quantity;
+                if (newQuantity > maxQuantity) {
+                    throw new RuntimeException("Not enough stock for the requested quantity");
+                }
+                if (item == null) {
+                    item = new CartItem();
+                    item.setUserId(userId);
+                    item.setProductId(productId);
+                }
+                item.setQuantity(newQuantity);
+                item.setUnitPrice(unitPrice);
+                item.setPriceVersion(priceVersion);
+                item.setTotalPrice(newQuantity * unitPrice);
+                return item.getCartItemid() == null ? insert(cart, item) : update(cart, item);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Validated before anything changes; the writes then happen under the cart's lock
+    @Override
+    public List<CartItem> applyBatch(Long userId, List<CartOperation> operations, Map<Long, ProductDTO> products) {
+        lock.readLock().lock();
+        try {
+            Cart cart = cart(userId);
+            synchronized (cart) {
+                List<CartItem> lines = cart.items.values().stream().map(MemoryCartStore::copy).collect(Collectors.toList());
+                Map<Long, Integer> quantities = CartBatch.resultingQuantities(lines, operations, products);
+                List<CartItem> result = new ArrayList<>();
+                for (CartItem line : lines) {
+                    Integer quantity = quantities.remove(line.getProductId());
+                    if (quantity == null) {
+                        result.add(line);
+                    } else if (quantity == 0) {
+                        remove(cart, line);
+                    } else {
+                        CartBatch.price(line, quantity, products.get(line.getProductId()));
+                        result.add(update(cart, line));
+                    }
+                }
+                quantities.forEach((productId, quantity) -> {
+                    if (quantity > 0) {
+                        CartItem line = new CartItem();
+                        line.setUserId(userId);
+                        line.setProductId(productId);
+                        CartBatch.price(line, quantity, products.get(productId));
+                        result.add(insert(cart, line));
+                    }
+                });
+                return result;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<CartItem> reprice(Long userId, Map<Long, ProductDTO> prices) {
+        lock.readLock().lock();
+        try {
+            Cart cart = cart(userId);
+            synchronized (cart) {
+                List<CartItem> lines = new ArrayList<>();
+                for (CartItem line : cart.items.values()) {
+                    CartItem copy = copy(line);
+                    lines.add(CartBatch.reprice(copy, prices.get(copy.getProductId())) ? update(cart, copy) : copy);
+                }
+                return lines;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CartItem save(CartItem item) {
+        lock.readLock().lock();
+        try {
+            Cart cart = cart(item.getUserId());
+            synchronized (cart) {
+                if (item.getCartItemid() == null) {
+                    return insert(cart, item);
+                }
+                if (!cart.items.containsKey(item.getCartItemid())) {
+                    throw new RuntimeException("Cart item not found with id: " + item.getCartItemid());
+                }
+                return update(cart, item);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteById(Long cartItemId) {
+        lock.readLock().lock();
+        try {
+            Cart cart = owningCart(cartItemId);
+            if (cart == null) {
+                return;
+            }
+            synchronized (cart) {
+                CartItem item = cart.items.get(cartItemId);
+                if (item != null) {
+                    remove(cart, item);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public CartSummary getSummary(Long userId) {
+        lock.readLock().lock();
+        try {
+            Cart cart = cart(userId);
+            synchronized (cart) {
+                return cart.summary();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int deleteByUserId(Long userId) {
+        lock.readLock().lock();
+        try {
+            Cart cart = cart(userId);
+            synchronized (cart) {
+                List<CartItem> items = new ArrayList<>(cart.items.values());
+                // Removed in memory now; the next flush deletes them all in one batch
+                items.forEach(item -> remove(cart, item));
+                return items.size();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int deleteByProductIdIn(List<Long> productIds) {
+        lock.readLock().lock();
+        try {
+            // The summaries are locked first, as every other change to these carts does
+            Integer removed = new TransactionTemplate(transactionManager).execute(status -> {
+                List<Long> userIds = cartRepository.findUserIdsByProductIdIn(productIds);
+                if (userIds.isEmpty()) {
+                    return cartRepository.deleteByProductIdIn(productIds);
+                }
+                cartSummaryRepository.findByUserIdInForUpdate(userIds);
+                int deleted = cartRepository.deleteByProductIdIn(productIds);
+                cartSummaryRepository.recalculate(userIds);
+                return deleted;
+            });
+            Set<Long> products = new HashSet<>(productIds);
+            for (Cart cart : carts.values()) {
+                synchronized (cart) {
+                    List<CartItem> gone = cart.items.values().stream()
+                            .filter(item -> products.contains(item.getProductId()))
+                            .collect(Collectors.toList());
+                    for (CartItem item : gone) {
+                        cart.remove(item.getCartItemid());
+                        owners.remove(item.getCartItemid());
+                        // Already deleted in the database
+                        pending.remove(item.getCartItemid());
+                    }
+                }
+            }
+            return removed == null ? 0 : removed;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Carts with changes not yet in the database are in use and kept. The delete runs outside the global lock, so
+    // carts keep working meanwhile; the write lock is only taken to pick the idle carts and to drop them after
+    @Override
+    public int deleteUnchangedCarts(List<Long> userIds, LocalDateTime changedBefore) {
+        List<Long> idle;
+        lock.writeLock().lock();
+        try {
+            Set<Long> dirtyUsers = dirtyUsers();
+            idle = userIds.stream().filter(userId -> !dirtyUsers.contains(userId)).collect(Collectors.toList());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (idle.isEmpty()) {
+            return 0;
+        }
+        Integer removed = new TransactionTemplate(transactionManager).execute(status -> {
+            cartSummaryRepository.findByUserIdInForUpdate(idle);
+            cartRepository.deleteUnchangedCarts(idle, changedBefore);
+            return cartSummaryRepository.deleteByUserIdInAndUpdatedAtBefore(idle, changedBefore);
+        });
+        lock.writeLock().lock();
+        try {
+            Set<Long> dirtyUsers = dirtyUsers();
+            for (Long userId : idle) {
+                if (dirtyUsers.contains(userId)) {
+                    // Changed while the delete ran: a kept cart stays as it is, and if the cart went, so did the
+                    // lines those changes were for
+                    if (cartSummaryRepository.existsById(userId)) {
+                        continue;
+                    }
+                    pending.values().removeIf(change -> userId.equals(change.userId));
+                    logger.debug("Dropped changes to cart of user ID: {} removed by the sweeper", userId);
+                }
+                // Kept carts are simply loaded again on next use
+                Cart cart = carts.remove(userId);
+                if (cart != null) {
+                    cart.items.keySet().forEach(owners::remove);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return removed == null ? 0 : removed;
+    }
+
+    private Set<Long> dirtyUsers() {
+        return Stream.concat(pending.values().stream(), flushing.values().stream())
+                .map(change -> change.userId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Writes every pending change to the database. On failure the changes stay
+     * pending (and journaled) for the next run; a change made meanwhile to the
+     * same line wins over the failed one.
+     */
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:500}")
+    public synchronized void flush() {
+        Map<Long, Change> batch;
+        long segment;
+        lock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                evictIdleCarts();
+                return;
+            }
+            batch = pending;
+            flushing = batch;
+            pending = new ConcurrentHashMap<>();
+            segment = journal.rotate();
+        } catch (IOException e) {
+            logger.error("Rotating the cart journal failed", e);
+            return;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            write(batch.values());
+            journal.deleteBefore(segment);
+            logger.debug("Flushed {} cart changes", batch.size());
+            lock.writeLock().lock();
+            try {
+                evictIdleCarts();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (Exception e) {
+            logger.warn("Flushing {} cart changes failed, retrying on the next run: {}", batch.size(), e.getMessage());
+            lock.writeLock().lock();
+            try {
+                batch.forEach(pending::putIfAbsent);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            flushing = Map.of();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    // Runs under the read lock; a cart is only dropped from memory under the write lock
+    private Cart cart(Long userId) {
+        Cart cart = carts.computeIfAbsent(userId, id -> {
+            Cart loaded = new Cart();
+            for (CartItem item : cartRepository.findByUserId(id)) {
+                loaded.put(item);
+                owners.put(item.getCartItemid(), id);
+            }
+            return loaded;
+        });
+        cart.lastUsed = System.currentTimeMillis();
+        return cart;
+    }
+
+    private Cart owningCart(Long cartItemId) {
+        Long userId = owners.get(cartItemId);
+        if (userId == null) {
+            // Not loaded yet: the database knows the owner (a line deleted in memory has no owner entry,
+            // and its cart is loaded, so it is not found again below)
+            userId = cartRepository.findById(cartItemId).map(CartItem::getUserId).orElse(null);
+            if (userId == null) {
+                return null;
+            }
+        }
+        return cart(userId);
+    }
+
+    private CartItem update(Cart cart, CartItem item) {
+        CartItem saved = copy(item);
+        try {
+            journal.update(saved);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal cart change", e);
+        }
+        cart.put(saved);
+        pending.put(saved.getCartItemid(), new Change(saved.getCartItemid(), saved.getUserId(), saved.getProductId(), saved));
+        return copy(saved);
+    }
+
+    private void remove(Cart cart, CartItem item) {
+        Long cartItemId = item.getCartItemid();
+        try {
+            journal.delete(cartItemId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not journal cart change", e);
+        }
+        cart.remove(cartItemId);
+        owners.remove(cartItemId);
+        pending.put(cartItemId, new Change(cartItemId, item.getUserId(), item.getProductId(), null));
+    }
+
+    private CartItem insert(Cart cart, CartItem item) {
+        // A removed line for the same product may not be deleted in the database yet; it has to go first,
+        // as a user has one line per product (one being flushed right now is waited for by the DELETE)
+        List<Long> removed = Stream.concat(pending.values().stream(), flushing.values().stream())
+                .filter(change -> change.item == null && item.getUserId().equals(change.userId)
+                        && item.getProductId().equals(change.productId))
+                .map(change -> change.cartItemId)
+                .collect(Collectors.toList());
+        // One transaction that locks the summary first, as the flush does
+        CartItem saved = new TransactionTemplate(transactionManager).execute(status -> {
+            cartSummaryRepository.lockForUpdate(item.getUserId());
+            if (!removed.isEmpty()) {
+                cartRepository.deleteAllByIdInBatch(removed);
+            }
+            CartItem inserted = cartRepository.save(copy(item));
+            cartSummaryRepository.refresh(inserted.getUserId());
+            return inserted;
+        });
+        if (!removed.isEmpty()) {
+            removed.forEach(pending::remove);
+            logger.debug("Deleted removed cart lines {} ahead of the flush", removed);
+        }
+        cart.put(copy(saved));
+        owners.put(saved.getCartItemid(), saved.getUserId());
+        logger.debug("Inserted cart line {} for user ID: {}", saved.getCartItemid(), saved.getUserId());
+        return saved;
+    }
+
+    private void write(Collection<Change> changes) {
+        List<Long> deletes = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        Set<Long> userIds = new HashSet<>();
+        List<Long> unknownOwners = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.item == null) {
+                deletes.add(change.cartItemId);
+            } else {
+                // A line removed meanwhile by a bulk delete simply matches no row
+                updates.add(new Object[] {change.item.getQuantity(), change.item.getTotalPrice(),
+                        change.item.getUnitPrice(), change.item.getPriceVersion(), change.cartItemId});
+            }
+            Long userId = change.item != null ? change.item.getUserId() : change.userId;
+            if (userId != null) {
+                userIds.add(userId);
+            } else {
+                // Deletes replayed from the journal, which does not record the owner
+                unknownOwners.add(change.cartItemId);
+            }
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (!unknownOwners.isEmpty()) {
+                cartRepository.findAllById(unknownOwners).forEach(item -> userIds.add(item.getUserId()));
+            }
+            // Summaries before lines, as the other changes to these carts lock them
+            if (!userIds.isEmpty()) {
+                cartSummaryRepository.findByUserIdInForUpdate(userIds);
+            }
+            if (!deletes.isEmpty()) {
+                cartRepository.deleteAllByIdInBatch(deletes);
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            }
+            userIds.forEach(cartSummaryRepository::refresh);
+        });
+    }
+
+    // Runs under the write lock: carts idle for cart.store.idle-ms with nothing pending are reloaded on next use
+    private void evictIdleCarts() {
+        long idleSince = System.currentTimeMillis() - idleMillis;
+        Set<Long> dirtyUsers = new HashSet<>();
+        for (Change change : pending.values()) {
+            dirtyUsers.add(change.userId);
+        }
+        carts.entrySet().removeIf(entry -> {
+            if (entry.getValue().lastUsed >= idleSince || dirtyUsers.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().items.keySet().forEach(owners::remove);
+            return true;
+        });
+    }
+
+    private static CartItem copy(CartItem item) {
+        CartItem copy = new CartItem();
+        copy.setCartItemid(item.getCartItemid());
+        copy.setUserId(item.getUserId());
+        copy.setProductId(item.getProductId());
+        copy.setQuantity(item.getQuantity());
+        copy.setTotalPrice(item.getTotalPrice());
+        copy.setUnitPrice(item.getUnitPrice());
+        copy.setPriceVersion(item.getPriceVersion());
+        return copy;
+    }
+
+    // Lines plus running totals; changed only through put and remove, under the cart's lock
+    private static final class Cart {
+        final Map<Long, CartItem> items = new ConcurrentHashMap<>();
+        volatile long lastUsed;
+        // Summed as decimals so thousands of +1 / -1 clicks leave no floating point residue
+        private BigDecimal totalPrice = BigDecimal.ZERO;
+        private int totalItems;
+
+        void put(CartItem item) {
+            add(items.put(item.getCartItemid(), item), -1);
+            add(item, 1);
+        }
+
+        void remove(Long cartItemId) {
+            add(items.remove(cartItemId), -1);
+        }
+
+        CartSummary summary() {
+            return new CartSummary(totalPrice.doubleValue(), totalItems, items.size());
+        }
+
+        private void add(CartItem item, int sign) {
+            if (item != null) {
+                totalPrice = totalPrice.add(BigDecimal.valueOf(item.getTotalPrice()).multiply(BigDecimal.valueOf(sign)));
+                totalItems += sign * item.getQuantity();
+            }
+        }
+    }
+
+    private static final class Change {
+        final Long cartItemId;
+        final Long userId;
+        final Long productId;
+        final CartItem item;
+
+        Change(Long cartItemId, Long userId, Long productId, CartItem item) {
+            this.cartItemId = cartItemId;
+            this.userId = userId;
+            this.productId = productId;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.platform;
+
+import com.platform.entity.CartItem;
+import com.platform.model.ProductChange;
+import com.platform.model.ProductDTO;
+
+// Cart lines, products and catalog changes shared by the cart-service tests
+public final class CartFixtures {
+
+    private CartFixtures() {
+    }
+
+    // A line of user 1 from before prices were recorded on lines
+    public static CartItem cartItem(Long id, Long productId, int quantity) {
+        CartItem item = new CartItem();
+        item.setCartItemid(id);
+        item.setUserId(1L);
+        item.setProductId(productId);
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    // A line of user 1 priced at the given price version
+    public static CartItem pricedLine(Long id, Long productId, int quantity, double unitPrice, Long priceVersion) {
+        CartItem item = cartItem(id, productId, quantity);
+        item.setUnitPrice(unitPrice);
+        item.setPriceVersion(priceVersion);
+        item.setTotalPrice(quantity * unitPrice);
+        return item;
+    }
+
+    // A line priced at version 1 with the given total
+    public static CartItem cartItem(Long id, Long userId, Long productId, int quantity, double totalPrice) {
+        CartItem item = cartItem(id, productId, quantity);
+        item.setUserId(userId);
+        item.setTotalPrice(totalPrice);
+        item.setUnitPrice(quantity > 0 ? totalPrice / quantity : 0);
+        item.setPriceVersion(1L);
+        return item;
+    }
+
+    public static ProductDTO product(Long id, double price, int stock) {
+        ProductDTO product = new ProductDTO();
+        product.setProductId(id);
+        product.setName("Product " + id);
+        product.setPrice(price);
+        product.setStockQuantity(stock);
+        return product;
+    }
+
+    public static ProductDTO product(Long id, double price, int stock, long priceVersion) {
+        ProductDTO product = product(id, price, stock);
+        product.setPriceVersion(priceVersion);
+        return product;
+    }
+
+    public static ProductChange change(Long version, Long productId) {
+        ProductChange change = new ProductChange();
+        change.setVersion(version);
+        change.setProductId(productId);
+        change.setChangeType("SAVED");
+        return change;
+    }
+}
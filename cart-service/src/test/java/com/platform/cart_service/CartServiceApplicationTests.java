@@ -6,6 +6,7 @@ import com.platform.service.CartService;
 import com.platform.entity.CartItem;
 import com.platform.repository.CartRepository;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,6 +25,20 @@ import java.util.Arrays;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import com.platform.catalog.ProductSnapshotCache;
+import com.platform.entity.UserCartSummary;
+import com.platform.feign.ProductClient;
+import com.platform.model.CartOperation;
+import com.platform.model.CartOperation.Type;
+import com.platform.model.CartSummary;
+import com.platform.model.ProductChangeFeed;
+import com.platform.model.ProductDTO;
+import com.platform.repository.CartSummaryRepository;
+import com.platform.store.JpaCartStore;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
+import java.util.Optional;
+import static com.platform.CartFixtures.*;
 
 @SpringBootTest
 class CartServiceApplicationTests {
@@ -61,3 +76,280 @@ class CartServiceApplicationTests {
 		verify(cartService, times(1)).removeCartItem(5L);
 	}
 }
+
+@ExtendWith(MockitoExtension.class)
+class CartServiceBatchLookupTest {
+	@Mock
+	private CartRepository cartRepository;
+	@Mock
+	private ProductClient productClient;
+	@Mock
+	private CartSummaryRepository cartSummaryRepository;
+	@InjectMocks
+	private CartService cartService;
+
+	@BeforeEach
+	void setUpProductCache() {
+		ProductSnapshotCache productCache = new ProductSnapshotCache();
+		ReflectionTestUtils.setField(productCache, "productClient", productClient);
+		productCache.init();
+		ReflectionTestUtils.setField(cartService, "productCache", productCache);
+		JpaCartStore cartStore = new JpaCartStore();
+		ReflectionTestUtils.setField(cartStore, "cartRepository", cartRepository);
+		ReflectionTestUtils.setField(cartStore, "cartSummaryRepository", cartSummaryRepository);
+		ReflectionTestUtils.setField(cartService, "cartStore", cartStore);
+	}
+
+	@Test
+	void getCartItemsByUserId_fetchesAllProductsInOneBatchCall() {
+		CartItem first = cartItem(1L, 10L, 2);
+		CartItem second = cartItem(2L, 20L, 1);
+		when(cartRepository.findByUserId(1L)).thenReturn(Arrays.asList(first, second));
+		// Lines from before prices were recorded are priced on the first read
+		when(cartRepository.findByUserIdForUpdate(1L)).thenReturn(Arrays.asList(first, second));
+		ProductDTO product = product(10L, 100.0, 5);
+		product.setName("Phone");
+		when(productClient.getProductsByIds(Arrays.asList(10L, 20L))).thenReturn(Arrays.asList(product));
+
+		List<CartItemDTO> result = cartService.getCartItemsByUserId(1L);
+
+		assertEquals(1, result.size());
+		assertEquals("Phone", result.get(0).getProductName());
+		verify(productClient, times(1)).getProductsByIds(anyList());
+		verify(productClient, never()).getProductById(anyLong());
+	}
+
+	@Test
+	void getCartItemsByUserId_servesRepeatedReadsFromCache() {
+		CartItem item = cartItem(1L, 10L, 2);
+		when(cartRepository.findByUserId(1L)).thenReturn(Arrays.asList(item));
+		when(cartRepository.findByUserIdForUpdate(1L)).thenReturn(Arrays.asList(item));
+		when(productClient.getProductsByIds(Arrays.asList(10L))).thenReturn(Arrays.asList(product(10L, 100.0, 5)));
+
+		cartService.getCartItemsByUserId(1L);
+		List<CartItemDTO> result = cartService.getCartItemsByUserId(1L);
+
+		assertEquals(100.0, result.get(0).getPrice());
+		verify(productClient, times(1)).getProductsByIds(anyList());
+		// Priced on the first read, current on the second
+		verify(cartRepository, times(1)).findByUserIdForUpdate(1L);
+	}
+
+	@Test
+	void pollChanges_dropsChangedProductsFromCache() {
+		when(productClient.getCatalogVersion()).thenReturn(7L);
+		ProductSnapshotCache productCache =
+				(ProductSnapshotCache) ReflectionTestUtils.getField(cartService, "productCache");
+		productCache.pollChanges();
+		List<CartItem> lines = Arrays.asList(cartItem(1L, 10L, 1), cartItem(2L, 20L, 1));
+		when(cartRepository.findByUserId(1L)).thenReturn(lines);
+		when(cartRepository.findByUserIdForUpdate(1L)).thenReturn(lines);
+		when(productClient.getProductsByIds(Arrays.asList(10L, 20L)))
+				.thenReturn(Arrays.asList(product(10L, 100.0, 5), product(20L, 50.0, 5)));
+		cartService.getCartItemsByUserId(1L);
+
+		ProductChangeFeed feed = new ProductChangeFeed();
+		feed.setChanges(Arrays.asList(change(8L, 10L)));
+		feed.setVersion(8L);
+		when(productClient.getChanges(7L, 500)).thenReturn(feed);
+		productCache.pollChanges();
+		when(productClient.getProductsByIds(Arrays.asList(10L))).thenReturn(Arrays.asList(product(10L, 80.0, 5, 1L)));
+
+		List<CartItemDTO> result = cartService.getCartItemsByUserId(1L);
+
+		assertEquals(80.0, result.get(0).getPrice());
+		assertEquals(50.0, result.get(1).getPrice());
+		verify(productClient, times(1)).getProductsByIds(Arrays.asList(10L));
+	}
+
+	@Test
+	void pollChanges_skipsChangesReturnedAgainWhileTheFeedIsHeldAtAGap() {
+		when(productClient.getCatalogVersion()).thenReturn(7L);
+		ProductSnapshotCache productCache =
+				(ProductSnapshotCache) ReflectionTestUtils.getField(cartService, "productCache");
+		productCache.pollChanges();
+		when(productClient.getProductsByIds(Arrays.asList(10L, 20L)))
+				.thenReturn(Arrays.asList(product(10L, 100.0, 5), product(20L, 50.0, 5)));
+		productCache.getAll(Arrays.asList(10L, 20L));
+
+		// Version 8 has not committed yet: 9 is returned but the position stays at 7
+		ProductChangeFeed held = new ProductChangeFeed();
+		held.setChanges(Arrays.asList(change(9L, 10L)));
+		held.setVersion(7L);
+		ProductChangeFeed caughtUp = new ProductChangeFeed();
+		caughtUp.setChanges(Arrays.asList(change(8L, 20L), change(9L, 10L)));
+		caughtUp.setVersion(9L);
+		when(productClient.getChanges(7L, 500)).thenReturn(held, held, caughtUp);
+		productCache.pollChanges();
+		when(productClient.getProductsByIds(Arrays.asList(10L))).thenReturn(Arrays.asList(product(10L, 80.0, 5)));
+		assertEquals(80.0, productCache.get(10L).getPrice());
+		productCache.pollChanges();
+		assertEquals(80.0, productCache.get(10L).getPrice());
+		productCache.pollChanges();
+		when(productClient.getProductsByIds(Arrays.asList(20L))).thenReturn(Arrays.asList(product(20L, 40.0, 5)));
+
+		assertEquals(40.0, productCache.get(20L).getPrice());
+		assertEquals(80.0, productCache.get(10L).getPrice());
+		verify(productClient, times(1)).getProductsByIds(Arrays.asList(10L));
+	}
+
+	@Test
+	void addCartItem_usesCachedProductAndOneUpsert() {
+		when(productClient.getProductsByIds(Arrays.asList(10L))).thenReturn(Arrays.asList(product(10L, 100.0, 5)));
+		CartItem line = cartItem(1L, 10L, 4);
+		line.setTotalPrice(400.0);
+		when(cartRepository.findByUserIdAndProductId(1L, 10L)).thenReturn(Optional.of(line));
+		CartItemRequest request = new CartItemRequest();
+		request.setProductId(10L);
+		request.setQuantity(2);
+
+		cartService.addCartItem(request, 1L);
+		CartItem saved = cartService.addCartItem(request, 1L);
+
+		assertEquals(400.0, saved.getTotalPrice());
+		verify(cartRepository, times(2)).upsertQuantity(1L, 10L, 2, 100.0, 0L);
+		verify(cartRepository, never()).save(any(CartItem.class));
+		verify(productClient, times(1)).getProductsByIds(anyList());
+		verify(productClient, never()).getProductById(anyLong());
+	}
+
+	@Test
+	void addCartItem_rejectsQuantityBeyondStock() {
+		when(productClient.getProductsByIds(Arrays.asList(10L))).thenReturn(Arrays.asList(product(10L, 100.0, 5)));
+		when(cartRepository.findByUserIdAndProductId(1L, 10L)).thenReturn(Optional.of(cartItem(1L, 10L, 6)));
+		CartItemRequest request = new CartItemRequest();
+		request.setProductId(10L);
+		request.setQuantity(2);
+
+		RuntimeException e = assertThrows(RuntimeException.class, () -> cartService.addCartItem(request, 1L));
+		assertEquals("Not enough stock for the requested quantity", e.getMessage());
+	}
+
+	@Test
+	void applyCartOperations_appliesBatchWithOneProductLookup() {
+		CartItem phone = cartItem(1L, 10L, 1);
+		CartItem cable = cartItem(2L, 20L, 3);
+		when(cartRepository.findByUserId(1L)).thenReturn(Arrays.asList(phone, cable));
+		when(cartRepository.findByUserIdForUpdate(1L)).thenReturn(Arrays.asList(phone, cable));
+		when(productClient.getProductsByIds(Arrays.asList(10L, 20L, 30L)))
+				.thenReturn(Arrays.asList(product(10L, 100.0, 5), product(20L, 5.0, 50), product(30L, 20.0, 10)));
+		when(cartRepository.save(any(CartItem.class))).thenAnswer(invocation -> {
+			CartItem saved = invocation.getArgument(0);
+			saved.setCartItemid(3L);
+			return saved;
+		});
+		List<CartOperation> operations = Arrays.asList(
+				new CartOperation(Type.ADD, 10L, 2),
+				new CartOperation(Type.REMOVE, 20L, 0),
+				new CartOperation(Type.SET, 30L, 4));
+
+		List<CartItemDTO> cart = cartService.applyCartOperations(operations, 1L);
+
+		assertEquals(2, cart.size());
+		assertEquals(3, cart.get(0).getQuantity());
+		assertEquals(300.0, phone.getTotalPrice());
+		assertEquals(30L, cart.get(1).getProductId());
+		assertEquals(4, cart.get(1).getQuantity());
+		verify(cartRepository).deleteAll(Arrays.asList(cable));
+		verify(productClient, times(1)).getProductsByIds(anyList());
+	}
+
+	@Test
+	void applyCartOperations_rejectsWholeBatchWhenOneProductLacksStock() {
+		when(cartRepository.findByUserId(1L)).thenReturn(new ArrayList<>());
+		when(cartRepository.findByUserIdForUpdate(1L)).thenReturn(new ArrayList<>());
+		when(productClient.getProductsByIds(Arrays.asList(10L, 20L)))
+				.thenReturn(Arrays.asList(product(10L, 100.0, 5), product(20L, 5.0, 1)));
+		List<CartOperation> operations = Arrays.asList(
+				new CartOperation(Type.ADD, 10L, 2),
+				new CartOperation(Type.ADD, 20L, 2));
+
+		assertThrows(RuntimeException.class, () -> cartService.applyCartOperations(operations, 1L));
+		verify(cartRepository, never()).save(any(CartItem.class));
+	}
+
+	@Test
+	void getCartSummary_readsSummaryRowInsteadOfLines() {
+		UserCartSummary row = new UserCartSummary();
+		row.setUserId(1L);
+		row.setTotalPrice(250.0);
+		row.setTotalItems(3);
+		row.setUniqueProducts(2);
+		when(cartSummaryRepository.findById(1L)).thenReturn(Optional.of(row));
+
+		CartSummary summary = cartService.getCartSummary(1L);
+
+		assertEquals(250.0, summary.getTotalPrice());
+		assertEquals(3, summary.getTotalItems());
+		assertEquals(2, summary.getUniqueProducts());
+		assertEquals(250.0, cartService.calculateTotalPrice(1L));
+		verify(cartRepository, never()).findByUserId(anyLong());
+	}
+
+	@Test
+	void updateCartItemQuantity_refreshesSummaryInSameStore() {
+		CartItem line = cartItem(1L, 10L, 1);
+		when(cartRepository.findById(1L)).thenReturn(Optional.of(line));
+		when(productClient.getProductsByIds(Arrays.asList(10L))).thenReturn(Arrays.asList(product(10L, 100.0, 5)));
+		when(cartRepository.saveAndFlush(any(CartItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		cartService.updateCartItemQuantity(1L, 3);
+
+		// The summary row is locked before the line, as in every other change to the cart
+		InOrder order = inOrder(cartSummaryRepository, cartRepository);
+		order.verify(cartSummaryRepository).lockForUpdate(1L);
+		order.verify(cartRepository).saveAndFlush(any(CartItem.class));
+		order.verify(cartSummaryRepository).refresh(1L);
+	}
+
+	@Test
+	void clearCart_removesAllLinesWithOneBulkDelete() {
+		when(cartRepository.deleteByUserId(1L)).thenReturn(3);
+
+		cartService.clearCart(1L);
+
+		verify(cartRepository, never()).findByUserId(anyLong());
+		verify(cartRepository, never()).deleteAll(anyList());
+		verify(cartSummaryRepository).refresh(1L);
+		when(cartRepository.deleteByUserId(1L)).thenReturn(0);
+		assertThrows(RuntimeException.class, () -> cartService.clearCart(1L));
+	}
+
+	@Test
+	void getCartItemsByUserId_repricesOnlyLinesWithStalePriceVersion() {
+		CartItem phone = pricedLine(1L, 10L, 1, 100.0, 2L);
+		CartItem cable = pricedLine(2L, 20L, 3, 5.0, 1L);
+		when(cartRepository.findByUserId(1L)).thenReturn(Arrays.asList(phone, cable));
+		when(cartRepository.findByUserIdForUpdate(1L)).thenReturn(Arrays.asList(phone, cable));
+		when(productClient.getProductsByIds(Arrays.asList(10L, 20L)))
+				.thenReturn(Arrays.asList(product(10L, 100.0, 5, 2L), product(20L, 6.0, 50, 2L)));
+
+		List<CartItemDTO> cart = cartService.getCartItemsByUserId(1L);
+
+		assertEquals(100.0, phone.getTotalPrice());
+		assertEquals(18.0, cable.getTotalPrice());
+		assertEquals(2L, cable.getPriceVersion());
+		assertEquals(6.0, cart.get(1).getPrice());
+		verify(cartSummaryRepository).refresh(1L);
+		// The versions come with the products: one round trip for the whole read
+		verify(productClient, times(1)).getProductsByIds(anyList());
+	}
+
+	@Test
+	void getCartItemsByUserId_leavesLinesAloneWhenVersionsAreCurrent() {
+		CartItem phone = pricedLine(1L, 10L, 2, 100.0, 2L);
+		CartItem cable = pricedLine(2L, 20L, 1, 6.0, 3L);
+		when(cartRepository.findByUserId(1L)).thenReturn(Arrays.asList(phone, cable));
+		// The catalog copy may be a little behind, even behind the version a line was priced at since; the
+		// line's recorded price is what is charged
+		when(productClient.getProductsByIds(Arrays.asList(10L, 20L)))
+				.thenReturn(Arrays.asList(product(10L, 90.0, 5, 2L), product(20L, 5.0, 5, 2L)));
+
+		List<CartItemDTO> cart = cartService.getCartItemsByUserId(1L);
+
+		assertEquals(100.0, cart.get(0).getPrice());
+		assertEquals(6.0, cart.get(1).getPrice());
+		verify(cartRepository, never()).findByUserIdForUpdate(anyLong());
+		verify(cartSummaryRepository, never()).refresh(anyLong());
+	}
+}
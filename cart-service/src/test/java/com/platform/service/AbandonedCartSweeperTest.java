@@ -0,0 +1,65 @@
+package com.platform.service;
+
+import com.platform.repository.CartRepository;
+import com.platform.repository.CartSummaryRepository;
+import com.platform.store.CartStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AbandonedCartSweeperTest {
+
+    @Mock
+    private CartStore cartStore;
+    @Mock
+    private CartRepository cartRepository;
+    @Mock
+    private CartSummaryRepository cartSummaryRepository;
+    @InjectMocks
+    private AbandonedCartSweeper sweeper;
+
+    @Test
+    void sweep_deletesIdleCartsChunkByChunkUntilNoneAreLeft() {
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        when(cartRepository.findUserIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(cartRepository.findUserIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(cartSummaryRepository.createMissing(anyList())).thenReturn(2, 1);
+        when(cartSummaryRepository.findUserIdsChangedBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+        when(cartStore.deleteUnchangedCarts(anyList(), any(LocalDateTime.class))).thenReturn(2, 1);
+
+        sweeper.sweep();
+        sweeper.sweep();
+
+        verify(cartStore).deleteUnchangedCarts(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(cartStore).deleteUnchangedCarts(eq(List.of(3L)), any(LocalDateTime.class));
+        // Missing summaries are only looked for on the first run, a chunk of users at a time
+        verify(cartSummaryRepository).createMissing(List.of(1L, 2L));
+        verify(cartSummaryRepository).createMissing(List.of(3L));
+        verify(cartRepository, times(2)).findUserIdsAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void sweep_stopsWhenAChunkKeepsCartsChangedMeanwhile() {
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(sweeper, "summariesComplete", true);
+        when(cartSummaryRepository.findUserIdsChangedBefore(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(cartStore.deleteUnchangedCarts(anyList(), any(LocalDateTime.class))).thenReturn(1);
+
+        sweeper.sweep();
+
+        verify(cartStore, times(1)).deleteUnchangedCarts(anyList(), any(LocalDateTime.class));
+    }
+}
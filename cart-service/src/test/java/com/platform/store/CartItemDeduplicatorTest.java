@@ -0,0 +1,77 @@
+package com.platform.store;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartItemDeduplicatorTest {
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+    private CartItemDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE cart_item (cart_itemid BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT, "
+                + "product_id BIGINT, quantity INT, total_price DOUBLE, unit_price DOUBLE, price_version BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE cart_summary (user_id BIGINT PRIMARY KEY, total_price DOUBLE, total_items INT, "
+                + "unique_products INT, updated_at TIMESTAMP)");
+        deduplicator = new CartItemDeduplicator();
+        ReflectionTestUtils.setField(deduplicator, "dataSource", database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    @Test
+    void mergeDuplicates_keepsTheOldestLineWithEveryQuantitySoTheUniqueKeyCanBeAdded() {
+        line(1L, 10L, 2, 20.0);
+        line(1L, 11L, 1, 5.0);
+        line(1L, 10L, 3, 30.0);
+        line(2L, 10L, 1, 10.0);
+        line(1L, 10L, 1, 10.0);
+        jdbcTemplate.update("INSERT INTO cart_summary VALUES (1, 65.0, 7, 4, CURRENT_TIMESTAMP)");
+
+        deduplicator.mergeDuplicates();
+
+        List<Map<String, Object>> lines = jdbcTemplate.queryForList(
+                "SELECT cart_itemid, user_id, product_id, quantity, total_price FROM cart_item ORDER BY cart_itemid");
+        assertEquals(3, lines.size());
+        assertEquals(List.of(1L, 2L, 4L), lines.stream().map(line -> ((Number) line.get("CART_ITEMID")).longValue()).toList());
+        assertEquals(6, ((Number) lines.get(0).get("QUANTITY")).intValue());
+        assertEquals(60.0, ((Number) lines.get(0).get("TOTAL_PRICE")).doubleValue());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT unique_products FROM cart_summary WHERE user_id = 1", Integer.class));
+        jdbcTemplate.execute("ALTER TABLE cart_item ADD CONSTRAINT " + CartItemDeduplicator.UNIQUE_KEY + " UNIQUE (user_id, product_id)");
+    }
+
+    @Test
+    void mergeDuplicates_doesNothingOnceTheUniqueKeyExistsOrBeforeTheTableDoes() {
+        jdbcTemplate.execute("ALTER TABLE cart_item ADD CONSTRAINT " + CartItemDeduplicator.UNIQUE_KEY + " UNIQUE (user_id, product_id)");
+        line(1L, 10L, 2, 20.0);
+
+        deduplicator.mergeDuplicates();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_item", Integer.class));
+        jdbcTemplate.execute("DROP TABLE cart_item");
+        assertDoesNotThrow(() -> deduplicator.mergeDuplicates());
+    }
+
+    private void line(Long userId, Long productId, int quantity, double totalPrice) {
+        jdbcTemplate.update("INSERT INTO cart_item (user_id, product_id, quantity, total_price, unit_price) VALUES (?, ?, ?, ?, ?)",
+                userId, productId, quantity, totalPrice, totalPrice / quantity);
+    }
+}
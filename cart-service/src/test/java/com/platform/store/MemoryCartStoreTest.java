@@ -0,0 +1,301 @@
+package com.platform.store;
+
+import com.platform.entity.CartItem;
+import com.platform.model.CartOperation;
+import com.platform.model.CartSummary;
+import com.platform.model.ProductDTO;
+import com.platform.repository.CartRepository;
+import com.platform.repository.CartSummaryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.platform.CartFixtures.cartItem;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class MemoryCartStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private CartRepository cartRepository;
+    private CartSummaryRepository cartSummaryRepository;
+    private JdbcTemplate jdbcTemplate;
+    private MemoryCartStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cartRepository = mock(CartRepository.class);
+        cartSummaryRepository = mock(CartSummaryRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(cartRepository.findByUserId(1L)).thenReturn(new ArrayList<>(List.of(cartItem(5L, 1L, 10L, 1, 100.0))));
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void save_coalescesChangesToOneLineIntoOneUpdate() {
+        for (int quantity = 2; quantity <= 4; quantity++) {
+            store.save(cartItem(5L, 1L, 10L, quantity, quantity * 100.0));
+        }
+        assertEquals(4, store.findByUserId(1L).get(0).getQuantity());
+        verifyNoInteractions(jdbcTemplate);
+
+        store.flush();
+
+        List<Object[]> rows = flushedUpdates(1).get(0);
+        assertEquals(1, rows.size());
+        assertArrayEquals(new Object[] {4, 400.0, 100.0, 1L, 5L}, rows.get(0));
+        verify(cartRepository, never()).save(any());
+        verify(cartRepository, times(1)).findByUserId(1L);
+    }
+
+    @Test
+    void deleteById_removesLineNowAndFromDatabaseOnFlush() {
+        // Cart not loaded yet: the owner is looked up by line id
+        when(cartRepository.findById(5L)).thenReturn(Optional.of(cartItem(5L, 1L, 10L, 1, 100.0)));
+
+        store.deleteById(5L);
+
+        assertTrue(store.findByUserId(1L).isEmpty());
+        assertEquals(Optional.empty(), store.findById(5L));
+        store.flush();
+        verify(cartRepository).deleteAllByIdInBatch(List.of(5L));
+    }
+
+    @Test
+    void addQuantity_addsToExistingLineInMemoryAndEnforcesMax() {
+        CartItem line = store.addQuantity(1L, 10L, 2, 100.0, 0, 5);
+
+        assertEquals(5L, line.getCartItemid());
+        assertEquals(3, line.getQuantity());
+        assertEquals(300.0, line.getTotalPrice());
+        assertThrows(RuntimeException.class, () -> store.addQuantity(1L, 10L, 3, 100.0, 0, 5));
+        assertEquals(3, store.findById(5L).get().getQuantity());
+        verify(cartRepository, never()).save(any());
+    }
+
+    @Test
+    void addQuantity_deletesPendingRemovedLineBeforeInsertingNewOne() {
+        store.findByUserId(1L);
+        store.deleteById(5L);
+        when(cartRepository.save(any(CartItem.class))).thenAnswer(invocation -> {
+            CartItem saved = invocation.getArgument(0);
+            saved.setCartItemid(6L);
+            return saved;
+        });
+
+        CartItem line = store.addQuantity(1L, 10L, 1, 100.0, 0, 5);
+
+        assertEquals(6L, line.getCartItemid());
+        var order = inOrder(cartRepository);
+        order.verify(cartRepository).deleteAllByIdInBatch(List.of(5L));
+        order.verify(cartRepository).save(any(CartItem.class));
+        store.flush();
+        verifyNoInteractions(jdbcTemplate);
+        verify(cartRepository, times(1)).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void applyBatch_changesCartInMemoryAndLeavesItUntouchedOnFailure() {
+        ProductDTO product = new ProductDTO();
+        product.setProductId(10L);
+        product.setPrice(100.0);
+        product.setStockQuantity(5);
+        Map<Long, ProductDTO> products = Map.of(10L, product);
+
+        assertThrows(RuntimeException.class, () -> store.applyBatch(1L, List.of(
+                new CartOperation(CartOperation.Type.ADD, 10L, 2),
+                new CartOperation(CartOperation.Type.ADD, 99L, 1)), products));
+        assertEquals(1, store.findById(5L).get().getQuantity());
+
+        List<CartItem> lines = store.applyBatch(1L, List.of(
+                new CartOperation(CartOperation.Type.ADD, 10L, 2),
+                new CartOperation(CartOperation.Type.SET, 10L, 4)), products);
+
+        assertEquals(1, lines.size());
+        assertEquals(4, lines.get(0).getQuantity());
+        assertEquals(400.0, lines.get(0).getTotalPrice());
+        store.flush();
+        assertArrayEquals(new Object[] {4, 400.0, 100.0, 0L, 5L}, flushedUpdates(1).get(0).get(0));
+    }
+
+    @Test
+    void getSummary_followsEveryChangeWithoutReloading() {
+        when(cartRepository.save(any(CartItem.class))).thenAnswer(invocation -> {
+            CartItem saved = invocation.getArgument(0);
+            saved.setCartItemid(6L);
+            return saved;
+        });
+        store.addQuantity(1L, 20L, 3, 0.1, 0, 10);
+        for (int i = 0; i < 1000; i++) {
+            store.save(cartItem(6L, 1L, 20L, 4, 0.4));
+            store.save(cartItem(6L, 1L, 20L, 3, 0.30000000000000004));
+        }
+        store.save(cartItem(5L, 1L, 10L, 2, 200.0));
+
+        CartSummary summary = store.getSummary(1L);
+        assertEquals(200.30000000000000004, summary.getTotalPrice());
+        assertEquals(5, summary.getTotalItems());
+        assertEquals(2, summary.getUniqueProducts());
+
+        store.deleteById(6L);
+        store.deleteByProductIdIn(List.of(10L));
+        summary = store.getSummary(1L);
+        assertEquals(0.0, summary.getTotalPrice());
+        assertEquals(0, summary.getTotalItems());
+        assertEquals(0, summary.getUniqueProducts());
+        verify(cartRepository, times(1)).findByUserId(1L);
+    }
+
+    @Test
+    void deleteByUserId_emptiesCartAndDeletesLinesInOneFlushBatch() {
+        when(cartRepository.findByUserId(1L)).thenReturn(new ArrayList<>(List.of(
+                cartItem(5L, 1L, 10L, 1, 100.0), cartItem(6L, 1L, 20L, 2, 40.0))));
+
+        assertEquals(2, store.deleteByUserId(1L));
+
+        assertTrue(store.findByUserId(1L).isEmpty());
+        assertEquals(0, store.getSummary(1L).getTotalItems());
+        store.flush();
+        ArgumentCaptor<List<Long>> deleted = ArgumentCaptor.forClass(List.class);
+        InOrder order = inOrder(cartSummaryRepository, cartRepository);
+        order.verify(cartSummaryRepository).findByUserIdInForUpdate(Set.of(1L));
+        order.verify(cartRepository).deleteAllByIdInBatch(deleted.capture());
+        order.verify(cartSummaryRepository).refresh(1L);
+        assertEquals(Set.of(5L, 6L), Set.copyOf(deleted.getValue()));
+    }
+
+    @Test
+    void deleteUnchangedCarts_keepsCartsWithUnflushedChanges() {
+        LocalDateTime changedBefore = LocalDateTime.now().minusDays(30);
+        when(cartRepository.findByUserId(2L)).thenReturn(new ArrayList<>(List.of(cartItem(7L, 2L, 10L, 1, 100.0))));
+        store.save(cartItem(5L, 1L, 10L, 2, 200.0));
+        store.findByUserId(2L);
+        when(cartSummaryRepository.deleteByUserIdInAndUpdatedAtBefore(List.of(2L), changedBefore)).thenReturn(1);
+
+        assertEquals(1, store.deleteUnchangedCarts(List.of(1L, 2L), changedBefore));
+
+        verify(cartRepository).deleteUnchangedCarts(List.of(2L), changedBefore);
+        assertEquals(2, store.findById(5L).get().getQuantity());
+        // Dropped from memory: the next use reads the database again
+        store.findByUserId(2L);
+        verify(cartRepository, times(2)).findByUserId(2L);
+    }
+
+    @Test
+    void deleteUnchangedCarts_deletesOutsideTheLockAndDropsChangesToCartsItRemoved() {
+        LocalDateTime changedBefore = LocalDateTime.now().minusDays(30);
+        when(cartRepository.findByUserId(2L)).thenReturn(new ArrayList<>(List.of(cartItem(7L, 2L, 10L, 1, 100.0))));
+        when(cartRepository.deleteUnchangedCarts(List.of(1L, 2L), changedBefore)).thenAnswer(invocation -> {
+            // Other carts can be used while the delete runs
+            store.save(cartItem(7L, 2L, 10L, 3, 300.0));
+            store.save(cartItem(5L, 1L, 10L, 2, 200.0));
+            return 2;
+        });
+        when(cartSummaryRepository.deleteByUserIdInAndUpdatedAtBefore(List.of(1L, 2L), changedBefore)).thenReturn(1);
+        when(cartSummaryRepository.existsById(1L)).thenReturn(true);
+        when(cartSummaryRepository.existsById(2L)).thenReturn(false);
+
+        assertEquals(1, store.deleteUnchangedCarts(List.of(1L, 2L), changedBefore));
+
+        // The kept cart keeps its change; the removed one is read again from the database
+        assertEquals(2, store.findById(5L).get().getQuantity());
+        store.flush();
+        List<Object[]> rows = flushedUpdates(1).get(0);
+        assertEquals(1, rows.size());
+        assertArrayEquals(new Object[] {2, 200.0, 100.0, 1L, 5L}, rows.get(0));
+    }
+
+    @Test
+    void reprice_updatesOnlyStaleLinesAndWritesThemBehind() {
+        when(cartRepository.findByUserId(1L)).thenReturn(new ArrayList<>(List.of(
+                cartItem(5L, 1L, 10L, 2, 200.0), cartItem(6L, 1L, 20L, 1, 40.0))));
+        ProductDTO current = new ProductDTO();
+        current.setProductId(10L);
+        current.setPrice(110.0);
+        current.setPriceVersion(2);
+        ProductDTO unchanged = new ProductDTO();
+        unchanged.setProductId(20L);
+        unchanged.setPrice(40.0);
+        unchanged.setPriceVersion(1);
+
+        store.reprice(1L, Map.of(10L, current, 20L, unchanged));
+
+        assertEquals(220.0, store.findById(5L).get().getTotalPrice());
+        assertEquals(260.0, store.getSummary(1L).getTotalPrice());
+        store.flush();
+        List<Object[]> rows = flushedUpdates(1).get(0);
+        assertEquals(1, rows.size());
+        assertArrayEquals(new Object[] {2, 220.0, 110.0, 2L, 5L}, rows.get(0));
+    }
+
+    @Test
+    void open_replaysJournaledChangesAfterCrash() throws IOException {
+        store.findByUserId(1L);
+        store.save(cartItem(5L, 1L, 10L, 3, 300.0));
+        jdbcTemplate = mock(JdbcTemplate.class);
+
+        // No flush, no close: the next instance finds the change in the journal
+        store = open();
+
+        List<Object[]> rows = flushedUpdates(1).get(0);
+        assertArrayEquals(new Object[] {3, 300.0, 100.0, 1L, 5L}, rows.get(0));
+        // Only the new, empty segment is left
+        try (var files = Files.list(dir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void flush_keepsChangesPendingWhenDatabaseFails() {
+        store.save(cartItem(5L, 1L, 10L, 2, 200.0));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("down")).thenReturn(new int[] {1});
+
+        store.flush();
+        store.flush();
+
+        List<List<Object[]>> attempts = flushedUpdates(2);
+        assertArrayEquals(new Object[] {2, 200.0, 100.0, 1L, 5L}, attempts.get(1).get(0));
+    }
+
+    private MemoryCartStore open() throws IOException {
+        MemoryCartStore opened = new MemoryCartStore();
+        ReflectionTestUtils.setField(opened, "cartRepository", cartRepository);
+        ReflectionTestUtils.setField(opened, "cartSummaryRepository", cartSummaryRepository);
+        ReflectionTestUtils.setField(opened, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(opened, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(opened, "journalDir", dir.toString());
+        opened.open();
+        return opened;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> flushedUpdates(int times) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(times)).batchUpdate(anyString(), rows.capture());
+        return rows.getAllValues();
+    }
+}
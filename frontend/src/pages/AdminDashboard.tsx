@@ -466,7 +466,7 @@ const AdminDashboard: React.FC = () => {
       setLoading(true);
       switch (activeTab) {
         case 'products':
-          const productsRes = await axios.get(`${API_BASE_URL}/products`, { headers: { Authorization: `Bearer ${token}` } });
+          const productsRes = await axios.get(`${API_BASE_URL}/products?all=true`, { headers: { Authorization: `Bearer ${token}` } });
           setProducts(productsRes.data);
           break;
         case 'users':
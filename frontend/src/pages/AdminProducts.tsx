@@ -144,7 +144,7 @@ const AdminProducts: React.FC = () => {
   const fetchProducts = async () => {
     setLoading(true);
     try {
-      const res = await api.get('/products');
+      const res = await api.get('/products', { params: { all: true } });
       setProducts(res.data);
     } catch (e) {
       toast.error('Failed to fetch products');
@@ -288,8 +288,8 @@ const ProductDescription = styled.p`
 interface Product {
   productId: number;
   name: string;
-  price: number;
   description: string;
+  price: number;
   category: string;
   stockQuantity: number;
   imageUrl?: string;
@@ -302,9 +302,9 @@ const Home: React.FC = () => {
   useEffect(() => {
     const fetchProducts = async () => {
       try {
-        const response = await axios.get('http://localhost:8020/products');
-        // Get first 6 products as featured
-        setFeaturedProducts(response.data.slice(0, 6));
+        const response = await axios.get('http://localhost:8020/products', { params: { size: 6 } });
+        // First page of 6 products as featured
+        setFeaturedProducts(response.data.items);
       } catch (error) {
         console.error('Error fetching products:', error);
       } finally {
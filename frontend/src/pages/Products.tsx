@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useCallback, useRef } from 'react';
 import { Link } from 'react-router-dom';
 import { FaSearch, FaFilter, FaStar, FaShoppingCart, FaEye } from 'react-icons/fa';
 import axios from 'axios';
@@ -394,85 +394,106 @@ const VisuallyHidden = styled.span`
 interface Product {
   productId: number;
   name: string;
-  price: number;
   description: string;
+  price: number;
   category: string;
   stockQuantity: number;
   imageUrl?: string;
 }
 
+const PAGE_SIZE = 24;
+
 const Products: React.FC = () => {
   const [products, setProducts] = useState<Product[]>([]);
-  const [filteredProducts, setFilteredProducts] = useState<Product[]>([]);
+  const [categories, setCategories] = useState<string[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [initialized, setInitialized] = useState(false);
   const [loading, setLoading] = useState(true);
   const [searchTerm, setSearchTerm] = useState('');
+  const [debouncedSearch, setDebouncedSearch] = useState('');
   const [selectedCategory, setSelectedCategory] = useState('');
   const [sortBy, setSortBy] = useState('name');
   const { addToCart } = useCart();
+  // Bumped whenever the filters change, so pages still in flight for the old filters are dropped
+  const generation = useRef(0);
+  const sentinel = useRef<HTMLDivElement | null>(null);
 
   useEffect(() => {
-    fetchProducts();
+    window.scrollTo(0, 0);
   }, []);
 
+  // Search once the user stops typing rather than on every keystroke
   useEffect(() => {
-    filterProducts();
-  }, [products, searchTerm, selectedCategory, sortBy]);
+    const timer = setTimeout(() => setDebouncedSearch(searchTerm.trim()), 300);
+    return () => clearTimeout(timer);
+  }, [searchTerm]);
+
+  // Filtering and sorting happen on the server; the page only holds what has been scrolled into view
+  const fetchPage = useCallback((cursor?: string) => axios.get('http://localhost:8020/products/advanced-search', {
+    params: {
+      name: debouncedSearch || undefined,
+      category: selectedCategory || undefined,
+      sort: sortBy,
+      cursor,
+      size: PAGE_SIZE
+    }
+  }), [debouncedSearch, selectedCategory, sortBy]);
 
   useEffect(() => {
-    window.scrollTo(0, 0);
-  }, []);
+    const current = ++generation.current;
+    const fetchProducts = async () => {
+      try {
+        setLoading(true);
+        const response = await fetchPage();
+        if (current !== generation.current) return;
+        setProducts(response.data.items);
+        setNextCursor(response.data.nextCursor ?? null);
+        // The first page carries the facet counts; the category facet ignores the category filter
+        if (response.data.facets) {
+          setCategories(Object.keys(response.data.facets.categories));
+        }
+      } catch (error) {
+        console.error('Error fetching products:', error);
+      } finally {
+        if (current === generation.current) {
+          setLoading(false);
+          setInitialized(true);
+        }
+      }
+    };
+    fetchProducts();
+  }, [fetchPage]);
 
-  const fetchProducts = async () => {
+  const loadMore = useCallback(async () => {
+    if (!nextCursor || loading) return;
+    const current = generation.current;
     try {
       setLoading(true);
-      const response = await axios.get('http://localhost:8020/products');
-      setProducts(response.data);
+      const response = await fetchPage(nextCursor);
+      if (current !== generation.current) return;
+      setProducts(previous => [...previous, ...response.data.items]);
+      setNextCursor(response.data.nextCursor ?? null);
     } catch (error) {
-      console.error('Error fetching products:', error);
+      console.error('Error fetching more products:', error);
     } finally {
-      setLoading(false);
-    }
-  };
-
-  const filterProducts = () => {
-    let filtered = [...products];
-
-    // Filter by search term
-    if (searchTerm) {
-      filtered = filtered.filter(product =>
-        product.name.toLowerCase().includes(searchTerm.toLowerCase()) ||
-        product.description.toLowerCase().includes(searchTerm.toLowerCase())
-      );
-    }
-
-    // Filter by category
-    if (selectedCategory) {
-      filtered = filtered.filter(product => product.category === selectedCategory);
+      if (current === generation.current) {
+        setLoading(false);
+      }
     }
+  }, [nextCursor, loading, fetchPage]);
 
-    // Sort products
-    filtered.sort((a, b) => {
-      switch (sortBy) {
-        case 'name':
-          return a.name.localeCompare(b.name);
-        case 'price-low':
-          return a.price - b.price;
-        case 'price-high':
-          return b.price - a.price;
-        case 'stock':
-          return b.stockQuantity - a.stockQuantity;
-        default:
-          return 0;
+  // Load the next page when the end of the grid scrolls into view
+  useEffect(() => {
+    const target = sentinel.current;
+    if (!target || !nextCursor) return;
+    const observer = new IntersectionObserver(entries => {
+      if (entries[0].isIntersecting) {
+        loadMore();
       }
-    });
-
-    setFilteredProducts(filtered);
-  };
-
-  const getCategories = () => {
-    const categories = [...new Set(products.map(product => product.category))];
-    return categories;
-  };
+    }, { rootMargin: '400px' });
+    observer.observe(target);
+    return () => observer.disconnect();
+  }, [loadMore, nextCursor]);
 
   const handleAddToCart = async (productId: number) => {
     await addToCart(productId, 1);
@@ -491,7 +512,7 @@ const Products: React.FC = () => {
     }
   };
 
-  if (loading) {
+  if (!initialized) {
     return (
       <PageBackground>
         <LoadingSpinner>Loading...</LoadingSpinner>
@@ -521,7 +542,7 @@ const Products: React.FC = () => {
               <VisuallyHidden>Category Filter</VisuallyHidden>
               <FilterSelect value={selectedCategory} onChange={e => setSelectedCategory(e.target.value)}>
                 <option value="">All Categories</option>
-                {getCategories().map(category => (
+                {categories.map(category => (
                   <option key={category} value={category}>{category}</option>
                 ))}
               </FilterSelect>
@@ -530,21 +551,21 @@ const Products: React.FC = () => {
               <VisuallyHidden>Sort By</VisuallyHidden>
               <FilterSelect value={sortBy} onChange={e => setSortBy(e.target.value)}>
                 <option value="name">Sort by Name</option>
-                <option value="price-low">Price: Low to High</option>
-                <option value="price-high">Price: High to Low</option>
+                <option value="price_asc">Price: Low to High</option>
+                <option value="price_desc">Price: High to Low</option>
                 <option value="stock">Sort by Stock</option>
               </FilterSelect>
             </label>
           </FilterRow>
         </FiltersSection>
         <ProductsGrid>
-          {filteredProducts.length === 0 && !loading && (
+          {products.length === 0 && !loading && (
             <NoProducts>
               <h3>No products found</h3>
               <p>Try adjusting your search criteria</p>
             </NoProducts>
           )}
-          {filteredProducts.map((product) => (
+          {products.map((product) => (
             <ProductCard key={product.productId}>
               <ProductImage
                 src={getImageSrc(product.imageUrl)}
@@ -581,6 +602,7 @@ const Products: React.FC = () => {
             </ProductCard>
           ))}
         </ProductsGrid>
+        <div ref={sentinel} />
         {loading && <LoadingSpinner>Loading...</LoadingSpinner>}
       </ProductsContainer>
     </PageBackground>
@@ -7,6 +7,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.platform.dto.ContactMessageRequest;
+import com.platform.dto.LowStockItem;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/notifications")
@@ -87,6 +90,23 @@ public class NotificationController {
         }
     }
 
+    // Batched form of /low-stock-alert: one email listing every product in the body
+    @PostMapping("/low-stock-digest")
+    public ResponseEntity<String> sendLowStockDigest(@RequestParam String email,
+                                                     @RequestBody List<LowStockItem> items) {
+        logger.info("POST /notifications/low-stock-digest called for email: {} with {} products", email, items.size());
+        if (items.isEmpty()) {
+            return ResponseEntity.badRequest().body("No products in low stock digest");
+        }
+        try {
+            emailService.sendLowStockDigest(email, items);
+            return ResponseEntity.ok("Low stock digest email sent successfully");
+        } catch (Exception e) {
+            logger.error("Failed to send low stock digest email for email: {}", email, e);
+            return ResponseEntity.badRequest().body("Failed to send email: " + e.getMessage());
+        }
+    }
+
     @PostMapping("/welcome")
     public ResponseEntity<String> sendWelcomeEmail(@RequestParam String email, 
                                                   @RequestParam String username) {
@@ -1,5 +1,6 @@
 package com.platform.service;
 
+import com.platform.dto.LowStockItem;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -11,6 +12,8 @@ import org.springframework.scheduling.annotation.Async;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
+
 @Service
 public class EmailService {
 
@@ -161,6 +164,31 @@ public class EmailService {
         }
     }
 
+    // One email for every product that ran low since the last digest, lowest stock first
+    @Async
+    public void sendLowStockDigest(String to, List<LowStockItem> items) {
+        try {
+            StringBuilder text = new StringBuilder("The following products are running low on stock:\n\n");
+            for (LowStockItem item : items) {
+                text.append("- ").append(item.getProductName())
+                        .append(" (ID ").append(item.getProductId()).append("): ")
+                        .append(item.getCurrentStock()).append(" units left, threshold ")
+                        .append(item.getThreshold()).append("\n");
+            }
+            text.append("\nPlease restock these products soon.\n\n").append("Best regards,\nE-Commerce Team");
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(to);
+            message.setSubject("Low Stock Alert - " + items.size() + " products");
+            message.setText(text.toString());
+
+            emailSender.send(message);
+            logger.info("Low stock digest for {} products sent to: {}", items.size(), to);
+        } catch (Exception e) {
+            logger.error("Failed to send low stock digest to {}", to, e);
+            throw new RuntimeException("Failed to send low stock digest email", e);
+        }
+    }
+
     @Async
     public void sendWelcomeEmail(String to, String username) {
         try {
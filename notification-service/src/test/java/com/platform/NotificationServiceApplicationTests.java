@@ -1,6 +1,7 @@
 package com.platform;
 
 import com.platform.controller.NotificationController;
+import com.platform.dto.LowStockItem;
 import com.platform.service.EmailService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -48,4 +50,20 @@ class NotificationServiceApplicationTests {
         assertEquals(200, response.getStatusCodeValue());
         assertTrue(response.getBody().contains("Test email sent successfully"));
     }
-} 
\ No newline at end of file
+    @Test
+    void testSendLowStockDigestSuccess() {
+        LowStockItem item = new LowStockItem();
+        item.setProductName("Phone");
+        List<LowStockItem> items = List.of(item);
+        doNothing().when(emailService).sendLowStockDigest("a@b.com", items);
+        ResponseEntity<String> response = notificationController.sendLowStockDigest("a@b.com", items);
+        assertEquals(200, response.getStatusCodeValue());
+        verify(emailService).sendLowStockDigest("a@b.com", items);
+    }
+    @Test
+    void testSendLowStockDigestRejectsEmptyList() {
+        ResponseEntity<String> response = notificationController.sendLowStockDigest("a@b.com", List.of());
+        assertEquals(400, response.getStatusCodeValue());
+        verify(emailService, never()).sendLowStockDigest(anyString(), anyList());
+    }
+}
@@ -0,0 +1,61 @@
+package com.platform.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/hibernate: Hibernate session, statement and cache counters
+ * since startup (or the last reset, POST /actuator/hibernate). Counters are
+ * only collected when hibernate.generate_statistics is on, as in the prod
+ * profile.
+ */
+@Component
+@Endpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Statistics statistics = hibernateStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("sessionsOpened", statistics.getSessionOpenCount());
+        result.put("transactions", statistics.getTransactionCount());
+        result.put("flushes", statistics.getFlushCount());
+        result.put("statementsPrepared", statistics.getPrepareStatementCount());
+        result.put("queriesExecuted", statistics.getQueryExecutionCount());
+        result.put("slowestQueryMillis", statistics.getQueryExecutionMaxTime());
+        result.put("slowestQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        result.put("entitiesLoaded", statistics.getEntityLoadCount());
+        result.put("entitiesFetched", statistics.getEntityFetchCount());
+        result.put("entitiesInserted", statistics.getEntityInsertCount());
+        result.put("entitiesUpdated", statistics.getEntityUpdateCount());
+        result.put("entitiesDeleted", statistics.getEntityDeleteCount());
+        result.put("collectionsFetched", statistics.getCollectionFetchCount());
+        result.put("optimisticLockFailures", statistics.getOptimisticFailureCount());
+        result.put("secondLevelCacheHits", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMisses", statistics.getSecondLevelCacheMissCount());
+        result.put("since", statistics.getStartTime());
+        return result;
+    }
+
+    @WriteOperation
+    public void reset() {
+        hibernateStatistics().clear();
+    }
+
+    private Statistics hibernateStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
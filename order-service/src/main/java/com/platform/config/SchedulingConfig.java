@@ -0,0 +1,12 @@
+package com.platform.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (stock hold confirmation retries for paid orders).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -43,6 +43,8 @@ public class SecurityConfig {
                     "/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**",
                     "/order/health"
                 ).permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers("/order/admin/**").hasRole("ADMIN")
                 .requestMatchers("/order/**").authenticated()
                 .anyRequest().authenticated()
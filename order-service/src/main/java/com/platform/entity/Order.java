@@ -31,6 +31,9 @@ public class Order {
     private LocalDateTime paymentProcessedAt;
     private String userEmail; // Store user email as fallback
     private String customerName; // Store customer name as fallback
+    private Long stockHoldId; // Hold in product-service still to confirm while the order is STOCK_PENDING
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime stockHoldExpiresAt;
     @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
     private LocalDateTime createdAt;
 
@@ -165,6 +168,22 @@ public class Order {
         this.customerName = customerName;
     }
 
+    public Long getStockHoldId() {
+        return stockHoldId;
+    }
+
+    public void setStockHoldId(Long stockHoldId) {
+        this.stockHoldId = stockHoldId;
+    }
+
+    public LocalDateTime getStockHoldExpiresAt() {
+        return stockHoldExpiresAt;
+    }
+
+    public void setStockHoldExpiresAt(LocalDateTime stockHoldExpiresAt) {
+        this.stockHoldExpiresAt = stockHoldExpiresAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -3,17 +3,34 @@ package com.platform.feign;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import com.platform.model.ProductDTO; // Import the ProductDTO class
+import com.platform.model.StockHoldDTO;
+import com.platform.model.StockHoldRequest;
+import java.util.List;
 
 @FeignClient(name = "ecom-product-service", configuration = com.platform.config.FeignClientInterceptorConfig.class)
 public interface ProductClient {
     @GetMapping("/products/{productId}")
     ProductDTO getProductById(@PathVariable Long productId);
 
+    @GetMapping("/products/batch")
+    List<ProductDTO> getProductsByIds(@RequestParam("ids") List<Long> ids);
+
     @PutMapping("/products/order/updateStockQuantity/{productId}")
     void updateStockForOrder(@PathVariable Long productId, @RequestParam("quantity") int quantity);
+
+    @PostMapping("/products/holds")
+    StockHoldDTO createStockHold(@RequestBody StockHoldRequest request);
+
+    @PutMapping("/products/holds/{holdId}/confirm")
+    StockHoldDTO confirmStockHold(@PathVariable("holdId") Long holdId);
+
+    @PutMapping("/products/holds/{holdId}/release")
+    StockHoldDTO releaseStockHold(@PathVariable("holdId") Long holdId);
 }
 // @Component
 // public class ProductClientFallback implements ProductClient {
@@ -0,0 +1,31 @@
+package com.platform.model;
+
+import java.util.List;
+
+public class StockHoldRequest {
+    private List<OrderItemRequest> items;
+    private Integer ttlSeconds;
+
+    public StockHoldRequest() {}
+
+    public StockHoldRequest(List<OrderItemRequest> items, Integer ttlSeconds) {
+        this.items = items;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public List<OrderItemRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<OrderItemRequest> items) {
+        this.items = items;
+    }
+
+    public Integer getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Integer ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
@@ -6,6 +6,8 @@ import java.util.List;
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
     List<Order> findByUserId(Long userId);
+
+    List<Order> findByOrderStatus(String orderStatus);
     // List<Order> findByStatus(String status);
     // List<Order> findByUserIdAndStatus(Long userId, String status);
 
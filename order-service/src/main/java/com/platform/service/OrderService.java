@@ -1,7 +1,6 @@
 package com.platform.service;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import com.platform.repository.OrderRepository;
 import com.platform.feign.CartClient;
 import com.platform.entity.Order;
@@ -17,12 +16,20 @@ import com.platform.model.OrderResponse;
 import com.platform.model.OrderItem;
 import com.platform.model.PaymentInfo;
 import com.platform.model.OrderItemRequest;
+import com.platform.model.StockHoldDTO;
+import com.platform.model.StockHoldRequest;
 import com.platform.service.PaymentService.PaymentResult;
 import com.platform.dto.UserDTO;
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.time.LocalDateTime;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import feign.FeignException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +38,9 @@ public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
+    // Paid, but the stock hold in product-service is not confirmed yet
+    public static final String STOCK_PENDING = "STOCK_PENDING";
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -52,6 +62,10 @@ public class OrderService {
     @Value("${admin.email:admin@ecommerce.com}")
     private String adminEmail;
 
+    // How long checkout may take between holding stock and confirming the order
+    @Value("${order.stock-hold-ttl-seconds:300}")
+    private Integer stockHoldTtlSeconds;
+
     public List<Order> getOrdersByUserId(Long userId) {
         logger.info("Getting orders by user ID: {}", userId);
         return orderRepository.findByUserId(userId);
@@ -247,7 +261,78 @@ public class OrderService {
         }
     }
 
-    @Transactional
+    // Confirms the order's stock hold and moves the order on to PENDING. Confirming is idempotent in
+    // product-service, so retrying after a lost response is safe. A hold that expired before it could be
+    // confirmed is replaced by a new one for the same lines, if product-service answered and the stock is there
+    private boolean confirmStock(Order order) {
+        Long holdId = order.getStockHoldId();
+        try {
+            productClient.confirmStockHold(holdId);
+        } catch (Exception e) {
+            boolean answered = e instanceof FeignException && ((FeignException) e).status() > 0;
+            if (!answered || order.getStockHoldExpiresAt() == null || order.getStockHoldExpiresAt().isAfter(LocalDateTime.now())) {
+                logger.warn("Confirming stock hold {} for order {} failed, retrying later", holdId, order.getOrderId(), e);
+                return false;
+            }
+            logger.warn("Stock hold {} for order {} could not be confirmed before it expired, holding the stock again", holdId, order.getOrderId(), e);
+            if (!replaceStockHold(order)) {
+                return false;
+            }
+            return confirmStock(order);
+        }
+        order.setOrderStatus("PENDING");
+        order.setStockHoldId(null);
+        order.setStockHoldExpiresAt(null);
+        orderRepository.save(order);
+        logger.info("Confirmed stock hold {} for order {}", holdId, order.getOrderId());
+        return true;
+    }
+
+    private boolean replaceStockHold(Order order) {
+        List<OrderItemRequest> items = order.getOrderItems().stream()
+                .map(item -> new OrderItemRequest(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+        try {
+            StockHoldDTO hold = productClient.createStockHold(new StockHoldRequest(items, stockHoldTtlSeconds));
+            order.setStockHoldId(hold.getHoldId());
+            order.setStockHoldExpiresAt(hold.getExpiresAt() != null ? hold.getExpiresAt() : LocalDateTime.now().plusSeconds(stockHoldTtlSeconds));
+            orderRepository.save(order);
+            return true;
+        } catch (Exception e) {
+            // The order stays STOCK_PENDING until the stock is back
+            logger.error("Holding stock again for order {} failed, retrying later", order.getOrderId(), e);
+            return false;
+        }
+    }
+
+    @Scheduled(initialDelayString = "${order.stock-confirm-retry-ms:30000}", fixedDelayString = "${order.stock-confirm-retry-ms:30000}")
+    public void retryStockConfirmations() {
+        try {
+            List<Order> pending = orderRepository.findByOrderStatus(STOCK_PENDING);
+            int confirmed = 0;
+            for (Order order : pending) {
+                if (order.getStockHoldId() != null && confirmStock(order)) {
+                    confirmed++;
+                }
+            }
+            if (!pending.isEmpty()) {
+                logger.info("Confirmed stock for {} of {} orders awaiting it", confirmed, pending.size());
+            }
+        } catch (Exception e) {
+            logger.error("Retrying stock confirmations failed", e);
+        }
+    }
+
+    // Best effort: an unreleased hold still expires on its own in product-service
+    private void releaseStockHold(Long holdId) {
+        try {
+            productClient.releaseStockHold(holdId);
+        } catch (Exception e) {
+            logger.error("Releasing stock hold {} failed; it will expire instead", holdId, e);
+        }
+    }
+
+    // Not one transaction: once payment is taken the order is saved on its own and must survive later failures
     public OrderResponse placeOrder(OrderRequest request, Long userId) {
         long startTime = System.currentTimeMillis();
         System.out.println("Processing order for user: " + userId);
@@ -263,14 +348,8 @@ public class OrderService {
         List<CartItemDTO> cartItems = new ArrayList<>();
         
         if (request.getItems() != null && !request.getItems().isEmpty()) {
-            // Use items from request
+            // Use items from request, converted to CartItemDTO for consistency
             for (OrderItemRequest itemRequest : request.getItems()) {
-                ProductDTO product = productClient.getProductById(itemRequest.getProductId());
-                if (product == null || product.getStockQuantity() < itemRequest.getQuantity()) {
-                    throw new RuntimeException("Product " + (product != null ? product.getName() : itemRequest.getProductId()) + " is out of stock or unavailable.");
-                }
-                totalPrice += product.getPrice() * itemRequest.getQuantity();
-                // Convert to CartItemDTO for consistency
                 CartItemDTO cartItem = new CartItemDTO();
                 cartItem.setProductId(itemRequest.getProductId());
                 cartItem.setQuantity(itemRequest.getQuantity());
@@ -280,40 +359,62 @@ public class OrderService {
             // Use cart items
             cartItems = cartClient.getCartItemsByUserId(userId);
             System.out.println("Cart items: " + cartItems);
-            for (CartItemDTO item : cartItems) {
-                ProductDTO product = productClient.getProductById(item.getProductId());
-                if (product == null || product.getStockQuantity() < item.getQuantity()) {
-                    throw new RuntimeException("Product " + (product != null ? product.getName() : item.getProductId()) + " is out of stock or unavailable.");
-                }
-                totalPrice += product.getPrice() * item.getQuantity();
+        }
+
+        // Fetch every product in the order with a single batch call
+        Map<Long, ProductDTO> products = getProductsById(cartItems);
+        for (CartItemDTO item : cartItems) {
+            ProductDTO product = products.get(item.getProductId());
+            if (product == null || product.getStockQuantity() < item.getQuantity()) {
+                throw new RuntimeException("Product " + (product != null ? product.getName() : item.getProductId()) + " is out of stock or unavailable.");
             }
+            totalPrice += product.getPrice() * item.getQuantity();
+        }
+
+        // Hold the stock before taking payment so concurrent checkouts cannot sell the same units
+        List<OrderItemRequest> holdItems = cartItems.stream()
+                .map(item -> new OrderItemRequest(item.getProductId(), item.getQuantity()))
+                .collect(Collectors.toList());
+        StockHoldDTO hold;
+        try {
+            hold = productClient.createStockHold(new StockHoldRequest(holdItems, stockHoldTtlSeconds));
+        } catch (Exception e) {
+            logger.error("Stock hold failed for user: {}", userId, e);
+            throw new RuntimeException("Some items in your order are no longer available: " + e.getMessage());
         }
 
-        // Process payment with optimized retry logic
+        // Process payment with optimized retry logic; the hold goes back if it fails
         PaymentResult paymentResult = null;
-        int maxRetries = 2; // Reduced from 3 to 2
+        try {
+            int maxRetries = 2; // Reduced from 3 to 2
         
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            paymentResult = paymentService.processPayment(request.getPaymentInfo(), totalPrice);
+            for (int attempt = 1; attempt <= maxRetries; attempt++) {
+                paymentResult = paymentService.processPayment(request.getPaymentInfo(), totalPrice);
             
-            if (paymentResult.isSuccess()) {
-                System.out.println("Payment successful for user " + userId + " on attempt " + attempt + ": " + paymentResult.getMessage());
-                break;
-            } else {
-                System.err.println("Payment attempt " + attempt + " failed for user " + userId + ": " + paymentResult.getMessage());
-                if (attempt == maxRetries) {
-                    throw new RuntimeException("Payment failed after " + maxRetries + " attempts: " + paymentResult.getMessage());
-                }
-                // Reduced wait time from 1000ms to 200ms
-                try {
-                    Thread.sleep(200);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Payment retry interrupted");
+                if (paymentResult.isSuccess()) {
+                    System.out.println("Payment successful for user " + userId + " on attempt " + attempt + ": " + paymentResult.getMessage());
+                    break;
+                } else {
+                    System.err.println("Payment attempt " + attempt + " failed for user " + userId + ": " + paymentResult.getMessage());
+                    if (attempt == maxRetries) {
+                        throw new RuntimeException("Payment failed after " + maxRetries + " attempts: " + paymentResult.getMessage());
+                    }
+                    // Reduced wait time from 1000ms to 200ms
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException("Payment retry interrupted");
+                    }
                 }
             }
+        } catch (RuntimeException e) {
+            releaseStockHold(hold.getHoldId());
+            throw e;
         }
 
+        // The customer is charged from here on: the order is kept whatever happens to the hold
+
         // Try to get user information before creating order
         String userEmail = null;
         String customerName = "Customer";
@@ -332,13 +433,15 @@ public class OrderService {
             System.err.println("Could not retrieve user info during order creation: " + e.getMessage());
             // Continue with order creation even if user service is down
         }
-        
+    
         // Create the order
         Order order = new Order();
         order.setUserId(userId);
         order.setShippingAddress(request.getShippingAddress());
         order.setTotalPrice(totalPrice);
-        order.setOrderStatus("PENDING");
+        order.setOrderStatus(STOCK_PENDING);
+        order.setStockHoldId(hold.getHoldId());
+        order.setStockHoldExpiresAt(hold.getExpiresAt() != null ? hold.getExpiresAt() : LocalDateTime.now().plusSeconds(stockHoldTtlSeconds));
         order.setPaymentStatus(paymentResult.getPaymentStatus());
         order.setPaymentMethod(request.getPaymentInfo().getPaymentMethod().name());
         order.setTransactionId(paymentResult.getTransactionId());
@@ -346,18 +449,18 @@ public class OrderService {
         order.setUserEmail(userEmail); // Store user email in order
         order.setCustomerName(customerName); // Store customer name in order
         order.setCreatedAt(LocalDateTime.now());
-        
+    
         // Set default values for tracking and delivery
         order.setTrackingNumber("TBD"); // To be determined
         order.setCarrier("TBD"); // To be determined
         order.setEstimatedDelivery(LocalDateTime.now().plusDays(7)); // Default 7 days delivery
         order.setShippedAt(null); // Will be set when shipped
         order.setDeliveredAt(null); // Will be set when delivered
-        
+    
         // Create order items
         List<com.platform.entity.OrderItem> orderItems = new ArrayList<>();
         for (CartItemDTO item : cartItems) {
-            ProductDTO product = productClient.getProductById(item.getProductId());
+            ProductDTO product = products.get(item.getProductId());
             com.platform.entity.OrderItem orderItem = new com.platform.entity.OrderItem();
             orderItem.setProductId(item.getProductId());
             orderItem.setQuantity(item.getQuantity());
@@ -369,20 +472,17 @@ public class OrderService {
         }
         order.setOrderItems(orderItems);
 
-        Order savedOrder = orderRepository.save(order);
-
-        // Update stock for all products in the order (optimized)
+        Order savedOrder;
         try {
-            // Batch stock updates to reduce HTTP calls
-            for (CartItemDTO item : cartItems) {
-                productClient.updateStockForOrder(item.getProductId(), item.getQuantity());
-                System.out.println("Updated stock for product " + item.getProductId() + " by " + item.getQuantity());
-            }
-        } catch (Exception e) {
-            // Log error but don't fail the order - stock can be updated later
-            System.err.println("Stock update failed, but order will proceed: " + e.getMessage());
+            savedOrder = orderRepository.save(order);
+        } catch (RuntimeException e) {
+            logger.error("Saving order failed for user {} after payment {} was captured", userId, paymentResult.getTransactionId(), e);
+            throw e;
         }
 
+        // A failed or lost confirmation leaves the order STOCK_PENDING for retryStockConfirmations
+        confirmStock(savedOrder);
+
         // Clear the cart after successful order placement (non-blocking)
         new Thread(() -> {
             try {
@@ -434,6 +534,18 @@ public class OrderService {
         return orderResponse;
     }
 
+    private Map<Long, ProductDTO> getProductsById(List<CartItemDTO> items) {
+        List<Long> productIds = items.stream()
+                .map(CartItemDTO::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return productClient.getProductsByIds(productIds).stream()
+                .collect(Collectors.toMap(ProductDTO::getProductId, Function.identity()));
+    }
+
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import com.platform.service.OrderService;
 import com.platform.entity.Order;
+import com.platform.entity.OrderItem;
 import com.platform.repository.OrderRepository;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -18,7 +19,28 @@ import org.junit.jupiter.api.BeforeEach;
 import org.springframework.http.HttpHeaders;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.platform.dto.UserDTO;
+import com.platform.feign.CartClient;
+import com.platform.feign.NotificationClient;
+import com.platform.feign.ProductClient;
+import com.platform.feign.UserClient;
+import com.platform.model.OrderItemRequest;
+import com.platform.model.PaymentInfo;
+import com.platform.model.ProductDTO;
+import com.platform.model.StockHoldDTO;
+import com.platform.model.StockHoldRequest;
+import com.platform.service.PaymentService;
+import com.platform.service.PaymentService.PaymentResult;
+import feign.FeignException;
+import feign.Request;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
 
 @SpringBootTest
 class OrderServiceApplicationTests {
@@ -68,6 +90,16 @@ class OrderServiceApplicationTests {
 class OrderServiceUnitTest {
 	@Mock
 	private OrderRepository orderRepository;
+	@Mock
+	private CartClient cartClient;
+	@Mock
+	private ProductClient productClient;
+	@Mock
+	private NotificationClient notificationClient;
+	@Mock
+	private UserClient userClient;
+	@Mock
+	private PaymentService paymentService;
 	@InjectMocks
 	private OrderService orderService;
 
@@ -77,4 +109,119 @@ class OrderServiceUnitTest {
 		java.util.List<Order> result = orderService.getOrdersByUserId(1L);
 		assertTrue(result.isEmpty());
 	}
+
+	@Test
+	void placeOrder_takesNoPaymentWhenTheStockCannotBeHeld() {
+		when(productClient.getProductsByIds(List.of(7L))).thenReturn(List.of(product(7L)));
+		when(productClient.createStockHold(any(StockHoldRequest.class))).thenThrow(new RuntimeException("Insufficient stock"));
+
+		assertThrows(RuntimeException.class, () -> orderService.placeOrder(orderRequest(), 1L));
+
+		verifyNoInteractions(paymentService);
+		verify(orderRepository, never()).save(any());
+	}
+
+	@Test
+	void placeOrder_releasesTheHoldWhenPaymentFails() {
+		when(productClient.getProductsByIds(List.of(7L))).thenReturn(List.of(product(7L)));
+		when(productClient.createStockHold(any(StockHoldRequest.class))).thenReturn(hold(11L, LocalDateTime.now().plusMinutes(5)));
+		when(paymentService.processPayment(any(PaymentInfo.class), anyDouble())).thenReturn(payment(false));
+
+		assertThrows(RuntimeException.class, () -> orderService.placeOrder(orderRequest(), 1L));
+
+		verify(productClient).releaseStockHold(11L);
+		verify(productClient, never()).confirmStockHold(any());
+		verify(orderRepository, never()).save(any());
+	}
+
+	@Test
+	void placeOrder_keepsThePaidOrderWhenTheConfirmFailsAndRetriesItLater() {
+		when(productClient.getProductsByIds(List.of(7L))).thenReturn(List.of(product(7L)));
+		when(productClient.createStockHold(any(StockHoldRequest.class))).thenReturn(hold(11L, LocalDateTime.now().plusMinutes(5)));
+		when(paymentService.processPayment(any(PaymentInfo.class), anyDouble())).thenReturn(payment(true));
+		when(userClient.getUserById(1L)).thenReturn(user());
+		when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		when(productClient.confirmStockHold(11L)).thenThrow(new RuntimeException("Read timed out")).thenReturn(hold(11L, null));
+
+		OrderResponse response = orderService.placeOrder(orderRequest(), 1L);
+
+		assertEquals(OrderService.STOCK_PENDING, response.getOrderStatus());
+		verify(productClient, never()).releaseStockHold(any());
+		ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+		verify(orderRepository).save(saved.capture());
+		Order order = saved.getValue();
+		assertEquals(11L, order.getStockHoldId());
+
+		when(orderRepository.findByOrderStatus(OrderService.STOCK_PENDING)).thenReturn(List.of(order));
+		orderService.retryStockConfirmations();
+
+		assertEquals("PENDING", order.getOrderStatus());
+		assertNull(order.getStockHoldId());
+	}
+
+	@Test
+	void retryStockConfirmations_holdsTheStockAgainWhenTheHoldExpiredBeforeItWasConfirmed() {
+		ReflectionTestUtils.setField(orderService, "stockHoldTtlSeconds", 300);
+		Order order = new Order();
+		order.setOrderId(5L);
+		order.setOrderStatus(OrderService.STOCK_PENDING);
+		order.setStockHoldId(11L);
+		order.setStockHoldExpiresAt(LocalDateTime.now().minusMinutes(1));
+		OrderItem item = new OrderItem();
+		item.setProductId(7L);
+		item.setQuantity(2);
+		order.getOrderItems().add(item);
+		when(orderRepository.findByOrderStatus(OrderService.STOCK_PENDING)).thenReturn(List.of(order));
+		when(productClient.confirmStockHold(11L)).thenThrow(new FeignException.InternalServerError("Stock hold 11 is no longer active",
+				Request.create(Request.HttpMethod.PUT, "/products/holds/11/confirm", Map.of(), null, StandardCharsets.UTF_8, null), null, Map.of()));
+		when(productClient.createStockHold(any(StockHoldRequest.class))).thenReturn(hold(12L, LocalDateTime.now().plusMinutes(5)));
+		when(productClient.confirmStockHold(12L)).thenReturn(hold(12L, null));
+
+		orderService.retryStockConfirmations();
+
+		ArgumentCaptor<StockHoldRequest> request = ArgumentCaptor.forClass(StockHoldRequest.class);
+		verify(productClient).createStockHold(request.capture());
+		assertEquals(2, request.getValue().getItems().get(0).getQuantity());
+		assertEquals("PENDING", order.getOrderStatus());
+	}
+
+	private static OrderRequest orderRequest() {
+		OrderRequest request = new OrderRequest();
+		request.setShippingAddress("1 Main Street");
+		request.setPaymentInfo(new PaymentInfo(PaymentInfo.PaymentMethod.COD));
+		request.setItems(List.of(new OrderItemRequest(7L, 2)));
+		return request;
+	}
+
+	private static ProductDTO product(Long productId) {
+		ProductDTO product = new ProductDTO();
+		product.setProductId(productId);
+		product.setName("Lamp");
+		product.setPrice(25.0);
+		product.setStockQuantity(10);
+		return product;
+	}
+
+	private static StockHoldDTO hold(Long holdId, LocalDateTime expiresAt) {
+		StockHoldDTO hold = new StockHoldDTO();
+		hold.setHoldId(holdId);
+		hold.setExpiresAt(expiresAt);
+		return hold;
+	}
+
+	private static PaymentResult payment(boolean success) {
+		PaymentResult result = new PaymentResult();
+		result.setSuccess(success);
+		result.setPaymentStatus(success ? "COMPLETED" : "FAILED");
+		result.setTransactionId("TXN-1");
+		result.setMessage(success ? "Paid" : "Declined");
+		return result;
+	}
+
+	private static UserDTO user() {
+		UserDTO user = new UserDTO();
+		user.setEmail("buyer@example.com");
+		user.setFirstName("Sam");
+		return user;
+	}
 }
@@ -0,0 +1,19 @@
+package com.platform.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the Spring cache abstraction for product-service.
+ *
+ * The cache manager itself (Caffeine), the cache names and the size/TTL spec are
+ * configured through spring.cache.* in application.properties so they can be
+ * tuned per environment. Hit/miss/eviction counters are published by actuator.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String PRODUCT_LIST_CACHE = "productList";
+}
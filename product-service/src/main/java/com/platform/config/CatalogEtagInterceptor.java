@@ -0,0 +1,33 @@
+package com.platform.config;
+
+import com.platform.service.ProductChangeService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Conditional GET for catalog listings and searches. Their content depends
+ * only on the catalog, so a tag of the committed catalog changes is a strong
+ * ETag for every one of them: a matching If-None-Match is answered with 304
+ * before the controller runs, so neither the query nor the serialization
+ * happens.
+ */
+@Component
+public class CatalogEtagInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private ProductChangeService productChangeService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        // Read the tag before the listing runs: a concurrent change can only make the tag stale, never too new
+        String etag = "\"catalog-" + productChangeService.getCatalogTag() + "\"";
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+}
@@ -0,0 +1,40 @@
+package com.platform.config;
+
+import com.platform.security.JavaUtil;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Forwards the caller's Authorization header on Feign calls. Calls made from
+ * background jobs (e.g. the cart cleanup relay) have no caller, so they carry
+ * a token issued to product-service itself.
+ */
+@Component
+public class FeignClientInterceptorConfig implements RequestInterceptor {
+
+    private static final String SERVICE_USER = "product-service";
+    private static final String SERVICE_ROLES = "ROLE_SERVICE";
+
+    @Autowired
+    private JavaUtil jwtUtil;
+
+    @Override
+    public void apply(RequestTemplate template) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            HttpServletRequest request = attributes.getRequest();
+            String authorization = request.getHeader("Authorization");
+            if (authorization != null && !authorization.isEmpty()) {
+                template.header("Authorization", authorization);
+                return;
+            }
+        }
+        template.header("Authorization", "Bearer " + jwtUtil.generateToken(SERVICE_USER, SERVICE_ROLES));
+    }
+}
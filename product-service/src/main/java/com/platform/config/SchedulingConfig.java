@@ -0,0 +1,13 @@
+package com.platform.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (hot-stock flush, stock hold expiry, cart cleanup relay, catalog snapshot,
+ * low-stock alerts, change log pruning).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -36,12 +36,16 @@ public class SecurityConfig {
                 .requestMatchers(
                     "/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**"
                 ).permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // Allow public access to GET product endpoints
-                .requestMatchers("GET", "/products", "/products/{id}", "/products/category/{category}", 
+                .requestMatchers("GET", "/products", "/products/{id}", "/products/batch", "/products/category/{category}", 
                                 "/products/search", "/products/price-range", "/products/category-price-range", 
-                                "/products/in-stock", "/products/advanced-search").permitAll()
+                                "/products/in-stock", "/products/advanced-search", "/products/suggest", "/products/changes", "/products/changes/version").permitAll()
                 // Allow order service to update stock during order placement
-                .requestMatchers("PUT", "/products/order/updateStockQuantity/{productId}").authenticated()
+                .requestMatchers("PUT", "/products/order/updateStockQuantity/{productId}", "/products/order/reserve-stock",
+                                "/products/holds/{holdId}/confirm", "/products/holds/{holdId}/release").authenticated()
+                .requestMatchers("POST", "/products/holds").authenticated()
                 // Require ADMIN role for all other product operations
                 .requestMatchers("/products/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
@@ -0,0 +1,22 @@
+package com.platform.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private CatalogEtagInterceptor catalogEtagInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Single products carry their own per-product ETag (see ProductController#getProductById)
+        registry.addInterceptor(catalogEtagInterceptor)
+                .addPathPatterns("/products", "/products/batch", "/products/category/**", "/products/search",
+                        "/products/price-range", "/products/category-price-range", "/products/in-stock",
+                        "/products/advanced-search");
+    }
+}
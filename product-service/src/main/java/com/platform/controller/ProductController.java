@@ -1,10 +1,23 @@
 package com.platform.controller;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -16,10 +29,27 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.platform.entity.Product;
+import com.platform.entity.StockHold;
+import com.platform.importer.CsvProductReader;
+import com.platform.importer.NdjsonProductReader;
+import com.platform.importer.ProductRowReader;
+import com.platform.model.ProductChangeFeed;
 import com.platform.model.ProductDTO;
+import com.platform.model.ProductImportStatus;
+import com.platform.model.ProductPage;
+import com.platform.model.ProductSearchResult;
+import com.platform.model.ProductSuggestion;
+import com.platform.model.ProductSummary;
+import com.platform.model.StockHoldRequest;
+import com.platform.model.StockUpdateRequest;
+import com.platform.search.ProductSort;
+import com.platform.service.ProductChangeService;
+import com.platform.service.ProductImportService;
 import com.platform.service.ProductService;
+import com.platform.service.StockHoldService;
 
 @RestController
 @RequestMapping("/products")
@@ -27,39 +57,85 @@ public class ProductController {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductController.class);
 
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final String NDJSON = "application/x-ndjson";
+
     @Autowired  
     private ProductService productService;
 
-    // Public: anyone can view all products
+    @Autowired
+    private ProductChangeService productChangeService;
+
+    @Autowired
+    private StockHoldService stockHoldService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Public: anyone can browse products, one keyset page at a time
     @GetMapping
+    public ProductPage<ProductSummary> getProductsPage(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "20") int size) {
+        logger.info("GET /products called with cursor: {}, size: {}", cursor, size);
+        return productService.getProductsPage(cursor, size);
+    }
+
+    // Public: the whole catalog in one response; explicit opt-in with ?all=true
+    @GetMapping(params = "all=true")
     public List<Product> getAllProducts() {
-        logger.info("GET /products called");
+        logger.info("GET /products?all=true called");
         return productService.getAllProducts();
     }
 
-    // Public: anyone can view a product by id
+    // Public: anyone can view a product by id; answers 304 when If-None-Match carries the current version
     @GetMapping("/{id}")
-    public ProductDTO getProductById(@PathVariable Long id) {
+    public ProductDTO getProductById(@PathVariable Long id, WebRequest request) {
         logger.info("GET /products/{} called", id);
         try {
             Product product = productService.getProductById(id);
             if (product == null) {
                 throw new RuntimeException("Product not found with id: " + id);
             }
-            ProductDTO productDTO = new ProductDTO();
-            productDTO.setProductId(product.getProductId());
-            productDTO.setName(product.getName());
-            productDTO.setPrice(product.getPrice());
-            productDTO.setStockQuantity(product.getStockQuantity());
-            productDTO.setDescription(product.getDescription());
-            productDTO.setImageUrl(product.getImageUrl());
-            return productDTO;
+            if (request.checkNotModified("\"product-" + id + "-" + product.getVersion() + "\"")) {
+                return null;
+            }
+            return toProductDTO(product);
         } catch (Exception e) {
             logger.error("Get product by ID failed for ID: {}", id, e);
             throw e;
         }
     }
 
+    // Public: catalog changes after the given version, oldest first
+    @GetMapping("/changes")
+    public ProductChangeFeed getChanges(@RequestParam(defaultValue = "0") long since,
+                                        @RequestParam(defaultValue = "100") int limit) {
+        logger.info("GET /products/changes called with since: {}, limit: {}", since, limit);
+        return productChangeService.getChangesSince(since, limit);
+    }
+
+    // Public: current catalog version; read it before a full load, then poll /changes from it
+    @GetMapping("/changes/version")
+    public long getCatalogVersion() {
+        logger.info("GET /products/changes/version called");
+        return productChangeService.getCurrentVersion();
+    }
+
+    // Public: batch lookup used by cart and order services (unknown ids are skipped)
+    @GetMapping("/batch")
+    public List<ProductDTO> getProductsByIds(@RequestParam List<Long> ids) {
+        logger.info("GET /products/batch called with {} ids", ids.size());
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Too many product ids requested: " + ids.size() + " (max " + MAX_BATCH_SIZE + ")");
+        }
+        return productService.getProductsByIds(ids).stream()
+                .map(this::toProductDTO)
+                .collect(Collectors.toList());
+    }
+
     // Only ADMIN can add a product
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
@@ -112,8 +188,16 @@ public class ProductController {
 
     // Public: anyone can view products by category
     @GetMapping("/category/{category}")
+    public ProductPage<ProductSummary> getProductsByCategoryPage(@PathVariable String category,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+        logger.info("GET /products/category/{} called with cursor: {}, size: {}", category, cursor, size);
+        return productService.getProductsByCategoryPage(category, cursor, size);
+    }
+
+    @GetMapping(value = "/category/{category}", params = "all=true")
     public List<Product> getProductsByCategory(@PathVariable String category) {
-        logger.info("GET /products/category/{} called", category);
+        logger.info("GET /products/category/{}?all=true called", category);
         return productService.getProductsByCategory(category);
     }
 
@@ -143,6 +227,53 @@ public class ProductController {
         }
     }
 
+    // Allow order service to reserve stock for a whole order (all-or-nothing)
+    @PutMapping("/order/reserve-stock")
+    public ResponseEntity<String> reserveStockForOrder(@RequestBody List<StockUpdateRequest> items) {
+        logger.info("PUT /products/order/reserve-stock called with {} items", items.size());
+        try {
+            productService.reserveStock(items);
+            return ResponseEntity.ok("Stock reserved successfully for order");
+        } catch (RuntimeException e) {
+            logger.error("Reserve stock for order failed for {} items", items.size(), e);
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Allow order service to hold stock during checkout: taken now, given back unless confirmed before it expires
+    @PostMapping("/holds")
+    public StockHold createStockHold(@RequestBody StockHoldRequest request) {
+        logger.info("POST /products/holds called with {} items", request.getItems() != null ? request.getItems().size() : 0);
+        try {
+            return stockHoldService.createHold(request.getItems(), request.getTtlSeconds());
+        } catch (Exception e) {
+            logger.error("Create stock hold failed", e);
+            throw e;
+        }
+    }
+
+    @PutMapping("/holds/{holdId}/confirm")
+    public StockHold confirmStockHold(@PathVariable Long holdId) {
+        logger.info("PUT /products/holds/{}/confirm called", holdId);
+        try {
+            return stockHoldService.confirmHold(holdId);
+        } catch (Exception e) {
+            logger.error("Confirm stock hold failed for hold ID: {}", holdId, e);
+            throw e;
+        }
+    }
+
+    @PutMapping("/holds/{holdId}/release")
+    public StockHold releaseStockHold(@PathVariable Long holdId) {
+        logger.info("PUT /products/holds/{}/release called", holdId);
+        try {
+            return stockHoldService.releaseHold(holdId);
+        } catch (Exception e) {
+            logger.error("Release stock hold failed for hold ID: {}", holdId, e);
+            throw e;
+        }
+    }
+
     // ADMIN: Analytics - product count
     @GetMapping("/admin/analytics/count")
     @PreAuthorize("hasRole('ADMIN')")
@@ -151,45 +282,94 @@ public class ProductController {
         return productService.getProductCount();
     }
     
-    // Public: Search products by name
+    // Public: Search products by name; fuzzy=true tolerates typos
     @GetMapping("/search")
-    public List<Product> searchProductsByName(@RequestParam String name) {
-        logger.info("GET /products/search called with name: {}", name);
-        return productService.searchProductsByName(name);
+    public List<ProductSummary> searchProductsByName(@RequestParam String name,
+                                                     @RequestParam(defaultValue = "50") int limit,
+                                                     @RequestParam(defaultValue = "false") boolean fuzzy) {
+        logger.info("GET /products/search called with name: {}, limit: {}, fuzzy: {}", name, limit, fuzzy);
+        return productService.searchProductsByName(name, limit, fuzzy);
     }
     
+    // Public: Typeahead for the search box, served from memory (logged at debug: it is called per keystroke)
+    @GetMapping("/suggest")
+    public List<ProductSuggestion> suggest(@RequestParam String prefix,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        logger.debug("GET /products/suggest called with prefix: {}, limit: {}", prefix, limit);
+        return productService.suggest(prefix, limit);
+    }
+
     // Public: Get products by price range
     @GetMapping("/price-range")
+    public ProductPage<ProductSummary> getProductsByPriceRangePage(@RequestParam Double minPrice, @RequestParam Double maxPrice,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "20") int size) {
+        logger.info("GET /products/price-range called with minPrice: {}, maxPrice: {}, cursor: {}, size: {}", minPrice, maxPrice, cursor, size);
+        return productService.getProductsByPriceRangePage(minPrice, maxPrice, cursor, size);
+    }
+
+    @GetMapping(value = "/price-range", params = "all=true")
     public List<Product> getProductsByPriceRange(@RequestParam Double minPrice, @RequestParam Double maxPrice) {
-        logger.info("GET /products/price-range called with minPrice: {} and maxPrice: {}", minPrice, maxPrice);
+        logger.info("GET /products/price-range?all=true called with minPrice: {} and maxPrice: {}", minPrice, maxPrice);
         return productService.getProductsByPriceRange(minPrice, maxPrice);
     }
     
     // Public: Get products by category and price range
     @GetMapping("/category-price-range")
+    public ProductPage<ProductSummary> getProductsByCategoryAndPriceRangePage(@RequestParam String category,
+                                                                              @RequestParam Double minPrice,
+                                                                              @RequestParam Double maxPrice,
+                                                                              @RequestParam(required = false) String cursor,
+                                                                              @RequestParam(defaultValue = "20") int size) {
+        logger.info("GET /products/category-price-range called with category: {}, minPrice: {}, maxPrice: {}, cursor: {}, size: {}", category, minPrice, maxPrice, cursor, size);
+        return productService.getProductsByCategoryAndPriceRangePage(category, minPrice, maxPrice, cursor, size);
+    }
+
+    @GetMapping(value = "/category-price-range", params = "all=true")
     public List<Product> getProductsByCategoryAndPriceRange(@RequestParam String category, 
                                                            @RequestParam Double minPrice, 
                                                            @RequestParam Double maxPrice) {
-        logger.info("GET /products/category-price-range called with category: {}, minPrice: {}, maxPrice: {}", category, minPrice, maxPrice);
+        logger.info("GET /products/category-price-range?all=true called with category: {}, minPrice: {}, maxPrice: {}", category, minPrice, maxPrice);
         return productService.getProductsByCategoryAndPriceRange(category, minPrice, maxPrice);
     }
     
     // Public: Get products in stock
     @GetMapping("/in-stock")
+    public ProductPage<ProductSummary> getProductsInStockPage(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        logger.info("GET /products/in-stock called with cursor: {}, size: {}", cursor, size);
+        return productService.getProductsInStockPage(cursor, size);
+    }
+
+    @GetMapping(value = "/in-stock", params = "all=true")
     public List<Product> getProductsInStock() {
-        logger.info("GET /products/in-stock called");
+        logger.info("GET /products/in-stock?all=true called");
         return productService.getProductsInStock();
     }
     
-    // Public: Advanced search with multiple criteria
+    // Public: Advanced search with multiple criteria; the first page includes facet counts.
+    // sort: relevance (default), name, price_asc, price_desc or stock
     @GetMapping("/advanced-search")
-    public List<Product> advancedSearch(@RequestParam(required = false) String name,
-                                       @RequestParam(required = false) String category,
-                                       @RequestParam(required = false) Double minPrice,
-                                       @RequestParam(required = false) Double maxPrice,
-                                       @RequestParam(required = false) Boolean inStock) {
-        logger.info("GET /products/advanced-search called with name: {}, category: {}, minPrice: {}, maxPrice: {}, inStock: {}", name, category, minPrice, maxPrice, inStock);
-        return productService.searchProducts(name, category, minPrice, maxPrice, inStock);
+    public ProductSearchResult advancedSearch(@RequestParam(required = false) String name,
+                                              @RequestParam(required = false) String category,
+                                              @RequestParam(required = false) Double minPrice,
+                                              @RequestParam(required = false) Double maxPrice,
+                                              @RequestParam(required = false) Boolean inStock,
+                                              @RequestParam(defaultValue = "relevance") String sort,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") int size) {
+        logger.info("GET /products/advanced-search called with name: {}, category: {}, minPrice: {}, maxPrice: {}, inStock: {}, sort: {}, cursor: {}, size: {}", name, category, minPrice, maxPrice, inStock, sort, cursor, size);
+        return productService.searchProducts(name, category, minPrice, maxPrice, inStock, ProductSort.fromParam(sort), cursor, size);
+    }
+
+    @GetMapping(value = "/advanced-search", params = "all=true")
+    public List<Product> advancedSearchAll(@RequestParam(required = false) String name,
+                                           @RequestParam(required = false) String category,
+                                           @RequestParam(required = false) Double minPrice,
+                                           @RequestParam(required = false) Double maxPrice,
+                                           @RequestParam(required = false) Boolean inStock) {
+        logger.info("GET /products/advanced-search?all=true called with name: {}, category: {}, minPrice: {}, maxPrice: {}, inStock: {}", name, category, minPrice, maxPrice, inStock);
+        return productService.searchAllProducts(name, category, minPrice, maxPrice, inStock);
     }
 
     // Only ADMIN can add multiple products at once
@@ -204,4 +384,45 @@ public class ProductController {
             throw e;
         }
     }
+
+    // Streaming catalog import: NDJSON (one product per line) or CSV with a header row.
+    // Progress is streamed back as NDJSON: an "error" line per rejected row, a "progress"
+    // line per written batch and a final "done" line with the totals
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = {NDJSON, "text/csv"})
+    public void importProducts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.info("POST /products/import called with content type: {}", request.getContentType());
+        Reader body = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+        boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf("text/csv"));
+        try (ProductRowReader reader = csv ? new CsvProductReader(body) : new NdjsonProductReader(body, objectMapper)) {
+            response.setContentType(NDJSON);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            PrintWriter out = response.getWriter();
+            Consumer<ProductImportStatus> progress = status -> {
+                try {
+                    out.write(objectMapper.writeValueAsString(status));
+                    out.write('\n');
+                    out.flush();
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            progress.accept(productImportService.importProducts(reader, progress));
+        } catch (Exception e) {
+            logger.error("Product import failed", e);
+            throw e;
+        }
+    }
+
+    private ProductDTO toProductDTO(Product product) {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setProductId(product.getProductId());
+        productDTO.setName(product.getName());
+        productDTO.setPrice(product.getPrice());
+        productDTO.setPriceVersion(product.getPriceVersion());
+        productDTO.setStockQuantity(product.getStockQuantity());
+        productDTO.setDescription(product.getDescription());
+        productDTO.setImageUrl(product.getImageUrl());
+        return productDTO;
+    }
 }
@@ -0,0 +1,76 @@
+package com.platform.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row asking cart-service to drop a product from every cart. Written in
+ * the same transaction as the product delete or stock-out that caused it and
+ * removed once cart-service has confirmed the cleanup.
+ */
+@Entity
+@Table(name = "cart_cleanup_task", indexes = @Index(name = "idx_cart_cleanup_next_attempt", columnList = "nextAttemptAt"))
+public class CartCleanupTask {
+
+    public static final String DELETED = "DELETED";
+    public static final String OUT_OF_STOCK = "OUT_OF_STOCK";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long productId;
+    // DELETED or OUT_OF_STOCK
+    private String reason;
+    private int attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime nextAttemptAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+}
@@ -0,0 +1,52 @@
+package com.platform.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row for a product that has just dropped to its low-stock threshold.
+ * Written in the same transaction as the stock change and removed once the
+ * alert has gone out in the next digest.
+ */
+@Entity
+@Table(name = "low_stock_alert")
+public class LowStockAlert {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long productId;
+    private LocalDateTime createdAt;
+
+    public LowStockAlert() {}
+
+    public LowStockAlert(Long productId, LocalDateTime createdAt) {
+        this.productId = productId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,5 +1,6 @@
 package com.platform.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 @Entity
@@ -15,8 +16,41 @@ public class Product {
     private String category;
     private String imageUrl;
     private int stockQuantity;
+    // Stock level at or below which a low-stock alert goes out; null means product.low-stock.default-threshold
+    private Integer lowStockThreshold;
+
+    // Set while an alert has been sent for the current low-stock spell, cleared once stock is back
+    // above the threshold. Only written by LowStockService's bulk updates, never by entity saves
+    @JsonIgnore
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "boolean default false")
+    private boolean lowStockAlerted;
+
+    // Bumped on every update (including stock decrements); used as the product's ETag
+    @Version
+    private long version;
+
+    // Bumped only when the price changes, by ProductRepository.bumpPriceVersion and the importer's UPDATE,
+    // never by entity saves. Cart lines record it to tell when they need re-pricing
+    @Column(nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long priceVersion;
 
     // Getters and Setters
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getPriceVersion() {
+        return priceVersion;
+    }
+
+    public void setPriceVersion(long priceVersion) {
+        this.priceVersion = priceVersion;
+    }
+
     public Long getProductId() {
         return productId;
     }
@@ -61,6 +95,18 @@ public class Product {
         this.stockQuantity = stockQuantity;
     }
 
+    public Integer getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    public void setLowStockThreshold(Integer lowStockThreshold) {
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    public boolean isLowStockAlerted() {
+        return lowStockAlerted;
+    }
+
     public void setCategory(String category) {
         this.category = category;
     }
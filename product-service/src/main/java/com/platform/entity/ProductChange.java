@@ -0,0 +1,68 @@
+package com.platform.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * One row of the catalog change log. The auto-increment id doubles as the
+ * catalog version: every create, update, delete and stock change gets the
+ * next version, so consumers can ask for everything after the last version
+ * they have seen.
+ */
+@Entity
+@Table(name = "product_change", indexes = @Index(name = "idx_product_change_changed_at", columnList = "changedAt"))
+public class ProductChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long version;
+
+    private Long productId;
+    // SAVED, DELETED or STOCK_CHANGED
+    private String changeType;
+    // Signed stock change for STOCK_CHANGED rows, 0 otherwise
+    private int stockDelta;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime changedAt;
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(String changeType) {
+        this.changeType = changeType;
+    }
+
+    public int getStockDelta() {
+        return stockDelta;
+    }
+
+    public void setStockDelta(int stockDelta) {
+        this.stockDelta = stockDelta;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+}
@@ -0,0 +1,73 @@
+package com.platform.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * Stock set aside for a checkout for a limited time. The units are taken off
+ * the products when the hold is created; confirming keeps them taken,
+ * releasing or expiring gives them back.
+ */
+@Entity
+@Table(name = "stock_hold", indexes = @Index(name = "idx_stock_hold_status_expires", columnList = "status, expiresAt"))
+public class StockHold {
+
+    public static final String ACTIVE = "ACTIVE";
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String RELEASED = "RELEASED";
+    public static final String EXPIRED = "EXPIRED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long holdId;
+
+    private String status;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime createdAt;
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime expiresAt;
+
+    @OneToMany(mappedBy = "hold", cascade = CascadeType.ALL, orphanRemoval = true)
+    private java.util.List<StockHoldItem> items = new java.util.ArrayList<>();
+
+    public Long getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(Long holdId) {
+        this.holdId = holdId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public java.util.List<StockHoldItem> getItems() {
+        return items;
+    }
+
+    public void setItems(java.util.List<StockHoldItem> items) {
+        this.items = items;
+    }
+}
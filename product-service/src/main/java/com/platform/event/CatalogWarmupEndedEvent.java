@@ -0,0 +1,22 @@
+package com.platform.event;
+
+import java.util.Set;
+
+/**
+ * Published by CatalogSnapshotService when it stops serving from the catalog
+ * snapshot. The indexes were loaded from the snapshot; the products changed
+ * since it was taken, including those changed through other instances, are
+ * re-read from the database by the listeners.
+ */
+public class CatalogWarmupEndedEvent {
+
+    private final Set<Long> changedProductIds;
+
+    public CatalogWarmupEndedEvent(Set<Long> changedProductIds) {
+        this.changedProductIds = changedProductIds;
+    }
+
+    public Set<Long> getChangedProductIds() {
+        return changedProductIds;
+    }
+}
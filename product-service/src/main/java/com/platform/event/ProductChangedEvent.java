@@ -0,0 +1,61 @@
+package com.platform.event;
+
+import com.platform.entity.Product;
+
+/**
+ * Published by ProductService after every catalog mutation so in-memory views
+ * (search index, facets, ...) can update incrementally instead of re-reading the table.
+ *
+ * Listeners should use @TransactionalEventListener(fallbackExecution = true) so a
+ * rolled-back write is never applied.
+ */
+public class ProductChangedEvent {
+
+    public enum Type {
+        SAVED,
+        DELETED,
+        STOCK_CHANGED
+    }
+
+    private final Type type;
+    private final Long productId;
+    private final Product product;
+    private final int stockDelta;
+
+    private ProductChangedEvent(Type type, Long productId, Product product, int stockDelta) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+        this.stockDelta = stockDelta;
+    }
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(Type.SAVED, product.getProductId(), product, 0);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null, 0);
+    }
+
+    public static ProductChangedEvent stockChanged(Long productId, int stockDelta) {
+        return new ProductChangedEvent(Type.STOCK_CHANGED, productId, null, stockDelta);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    // State after the change; only set for SAVED events
+    public Product getProduct() {
+        return product;
+    }
+
+    // Signed stock change; only set for STOCK_CHANGED events
+    public int getStockDelta() {
+        return stockDelta;
+    }
+}
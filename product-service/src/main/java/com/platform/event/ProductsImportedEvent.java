@@ -0,0 +1,23 @@
+package com.platform.event;
+
+import com.platform.entity.Product;
+
+import java.util.List;
+
+/**
+ * Published once per written batch of a bulk import instead of one
+ * ProductChangedEvent per row, so listeners can apply the whole batch at once
+ * (one batched insert into the change log, one lock on the search index).
+ */
+public class ProductsImportedEvent {
+
+    private final List<Product> products;
+
+    public ProductsImportedEvent(List<Product> products) {
+        this.products = products;
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+}
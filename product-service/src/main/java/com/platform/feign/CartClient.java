@@ -1,11 +1,13 @@
 package com.platform.feign;
 
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.DeleteMapping;
-import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+
+import java.util.List;
 
 @FeignClient(name = "cart-service")
 public interface CartClient {
-    @DeleteMapping("/cart/remove-by-product/{productId}")
-    void deleteCartItemsByProductId(@PathVariable("productId") Long productId);
-} 
\ No newline at end of file
+    @PostMapping("/cart/remove-by-products")
+    void deleteCartItemsByProductIds(@RequestBody List<Long> productIds);
+}
@@ -0,0 +1,20 @@
+package com.platform.feign;
+
+import com.platform.model.LowStockItem;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
+
+@FeignClient(name = "ecom-notification-service")
+public interface NotificationClient {
+    @PostMapping("/notifications/low-stock-alert")
+    String sendLowStockAlert(@RequestParam String email,
+                             @RequestParam String productName,
+                             @RequestParam int currentStock);
+
+    @PostMapping("/notifications/low-stock-digest")
+    String sendLowStockDigest(@RequestParam String email, @RequestBody List<LowStockItem> items);
+}
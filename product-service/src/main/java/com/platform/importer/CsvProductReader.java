@@ -0,0 +1,134 @@
+package com.platform.importer;
+
+import com.platform.entity.Product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads products from CSV (text/csv). The first record is a header naming the
+ * columns: name, description, price, category, imageUrl, stockQuantity,
+ * lowStockThreshold and, for updates, productId. Column order is free and names are case-insensitive.
+ * Fields follow RFC 4180: quoted fields may contain commas, doubled quotes and
+ * line breaks.
+ */
+public class CsvProductReader implements ProductRowReader {
+
+    private static final List<String> COLUMNS =
+            List.of("productid", "name", "description", "price", "category", "imageurl", "stockquantity",
+                    "lowstockthreshold");
+
+    private final BufferedReader in;
+    private final String[] header;
+    private long lineNumber;
+
+    public CsvProductReader(Reader in) throws IOException {
+        this.in = new BufferedReader(in);
+        List<String> fields = readRecord();
+        if (fields == null) {
+            throw new RuntimeException("CSV import is empty, expected a header row");
+        }
+        header = new String[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            String column = fields.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT);
+            if (!COLUMNS.contains(column)) {
+                throw new RuntimeException("Unknown CSV column: " + fields.get(i));
+            }
+            header[i] = column;
+        }
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        List<String> fields;
+        long line;
+        do {
+            line = lineNumber + 1;
+            fields = readRecord();
+        } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+        if (fields == null) {
+            return null;
+        }
+        if (fields.size() != header.length) {
+            return ImportRow.failed(line, "Expected " + header.length + " fields but found " + fields.size());
+        }
+        Product product = new Product();
+        for (int i = 0; i < header.length; i++) {
+            String value = fields.get(i).trim();
+            try {
+                set(product, header[i], value);
+            } catch (NumberFormatException e) {
+                return ImportRow.failed(line, "Invalid number for " + header[i] + ": " + value);
+            }
+        }
+        return ImportRow.of(line, product);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static void set(Product product, String column, String value) {
+        if (value.isEmpty()) {
+            return;
+        }
+        switch (column) {
+            case "productid" -> product.setProductId(Long.parseLong(value));
+            case "name" -> product.setName(value);
+            case "description" -> product.setDescription(value);
+            case "price" -> product.setPrice(Double.parseDouble(value));
+            case "category" -> product.setCategory(value);
+            case "imageurl" -> product.setImageUrl(value);
+            case "stockquantity" -> product.setStockQuantity(Integer.parseInt(value));
+            case "lowstockthreshold" -> product.setLowStockThreshold(Integer.parseInt(value));
+            default -> throw new IllegalStateException("Unmapped column " + column);
+        }
+    }
+
+    // Fields of the next record, or null at the end of the input
+    private List<String> readRecord() throws IOException {
+        int c = in.read();
+        if (c == -1) {
+            return null;
+        }
+        lineNumber++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c != -1) {
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
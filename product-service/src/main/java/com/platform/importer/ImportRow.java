@@ -0,0 +1,44 @@
+package com.platform.importer;
+
+import com.platform.entity.Product;
+
+/**
+ * One record of an import file: either the parsed product or the reason it
+ * could not be parsed, tagged with the line it started on.
+ */
+public class ImportRow {
+
+    private final long line;
+    private final Product product;
+    private final String error;
+
+    private ImportRow(long line, Product product, String error) {
+        this.line = line;
+        this.product = product;
+        this.error = error;
+    }
+
+    public static ImportRow of(long line, Product product) {
+        return new ImportRow(line, product, null);
+    }
+
+    public static ImportRow failed(long line, String error) {
+        return new ImportRow(line, null, error);
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.platform.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.platform.entity.Product;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads one JSON product object per line (application/x-ndjson). Blank lines
+ * are skipped.
+ */
+public class NdjsonProductReader implements ProductRowReader {
+
+    private final BufferedReader in;
+    private final ObjectReader productReader;
+    private long lineNumber;
+
+    public NdjsonProductReader(Reader in, ObjectMapper objectMapper) {
+        this.in = new BufferedReader(in);
+        this.productReader = objectMapper.readerFor(Product.class);
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                return ImportRow.of(lineNumber, productReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                return ImportRow.failed(lineNumber, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,14 @@
+package com.platform.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pull-style reader over an import file. Rows are parsed one at a time, so
+ * memory use does not grow with the size of the file.
+ */
+public interface ProductRowReader extends Closeable {
+
+    // Next record, or null at the end of the input
+    ImportRow next() throws IOException;
+}
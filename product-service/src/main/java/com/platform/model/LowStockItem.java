@@ -0,0 +1,52 @@
+package com.platform.model;
+
+/**
+ * One product in a low-stock digest sent to notification-service.
+ */
+public class LowStockItem {
+    private Long productId;
+    private String productName;
+    private int currentStock;
+    private int threshold;
+
+    public LowStockItem() {}
+
+    public LowStockItem(Long productId, String productName, int currentStock, int threshold) {
+        this.productId = productId;
+        this.productName = productName;
+        this.currentStock = currentStock;
+        this.threshold = threshold;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public int getCurrentStock() {
+        return currentStock;
+    }
+
+    public void setCurrentStock(int currentStock) {
+        this.currentStock = currentStock;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+}
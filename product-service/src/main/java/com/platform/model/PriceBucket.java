@@ -0,0 +1,43 @@
+package com.platform.model;
+
+/**
+ * One bar of the price histogram: products priced in [min, max). {@code max}
+ * is null for the open-ended top bucket.
+ */
+public class PriceBucket {
+    private Double min;
+    private Double max;
+    private long count;
+
+    public PriceBucket() {}
+
+    public PriceBucket(Double min, Double max, long count) {
+        this.min = min;
+        this.max = max;
+        this.count = count;
+    }
+
+    public Double getMin() {
+        return min;
+    }
+
+    public void setMin(Double min) {
+        this.min = min;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public void setMax(Double max) {
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,48 @@
+package com.platform.model;
+
+import com.platform.entity.ProductChange;
+
+import java.util.List;
+
+/**
+ * Response of GET /products/changes. Pass {@code version} back as {@code since}
+ * on the next call; when {@code hasMore} is true the next call returns more
+ * changes immediately.
+ */
+public class ProductChangeFeed {
+    private List<ProductChange> changes;
+    private long version;
+    private boolean hasMore;
+
+    public ProductChangeFeed() {}
+
+    public ProductChangeFeed(List<ProductChange> changes, long version, boolean hasMore) {
+        this.changes = changes;
+        this.version = version;
+        this.hasMore = hasMore;
+    }
+
+    public List<ProductChange> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<ProductChange> changes) {
+        this.changes = changes;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -4,6 +4,8 @@ public class ProductDTO {
     private Long productId;
     private String name;
     private double price;
+    // Changes whenever the price does
+    private long priceVersion;
     private int stockQuantity;
     private String imageUrl;
     private String description;
@@ -32,6 +34,14 @@ public class ProductDTO {
         this.price = price;
     }
 
+    public long getPriceVersion() {
+        return priceVersion;
+    }
+
+    public void setPriceVersion(long priceVersion) {
+        this.priceVersion = priceVersion;
+    }
+
     public int getStockQuantity() {
         return stockQuantity;
     }
@@ -0,0 +1,59 @@
+package com.platform.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facet counts for the filter sidebar. Each facet ignores its own filter, so
+ * the sidebar can still show how many products the other choices would return:
+ * category counts ignore the category filter, the price histogram ignores the
+ * price range and {@code inStock} ignores the in-stock flag. {@code total} is
+ * the number of products matching every filter.
+ */
+public class ProductFacets {
+    private Map<String, Long> categories;
+    private List<PriceBucket> priceBuckets;
+    private long inStock;
+    private long total;
+
+    public ProductFacets() {}
+
+    public ProductFacets(Map<String, Long> categories, List<PriceBucket> priceBuckets, long inStock, long total) {
+        this.categories = categories;
+        this.priceBuckets = priceBuckets;
+        this.inStock = inStock;
+        this.total = total;
+    }
+
+    public Map<String, Long> getCategories() {
+        return categories;
+    }
+
+    public void setCategories(Map<String, Long> categories) {
+        this.categories = categories;
+    }
+
+    public List<PriceBucket> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    public void setPriceBuckets(List<PriceBucket> priceBuckets) {
+        this.priceBuckets = priceBuckets;
+    }
+
+    public long getInStock() {
+        return inStock;
+    }
+
+    public void setInStock(long inStock) {
+        this.inStock = inStock;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
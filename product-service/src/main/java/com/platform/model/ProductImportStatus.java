@@ -0,0 +1,86 @@
+package com.platform.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of the NDJSON progress stream written by POST /products/import.
+ * {@code type} is "error" for a rejected row (with {@code line} and
+ * {@code message}), "progress" after every written batch and "done" once at
+ * the end; progress and done lines carry the running totals.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductImportStatus {
+    private String type;
+    private Long line;
+    private String message;
+    private Long processed;
+    private Long imported;
+    private Long failed;
+
+    public ProductImportStatus() {}
+
+    public static ProductImportStatus error(long line, String message) {
+        ProductImportStatus status = new ProductImportStatus();
+        status.type = "error";
+        status.line = line;
+        status.message = message;
+        return status;
+    }
+
+    public static ProductImportStatus totals(String type, long processed, long imported, long failed) {
+        ProductImportStatus status = new ProductImportStatus();
+        status.type = type;
+        status.processed = processed;
+        status.imported = imported;
+        status.failed = failed;
+        return status;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getLine() {
+        return line;
+    }
+
+    public void setLine(Long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Long getProcessed() {
+        return processed;
+    }
+
+    public void setProcessed(Long processed) {
+        this.processed = processed;
+    }
+
+    public Long getImported() {
+        return imported;
+    }
+
+    public void setImported(Long imported) {
+        this.imported = imported;
+    }
+
+    public Long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Long failed) {
+        this.failed = failed;
+    }
+}
@@ -0,0 +1,27 @@
+package com.platform.model;
+
+import java.util.List;
+
+/**
+ * A page of advanced-search results plus the facet counts for the whole
+ * result set. Facets are only computed for the first page (no cursor) and are
+ * null on later pages or while the search index is still loading.
+ */
+public class ProductSearchResult extends ProductPage<ProductSummary> {
+    private ProductFacets facets;
+
+    public ProductSearchResult() {}
+
+    public ProductSearchResult(List<ProductSummary> items, String nextCursor, ProductFacets facets) {
+        super(items, nextCursor);
+        this.facets = facets;
+    }
+
+    public ProductFacets getFacets() {
+        return facets;
+    }
+
+    public void setFacets(ProductFacets facets) {
+        this.facets = facets;
+    }
+}
@@ -0,0 +1,53 @@
+package com.platform.model;
+
+/**
+ * One typeahead suggestion from GET /products/suggest. {@code type} is
+ * "product" (with {@code productId}) or "category".
+ */
+public class ProductSuggestion {
+    private String text;
+    private String type;
+    private Long productId;
+    private long weight;
+
+    public ProductSuggestion() {}
+
+    public ProductSuggestion(String text, String type, Long productId, long weight) {
+        this.text = text;
+        this.type = type;
+        this.productId = productId;
+        this.weight = weight;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public void setWeight(long weight) {
+        this.weight = weight;
+    }
+}
@@ -0,0 +1,93 @@
+package com.platform.model;
+
+/**
+ * Read-only view of a product for list and search results. Selected directly with
+ * a JPQL constructor expression, so no managed entity is created; the description
+ * is cut to {@link #DESCRIPTION_LENGTH} characters in the query, enough for a list
+ * card. Property names match Product so clients can use either.
+ */
+public class ProductSummary {
+    public static final int DESCRIPTION_LENGTH = 160;
+
+    private Long productId;
+    private String name;
+    private String description;
+    private Double price;
+    private String category;
+    private int stockQuantity;
+    private String imageUrl;
+
+    public ProductSummary() {}
+
+    public ProductSummary(Long productId, String name, String description, Double price, String category, int stockQuantity, String imageUrl) {
+        this.productId = productId;
+        this.name = name;
+        this.description = shorten(description);
+        this.price = price;
+        this.category = category;
+        this.stockQuantity = stockQuantity;
+        this.imageUrl = imageUrl;
+    }
+
+    public static String shorten(String description) {
+        return description != null && description.length() > DESCRIPTION_LENGTH
+                ? description.substring(0, DESCRIPTION_LENGTH)
+                : description;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    public void setStockQuantity(int stockQuantity) {
+        this.stockQuantity = stockQuantity;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+}
@@ -0,0 +1,32 @@
+package com.platform.model;
+
+import java.util.List;
+
+public class StockHoldRequest {
+    private List<StockUpdateRequest> items;
+    // Optional; product.holds.default-ttl-seconds when missing
+    private Integer ttlSeconds;
+
+    public StockHoldRequest() {}
+
+    public StockHoldRequest(List<StockUpdateRequest> items, Integer ttlSeconds) {
+        this.items = items;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public List<StockUpdateRequest> getItems() {
+        return items;
+    }
+
+    public void setItems(List<StockUpdateRequest> items) {
+        this.items = items;
+    }
+
+    public Integer getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Integer ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
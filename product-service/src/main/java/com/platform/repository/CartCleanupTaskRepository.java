@@ -0,0 +1,12 @@
+package com.platform.repository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.platform.entity.CartCleanupTask;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CartCleanupTaskRepository extends JpaRepository<CartCleanupTask, Long> {
+
+    // Oldest tasks that are due, via the next_attempt_at index
+    List<CartCleanupTask> findByNextAttemptAtLessThanEqualOrderByIdAsc(LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,11 @@
+package com.platform.repository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import com.platform.entity.LowStockAlert;
+import java.util.List;
+
+public interface LowStockAlertRepository extends JpaRepository<LowStockAlert, Long> {
+
+    // Pending alerts, oldest first
+    List<LowStockAlert> findAllByOrderByIdAsc(Pageable pageable);
+}
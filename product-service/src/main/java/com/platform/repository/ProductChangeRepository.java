@@ -0,0 +1,37 @@
+package com.platform.repository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import com.platform.entity.ProductChange;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+    // Changes after the given version, oldest first
+    List<ProductChange> findByVersionGreaterThanOrderByVersionAsc(Long version, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM ProductChange c")
+    long findLatestVersion();
+
+    // Committed versions above the given one; a primary key range
+    long countByVersionGreaterThan(long version);
+
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM ProductChange c WHERE c.changedAt <= :changedAt")
+    long findLatestVersionBefore(@Param("changedAt") LocalDateTime changedAt);
+
+    // Null when nothing was logged since; read from the changedAt index
+    @Query("SELECT MIN(c.version) FROM ProductChange c WHERE c.changedAt >= :changedAt")
+    Long findFirstVersionSince(@Param("changedAt") LocalDateTime changedAt);
+
+    @Query("SELECT COALESCE(MIN(c.version), 0) FROM ProductChange c")
+    long findOldestVersion();
+
+    // A primary key range, so pruning never scans the log
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProductChange c WHERE c.version BETWEEN :fromVersion AND :toVersion")
+    int deleteVersionRange(@Param("fromVersion") long fromVersion, @Param("toVersion") long toVersion);
+}
@@ -1,8 +1,13 @@
 package com.platform.repository;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import com.platform.entity.Product;
+import com.platform.model.ProductSummary;
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -20,6 +25,37 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     // Find products with stock quantity greater than specified value
     List<Product> findByStockQuantityGreaterThan(int quantity);
+
+    // Full entities in id order after the cursor id; used to load the search index in chunks
+    List<Product> findByProductIdGreaterThanOrderByProductIdAsc(Long productId, Pageable pageable);
+
+    // List and search views only select the summary columns (a shortened description, no managed entities).
+    // Keyset pagination: every listing below returns rows after the cursor id, in id order
+    String SUMMARY = "SELECT new com.platform.model.ProductSummary(p.productId, p.name, SUBSTRING(p.description, 1, "
+            + ProductSummary.DESCRIPTION_LENGTH + "), p.price, p.category, p.stockQuantity, p.imageUrl) FROM Product p ";
+
+    @Query(SUMMARY + "WHERE p.productId > :afterId ORDER BY p.productId")
+    List<ProductSummary> findSummaries(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.category = :category AND p.productId > :afterId ORDER BY p.productId")
+    List<ProductSummary> findSummariesByCategory(@Param("category") String category, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.price BETWEEN :minPrice AND :maxPrice AND p.productId > :afterId ORDER BY p.productId")
+    List<ProductSummary> findSummariesByPriceBetween(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+                                                     @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.category = :category AND p.price BETWEEN :minPrice AND :maxPrice AND p.productId > :afterId ORDER BY p.productId")
+    List<ProductSummary> findSummariesByCategoryAndPriceBetween(@Param("category") String category, @Param("minPrice") Double minPrice,
+                                                                @Param("maxPrice") Double maxPrice, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.stockQuantity > 0 AND p.productId > :afterId ORDER BY p.productId")
+    List<ProductSummary> findSummariesInStock(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(SUMMARY + "WHERE p.productId IN :ids")
+    List<ProductSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(SUMMARY + "WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%')) ORDER BY p.productId")
+    List<ProductSummary> findSummariesByNameContaining(@Param("name") String name, Pageable pageable);
     
     // Custom search query with multiple criteria
     @Query("SELECT p FROM Product p WHERE " +
@@ -33,4 +69,56 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                                 @Param("minPrice") Double minPrice,
                                 @Param("maxPrice") Double maxPrice,
                                 @Param("inStock") Boolean inStock);
+
+    @Query(SUMMARY + "WHERE " +
+           "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " +
+           "(:category IS NULL OR p.category = :category) AND " +
+           "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+           "(:maxPrice IS NULL OR p.price <= :maxPrice) AND " +
+           "(:inStock IS NULL OR p.stockQuantity > 0) AND " +
+           "p.productId > :afterId ORDER BY p.productId")
+    List<ProductSummary> searchSummariesAfter(@Param("name") String name,
+                                              @Param("category") String category,
+                                              @Param("minPrice") Double minPrice,
+                                              @Param("maxPrice") Double maxPrice,
+                                              @Param("inStock") Boolean inStock,
+                                              @Param("afterId") Long afterId,
+                                              Pageable pageable);
+
+    // Conditional decrement in a single statement; returns 0 when the product
+    // does not exist or does not have enough stock, so concurrent checkouts cannot oversell
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.version = p.version + 1 " +
+           "WHERE p.productId = :productId AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    // Gives stock back, e.g. unsold units held by the hot-stock counters
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.version = p.version + 1 " +
+           "WHERE p.productId = :productId")
+    int incrementStock(@Param("productId") Long productId, @Param("quantity") int quantity);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.priceVersion = p.priceVersion + 1 WHERE p.productId IN :ids")
+    int bumpPriceVersion(@Param("ids") Collection<Long> ids);
+
+    // Low-stock alerts: products among ids at or below their threshold that have not been alerted yet
+    @Query("SELECT p.productId FROM Product p WHERE p.productId IN :ids AND p.lowStockAlerted = false " +
+           "AND p.stockQuantity <= COALESCE(p.lowStockThreshold, :defaultThreshold)")
+    List<Long> findNewlyLowStock(@Param("ids") Collection<Long> ids, @Param("defaultThreshold") int defaultThreshold);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.lowStockAlerted = true WHERE p.productId IN :ids AND p.lowStockAlerted = false")
+    int markLowStockAlerted(@Param("ids") Collection<Long> ids);
+
+    // Products back above their threshold can be alerted again
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.lowStockAlerted = false WHERE p.productId IN :ids AND p.lowStockAlerted = true " +
+           "AND p.stockQuantity > COALESCE(p.lowStockThreshold, :defaultThreshold)")
+    int rearmLowStockAlerts(@Param("ids") Collection<Long> ids, @Param("defaultThreshold") int defaultThreshold);
 }
@@ -0,0 +1,24 @@
+package com.platform.repository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import com.platform.entity.StockHold;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockHoldRepository extends JpaRepository<StockHold, Long> {
+    List<StockHold> findByStatus(String status);
+
+    // Uses the (status, expires_at) index; a backstop for holds no instance has queued
+    List<StockHold> findByStatusAndExpiresAtBefore(String status, LocalDateTime expiresAt, Pageable pageable);
+
+    // Moves an ACTIVE hold to its final status; returns 0 when it was already
+    // confirmed, released or expired, so only one caller ever settles a hold
+    @Modifying
+    @Transactional
+    @Query("UPDATE StockHold h SET h.status = :status WHERE h.holdId = :holdId AND h.status = 'ACTIVE'")
+    int finishActive(@Param("holdId") Long holdId, @Param("status") String status);
+}
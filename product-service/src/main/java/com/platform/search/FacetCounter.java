@@ -0,0 +1,185 @@
+package com.platform.search;
+
+import com.platform.model.PriceBucket;
+import com.platform.model.ProductFacets;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Running facet counts for the whole catalog, per category: product count,
+ * in-stock count, a price histogram and the counts per distinct price for
+ * each. Updated by the index on every put/remove/stock change, so facets
+ * without a text query (filtered by category, price range and / or in-stock)
+ * are read straight from here; a price range only sums the prices inside it.
+ * Not thread-safe; the index serializes access.
+ */
+final class FacetCounter {
+
+    // Upper bounds of the price buckets; the last bucket is open-ended
+    private final double[] bounds;
+    // Categories are matched case-insensitively, like the category filter
+    private final Map<String, CategoryStats> categories = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    FacetCounter(double[] bounds) {
+        this.bounds = bounds;
+    }
+
+    void add(IndexedProduct product) {
+        update(product, 1);
+    }
+
+    void remove(IndexedProduct product) {
+        update(product, -1);
+    }
+
+    private void update(IndexedProduct product, int delta) {
+        if (product == null) {
+            return;
+        }
+        String category = categoryOf(product);
+        CategoryStats stats = categories.computeIfAbsent(category, c -> new CategoryStats(c, bounds.length + 1));
+        int bucket = bucketOf(product.getPrice());
+        boolean inStock = product.getStockQuantity() > 0;
+        stats.count += delta;
+        stats.buckets[bucket] += delta;
+        long[] atPrice = stats.prices.computeIfAbsent(product.getPrice(), p -> new long[2]);
+        atPrice[0] += delta;
+        if (inStock) {
+            stats.inStock += delta;
+            stats.bucketsInStock[bucket] += delta;
+            atPrice[1] += delta;
+        }
+        if (atPrice[0] == 0) {
+            stats.prices.remove(product.getPrice());
+        }
+        if (stats.count == 0) {
+            categories.remove(category);
+        }
+    }
+
+    /**
+     * Facets for the catalog restricted to an optional category, price range and
+     * in-stock flag, read from the running counts. Like {@link #count}, each facet
+     * ignores its own filter.
+     */
+    ProductFacets snapshot(String category, Double minPrice, Double maxPrice, Boolean inStock) {
+        boolean inStockOnly = Boolean.TRUE.equals(inStock);
+        boolean anyPrice = minPrice == null && maxPrice == null;
+        Map<String, Long> categoryCounts = new LinkedHashMap<>();
+        long[] buckets = new long[bounds.length + 1];
+        long inStockCount = 0;
+        long total = 0;
+        for (CategoryStats stats : categories.values()) {
+            long[] inRange = anyPrice ? new long[] {stats.count, stats.inStock} : stats.inRange(minPrice, maxPrice);
+            long count = inStockOnly ? inRange[1] : inRange[0];
+            if (count > 0) {
+                categoryCounts.put(stats.label, count);
+            }
+            if (category != null && !category.equalsIgnoreCase(stats.label)) {
+                continue;
+            }
+            long[] source = inStockOnly ? stats.bucketsInStock : stats.buckets;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] += source[i];
+            }
+            inStockCount += inRange[1];
+            total += count;
+        }
+        return new ProductFacets(categoryCounts, priceBuckets(buckets), inStockCount, total);
+    }
+
+    /**
+     * Facets over an arbitrary candidate set, e.g. the products matching a text
+     * query, applying the filters one facet at a time.
+     */
+    ProductFacets count(Iterable<IndexedProduct> candidates, String category, Double minPrice, Double maxPrice, Boolean inStock) {
+        boolean inStockOnly = Boolean.TRUE.equals(inStock);
+        Map<String, Long> categoryCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        long[] buckets = new long[bounds.length + 1];
+        long inStockCount = 0;
+        long total = 0;
+        for (IndexedProduct product : candidates) {
+            boolean categoryMatch = category == null || category.equalsIgnoreCase(product.getCategory());
+            boolean priceMatch = (minPrice == null || product.getPrice() >= minPrice)
+                    && (maxPrice == null || product.getPrice() <= maxPrice);
+            boolean stocked = product.getStockQuantity() > 0;
+            boolean stockMatch = !inStockOnly || stocked;
+            if (priceMatch && stockMatch) {
+                categoryCounts.merge(categoryOf(product), 1L, Long::sum);
+            }
+            if (categoryMatch && stockMatch) {
+                buckets[bucketOf(product.getPrice())]++;
+            }
+            if (categoryMatch && priceMatch) {
+                if (stocked) {
+                    inStockCount++;
+                }
+                if (stockMatch) {
+                    total++;
+                }
+            }
+        }
+        return new ProductFacets(new LinkedHashMap<>(categoryCounts), priceBuckets(buckets), inStockCount, total);
+    }
+
+    private int bucketOf(double price) {
+        int bucket = 0;
+        while (bucket < bounds.length && price >= bounds[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private List<PriceBucket> priceBuckets(long[] counts) {
+        List<PriceBucket> result = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            Double min = i == 0 ? 0.0 : bounds[i - 1];
+            Double max = i < bounds.length ? bounds[i] : null;
+            result.add(new PriceBucket(min, max, counts[i]));
+        }
+        return result;
+    }
+
+    private static String categoryOf(IndexedProduct product) {
+        return product.getCategory() != null ? product.getCategory() : "";
+    }
+
+    private static final class CategoryStats {
+        // Spelling of the first product seen in this category
+        private final String label;
+        private final long[] buckets;
+        private final long[] bucketsInStock;
+        // Product and in-stock count per distinct price
+        private final NavigableMap<Double, long[]> prices = new TreeMap<>();
+        private long count;
+        private long inStock;
+
+        private CategoryStats(String label, int bucketCount) {
+            this.label = label;
+            this.buckets = new long[bucketCount];
+            this.bucketsInStock = new long[bucketCount];
+        }
+
+        // Product and in-stock count with a price in [minPrice, maxPrice]; either bound may be open
+        private long[] inRange(Double minPrice, Double maxPrice) {
+            NavigableMap<Double, long[]> range = prices;
+            if (minPrice != null) {
+                range = range.tailMap(minPrice, true);
+            }
+            if (maxPrice != null) {
+                range = range.headMap(maxPrice, true);
+            }
+            long[] sum = new long[2];
+            for (long[] atPrice : range.values()) {
+                sum[0] += atPrice[0];
+                sum[1] += atPrice[1];
+            }
+            return sum;
+        }
+    }
+}
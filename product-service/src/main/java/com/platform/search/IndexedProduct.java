@@ -0,0 +1,61 @@
+package com.platform.search;
+
+import com.platform.entity.Product;
+
+/**
+ * Immutable snapshot of the product fields the in-memory indexes need for
+ * matching, filtering and ranking. Kept small on purpose: descriptions and
+ * image URLs are tokenized but not retained.
+ */
+public final class IndexedProduct {
+
+    private final Long productId;
+    private final String name;
+    private final String category;
+    private final double price;
+    private final int stockQuantity;
+    // Distinct terms this product was indexed under, needed to remove it again
+    private final String[] terms;
+
+    IndexedProduct(Long productId, String name, String category, double price, int stockQuantity, String[] terms) {
+        this.productId = productId;
+        this.name = name;
+        this.category = category;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.terms = terms;
+    }
+
+    static IndexedProduct of(Product product, String[] terms) {
+        return new IndexedProduct(product.getProductId(), product.getName(), product.getCategory(),
+                product.getPrice() != null ? product.getPrice() : 0.0, product.getStockQuantity(), terms);
+    }
+
+    IndexedProduct withStockQuantity(int stockQuantity) {
+        return new IndexedProduct(productId, name, category, price, stockQuantity, terms);
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    String[] getTerms() {
+        return terms;
+    }
+}
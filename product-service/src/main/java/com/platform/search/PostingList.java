@@ -0,0 +1,69 @@
+package com.platform.search;
+
+import java.util.Arrays;
+
+/**
+ * Copy-on-write posting list for one term: product ids sorted ascending with the
+ * matching field weight. Instances are never mutated, so readers need no locking;
+ * writers (serialized by ProductSearchIndex) swap in a new instance.
+ */
+final class PostingList {
+
+    static final PostingList EMPTY = new PostingList(new long[0], new int[0]);
+
+    private final long[] ids;
+    private final int[] weights;
+
+    private PostingList(long[] ids, int[] weights) {
+        this.ids = ids;
+        this.weights = weights;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long idAt(int i) {
+        return ids[i];
+    }
+
+    int weightAt(int i) {
+        return weights[i];
+    }
+
+    PostingList with(long id, int weight) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos >= 0) {
+            int[] newWeights = weights.clone();
+            newWeights[pos] = weight;
+            return new PostingList(ids, newWeights);
+        }
+        int insertAt = -pos - 1;
+        long[] newIds = new long[ids.length + 1];
+        int[] newWeights = new int[ids.length + 1];
+        System.arraycopy(ids, 0, newIds, 0, insertAt);
+        System.arraycopy(weights, 0, newWeights, 0, insertAt);
+        newIds[insertAt] = id;
+        newWeights[insertAt] = weight;
+        System.arraycopy(ids, insertAt, newIds, insertAt + 1, ids.length - insertAt);
+        System.arraycopy(weights, insertAt, newWeights, insertAt + 1, ids.length - insertAt);
+        return new PostingList(newIds, newWeights);
+    }
+
+    PostingList without(long id) {
+        int pos = Arrays.binarySearch(ids, id);
+        if (pos < 0) {
+            return this;
+        }
+        if (ids.length == 1) {
+            return EMPTY;
+        }
+        long[] newIds = new long[ids.length - 1];
+        int[] newWeights = new int[ids.length - 1];
+        System.arraycopy(ids, 0, newIds, 0, pos);
+        System.arraycopy(weights, 0, newWeights, 0, pos);
+        System.arraycopy(ids, pos + 1, newIds, pos, ids.length - pos - 1);
+        System.arraycopy(weights, pos + 1, newWeights, pos, ids.length - pos - 1);
+        return new PostingList(newIds, newWeights);
+    }
+}
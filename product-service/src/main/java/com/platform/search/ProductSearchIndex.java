@@ -0,0 +1,490 @@
+package com.platform.search;
+
+import com.platform.entity.Product;
+import com.platform.event.CatalogWarmupEndedEvent;
+import com.platform.event.ProductChangedEvent;
+import com.platform.event.ProductsImportedEvent;
+import com.platform.model.ProductFacets;
+import com.platform.repository.ProductRepository;
+import com.platform.snapshot.CatalogSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index over product name, category and description.
+ *
+ * Built once at startup (from the catalog snapshot when there is one) and then
+ * kept current from ProductChangedEvents, so
+ * /products/search and /products/advanced-search never run LIKE '%x%' scans.
+ * Every query token must match (AND); each token also matches as a prefix so
+ * results show up while the user is still typing. Reads are lock-free, writes
+ * are serialized on the index instance.
+ *
+ * The index also keeps running facet counts (categories, price histogram,
+ * in-stock) so the filter sidebar never needs a GROUP BY, a trigram index
+ * over its terms for typo-tolerant (fuzzy) search, and the catalog sorted by
+ * name, price and stock for sorted listings.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    // A whole-word match outranks a prefix match of the same field
+    private static final double EXACT_MATCH_BOOST = 2.0;
+    // Bounds the work for one- or two-letter prefixes
+    private static final int MAX_PREFIX_EXPANSIONS = 256;
+    // Fuzzy mode: a term one edit away scores half, two edits a quarter of an exact hit
+    private static final double FUZZY_PENALTY = 0.5;
+    // Shorter tokens are matched exactly; "cat" is one edit from too many words
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int TWO_EDITS_MIN_LENGTH = 8;
+    private static final double[] PRICE_BUCKET_BOUNDS = {500, 1000, 2500, 5000, 10000, 25000};
+    // Products changed during a rebuild are re-read this many times at most; the last pass holds the lock
+    private static final int REPLAY_ROUNDS = 3;
+    private static final int REPLAY_BATCH_SIZE = 1000;
+
+    private static final Comparator<SearchHit> RANKING = Comparator
+            .comparingDouble(SearchHit::getScore).reversed()
+            .thenComparing(SearchHit::getProductId);
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ConcurrentSkipListMap<Long, IndexedProduct> documents = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<String, PostingList> postings = new ConcurrentSkipListMap<>();
+    private final FacetCounter facetCounter = new FacetCounter(PRICE_BUCKET_BOUNDS);
+    private final TrigramIndex trigrams = new TrigramIndex();
+    // The catalog in each non-relevance sort order, for sorted pages without a query
+    private final Map<ProductSort, ConcurrentSkipListSet<IndexedProduct>> sortedViews = new EnumMap<>(ProductSort.class);
+    private volatile boolean ready;
+    // Products changed while a rebuild is loading; null when no rebuild is running
+    private Set<Long> changedDuringRebuild;
+
+    public ProductSearchIndex() {
+        for (ProductSort sort : ProductSort.values()) {
+            if (sort.order() != null) {
+                sortedViews.put(sort, new ConcurrentSkipListSet<>(sort.order()));
+            }
+        }
+    }
+
+    /**
+     * Loads the catalog batch by batch. A batch is read before it is applied, so
+     * a change landing in between would be overwritten by the older batch:
+     * products changed while the rebuild runs are re-read from the database
+     * once the last batch is in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        try {
+            int[] loaded = {0};
+            catalogSnapshotService.loadCatalog(batch -> {
+                synchronized (this) {
+                    batch.forEach(this::put);
+                }
+                loaded[0] += batch.size();
+            });
+            int replayed = replayChanges();
+            ready = true;
+            logger.info("Product search index built with {} products ({} re-read after changing meanwhile), {} terms and {} trigrams in {} ms",
+                    loaded[0], replayed, postings.size(), trigrams.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+            // Search falls back to the database until the index is available
+            logger.error("Building product search index failed", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        markChanged(event.getProductId());
+        switch (event.getType()) {
+            case SAVED -> put(event.getProduct());
+            case DELETED -> remove(event.getProductId());
+            case STOCK_CHANGED -> adjustStock(event.getProductId(), event.getStockDelta());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsImported(ProductsImportedEvent event) {
+        event.getProducts().forEach(product -> {
+            markChanged(product.getProductId());
+            put(product);
+        });
+    }
+
+    // The index was loaded from the catalog snapshot: products changed since it was taken, through other
+    // instances too, are re-read, and changes landing meanwhile are replayed as after a rebuild
+    @EventListener
+    public void onCatalogWarmupEnded(CatalogWarmupEndedEvent event) {
+        List<Long> ids = new ArrayList<>(event.getChangedProductIds());
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                // A rebuild is running and re-reads them after its last batch
+                changedDuringRebuild.addAll(ids);
+                return;
+            }
+            changedDuringRebuild = new HashSet<>();
+        }
+        try {
+            reload(ids);
+            int replayed = replayChanges();
+            logger.info("Re-read {} products changed since the catalog snapshot ({} changed again meanwhile)", ids.size(), replayed);
+        } catch (Exception e) {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+            logger.error("Re-reading products changed since the catalog snapshot failed", e);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    public IndexedProduct get(Long productId) {
+        return documents.get(productId);
+    }
+
+    public synchronized void put(Product product) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+        long id = product.getProductId();
+        IndexedProduct previous = documents.get(id);
+        removeTerms(previous);
+        facetCounter.remove(previous);
+        removeFromSortedViews(previous);
+
+        Map<String, Integer> weights = new HashMap<>();
+        addField(weights, product.getName(), NAME_WEIGHT, false);
+        addField(weights, product.getCategory(), CATEGORY_WEIGHT, false);
+        addField(weights, product.getDescription(), DESCRIPTION_WEIGHT, true);
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            if (!postings.containsKey(entry.getKey())) {
+                trigrams.add(entry.getKey());
+            }
+            postings.compute(entry.getKey(), (term, list) -> (list == null ? PostingList.EMPTY : list).with(id, entry.getValue()));
+        }
+        IndexedProduct doc = IndexedProduct.of(product, weights.keySet().toArray(new String[0]));
+        documents.put(id, doc);
+        facetCounter.add(doc);
+        addToSortedViews(doc);
+    }
+
+    public synchronized void remove(Long productId) {
+        if (productId != null) {
+            IndexedProduct doc = documents.remove(productId);
+            removeTerms(doc);
+            facetCounter.remove(doc);
+            removeFromSortedViews(doc);
+        }
+    }
+
+    public synchronized void adjustStock(Long productId, int delta) {
+        IndexedProduct doc = productId != null ? documents.get(productId) : null;
+        if (doc != null) {
+            IndexedProduct updated = doc.withStockQuantity(doc.getStockQuantity() + delta);
+            documents.put(productId, updated);
+            facetCounter.remove(doc);
+            facetCounter.add(updated);
+            removeFromSortedViews(doc);
+            addToSortedViews(updated);
+        }
+    }
+
+    private synchronized void markChanged(Long productId) {
+        if (changedDuringRebuild != null && productId != null) {
+            changedDuringRebuild.add(productId);
+        }
+    }
+
+    // Re-reads the products changed since the rebuild started until none are left. A product changed again
+    // while being re-read is skipped and read in the next round; the last round reads under the lock so
+    // nothing can slip in before tracking stops
+    private int replayChanges() {
+        int replayed = 0;
+        for (int round = 1; ; round++) {
+            List<Long> ids;
+            synchronized (this) {
+                if (changedDuringRebuild.isEmpty()) {
+                    changedDuringRebuild = null;
+                    return replayed;
+                }
+                ids = new ArrayList<>(changedDuringRebuild);
+                changedDuringRebuild.clear();
+                if (round == REPLAY_ROUNDS) {
+                    reload(ids);
+                    changedDuringRebuild = null;
+                    return replayed + ids.size();
+                }
+            }
+            replayed += ids.size();
+            reload(ids);
+        }
+    }
+
+    private void reload(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += REPLAY_BATCH_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + REPLAY_BATCH_SIZE));
+            Map<Long, Product> fresh = productRepository.findAllById(chunk).stream()
+                    .collect(Collectors.toMap(Product::getProductId, product -> product));
+            synchronized (this) {
+                for (Long id : chunk) {
+                    if (changedDuringRebuild != null && changedDuringRebuild.contains(id)) {
+                        continue;
+                    }
+                    Product product = fresh.get(id);
+                    if (product != null) {
+                        put(product);
+                    } else {
+                        remove(id);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Facet counts for the products matching {@code query} (all products when
+     * blank) under the given filters. Without a query they come straight from
+     * the running counts; otherwise the matching documents are counted in memory.
+     */
+    public ProductFacets facets(String query, String category, Double minPrice, Double maxPrice, Boolean inStock) {
+        if (query == null || query.isBlank()) {
+            synchronized (this) {
+                return facetCounter.snapshot(category, minPrice, maxPrice, inStock);
+            }
+        }
+        List<IndexedProduct> candidates = match(query, false).keySet().stream()
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return facetCounter.count(candidates, category, minPrice, maxPrice, inStock);
+    }
+
+    /**
+     * Ranked full-text search. Returns at most {@code limit} hits that match every
+     * token of {@code query} and pass {@code filter}, best score first.
+     */
+    public List<SearchHit> search(String query, Predicate<IndexedProduct> filter, int limit) {
+        return search(query, filter, limit, null);
+    }
+
+    /**
+     * Same as {@link #search(String, Predicate, int)} but only returns hits ranked
+     * after {@code after}, i.e. keyset pagination on (score desc, id asc).
+     */
+    public List<SearchHit> search(String query, Predicate<IndexedProduct> filter, int limit, SearchHit after) {
+        return search(query, filter, limit, after, false);
+    }
+
+    /**
+     * With {@code fuzzy}, each query token also matches indexed terms within one
+     * edit (two for tokens of 8+ letters), e.g. "iphnoe" finds "iphone". Such
+     * hits score less the further they are from the token, so exact matches
+     * still rank first.
+     */
+    public List<SearchHit> search(String query, Predicate<IndexedProduct> filter, int limit, SearchHit after, boolean fuzzy) {
+        Map<Long, Double> scores = match(query, fuzzy);
+        if (scores.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Keep only the best {@code limit} hits: the head of the queue is the weakest one kept
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            SearchHit hit = new SearchHit(entry.getKey(), entry.getValue());
+            if (after != null && RANKING.compare(hit, after) <= 0) {
+                continue;
+            }
+            // Cannot make the cut: skip the document lookup
+            if (best.size() == limit && RANKING.compare(hit, best.peek()) >= 0) {
+                continue;
+            }
+            IndexedProduct doc = documents.get(entry.getKey());
+            if (doc == null || !filter.test(doc)) {
+                continue;
+            }
+            best.offer(hit);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    /**
+     * Products after {@code afterId} passing {@code filter} in ascending id order,
+     * for queries without text.
+     */
+    public List<IndexedProduct> filter(Predicate<IndexedProduct> filter, long afterId, int limit) {
+        return documents.tailMap(afterId, false).values().stream()
+                .filter(filter)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Products passing {@code filter} (and matching every token of {@code query}
+     * unless blank) in {@code sort} order, after {@code after}. Without a query the
+     * page is read straight from the sorted view; with one only the matches are
+     * ordered.
+     */
+    public List<IndexedProduct> sorted(String query, Predicate<IndexedProduct> filter, ProductSort sort, IndexedProduct after, int limit) {
+        ConcurrentSkipListSet<IndexedProduct> view = sortedViews.get(sort);
+        if (view == null) {
+            throw new IllegalArgumentException("No sorted view for " + sort);
+        }
+        if (query == null || query.isBlank()) {
+            return (after != null ? view.tailSet(after, false) : view).stream()
+                    .filter(filter)
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+        Comparator<IndexedProduct> order = sort.order();
+        // Keep only the first {@code limit} matches: the head of the queue is the last one kept
+        PriorityQueue<IndexedProduct> first = new PriorityQueue<>(limit + 1, order.reversed());
+        for (Long id : match(query, false).keySet()) {
+            IndexedProduct doc = documents.get(id);
+            if (doc == null || (after != null && order.compare(doc, after) <= 0) || !filter.test(doc)) {
+                continue;
+            }
+            first.offer(doc);
+            if (first.size() > limit) {
+                first.poll();
+            }
+        }
+        List<IndexedProduct> page = new ArrayList<>(first);
+        page.sort(order);
+        return page;
+    }
+
+    // Sum of per-token scores for products matching every token of the query
+    private Map<Long, Double> match(String query, boolean fuzzy) {
+        Map<Long, Double> scores = null;
+        for (String token : new LinkedHashSet<>(SearchTokenizer.tokenize(query))) {
+            // After the first token only products still in the running are scored
+            Map<Long, Double> tokenScores = matchToken(token, fuzzy, scores);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((id, score) -> score + tokenScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores != null ? scores : new HashMap<>();
+    }
+
+    private Map<Long, Double> matchToken(String token, boolean fuzzy, Map<Long, Double> candidates) {
+        Map<Long, Double> scores = new HashMap<>();
+        PostingList exact = postings.get(token);
+        if (exact != null) {
+            score(scores, exact, EXACT_MATCH_BOOST, candidates);
+        }
+        int expanded = 0;
+        for (PostingList list : postings.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+            if (++expanded > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            score(scores, list, 1.0, candidates);
+        }
+        if (fuzzy && token.length() >= MIN_FUZZY_LENGTH) {
+            int maxDistance = token.length() >= TWO_EDITS_MIN_LENGTH ? 2 : 1;
+            for (Map.Entry<String, Integer> similar : trigrams.similar(token, maxDistance).entrySet()) {
+                PostingList list = similar.getValue() > 0 ? postings.get(similar.getKey()) : null;
+                if (list != null) {
+                    score(scores, list, Math.pow(FUZZY_PENALTY, similar.getValue()), candidates);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static void score(Map<Long, Double> scores, PostingList list, double factor, Map<Long, Double> candidates) {
+        for (int i = 0; i < list.size(); i++) {
+            Long id = list.idAt(i);
+            if (candidates == null || candidates.containsKey(id)) {
+                scores.merge(id, list.weightAt(i) * factor, Math::max);
+            }
+        }
+    }
+
+    private void addField(Map<String, Integer> weights, String text, int weight, boolean skipStopWords) {
+        for (String token : new LinkedHashSet<>(SearchTokenizer.tokenize(text))) {
+            if (skipStopWords && SearchTokenizer.isStopWord(token)) {
+                continue;
+            }
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void addToSortedViews(IndexedProduct doc) {
+        sortedViews.values().forEach(view -> view.add(doc));
+    }
+
+    private void removeFromSortedViews(IndexedProduct doc) {
+        if (doc != null) {
+            sortedViews.values().forEach(view -> view.remove(doc));
+        }
+    }
+
+    private void removeTerms(IndexedProduct doc) {
+        if (doc == null) {
+            return;
+        }
+        long id = doc.getProductId();
+        for (String term : doc.getTerms()) {
+            postings.computeIfPresent(term, (t, list) -> {
+                PostingList updated = list.without(id);
+                if (updated.size() == 0) {
+                    trigrams.remove(t);
+                    return null;
+                }
+                return updated;
+            });
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.platform.search;
+
+import java.util.Comparator;
+
+/**
+ * Orders for advanced-search results. RELEVANCE ranks text matches by score
+ * (id order without a query); the others are kept as sorted views by the
+ * index, so a page is read from the position after the cursor instead of
+ * sorting the catalog on every request. Ties are broken by product id.
+ *
+ * Cursors for the sorted orders are "key:id", where key is the sort value of
+ * the last product on the page.
+ */
+public enum ProductSort {
+    RELEVANCE(null),
+    NAME(Comparator.comparing((IndexedProduct p) -> p.getName() != null ? p.getName() : "", String.CASE_INSENSITIVE_ORDER)),
+    PRICE_ASC(Comparator.comparingDouble(IndexedProduct::getPrice)),
+    PRICE_DESC(Comparator.comparingDouble(IndexedProduct::getPrice).reversed()),
+    STOCK(Comparator.comparingInt(IndexedProduct::getStockQuantity).reversed());
+
+    private final Comparator<IndexedProduct> order;
+
+    ProductSort(Comparator<IndexedProduct> key) {
+        this.order = key != null ? key.thenComparing(IndexedProduct::getProductId) : null;
+    }
+
+    // Accepts the request parameter in any case, with '-' or '_' ("price-asc", "PRICE_ASC")
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return RELEVANCE;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid sort: " + value);
+        }
+    }
+
+    Comparator<IndexedProduct> order() {
+        return order;
+    }
+
+    public String cursor(IndexedProduct last) {
+        String key = switch (this) {
+            case NAME -> last.getName() != null ? last.getName() : "";
+            case PRICE_ASC, PRICE_DESC -> String.valueOf(last.getPrice());
+            case STOCK -> String.valueOf(last.getStockQuantity());
+            case RELEVANCE -> throw new IllegalStateException("Relevance pages use ranked cursors");
+        };
+        return key + ":" + last.getProductId();
+    }
+
+    // A probe positioned where the cursor's product was, to resume after it even if that product changed since
+    public IndexedProduct after(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        int separator = cursor.lastIndexOf(':');
+        try {
+            String key = cursor.substring(0, separator);
+            long id = Long.parseLong(cursor.substring(separator + 1));
+            return switch (this) {
+                case NAME -> new IndexedProduct(id, key, null, 0, 0, null);
+                case PRICE_ASC, PRICE_DESC -> new IndexedProduct(id, null, null, Double.parseDouble(key), 0, null);
+                case STOCK -> new IndexedProduct(id, null, null, 0, Integer.parseInt(key), null);
+                case RELEVANCE -> throw new IllegalStateException("Relevance pages use ranked cursors");
+            };
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+}
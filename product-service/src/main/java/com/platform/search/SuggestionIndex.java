@@ -0,0 +1,256 @@
+package com.platform.search;
+
+import com.platform.entity.Product;
+import com.platform.event.CatalogWarmupEndedEvent;
+import com.platform.event.ProductChangedEvent;
+import com.platform.event.ProductsImportedEvent;
+import com.platform.model.ProductSuggestion;
+import com.platform.repository.ProductRepository;
+import com.platform.snapshot.CatalogSnapshotService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Typeahead suggestions for GET /products/suggest, served from a
+ * {@link SuggestionTrie} over product names and categories.
+ *
+ * Every entry is stored under each of its word starts, so "iph" completes
+ * "Apple iPhone 13". Product names are weighted by the units sold since
+ * startup (1 + sold), categories by how many products they hold. Like the
+ * search index, the trie is loaded once at startup and then updated from
+ * ProductChangedEvents; lookups never touch the database.
+ */
+@Component
+public class SuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionIndex.class);
+
+    // Word starts indexed per entry; keeps long names from multiplying the keys
+    private static final int MAX_WORD_STARTS = 6;
+
+    private static final int RELOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final SuggestionTrie trie;
+    // What is currently indexed per product and category, to find the keys to replace on change
+    private final Map<Long, IndexedName> names = new HashMap<>();
+    private final Map<String, IndexedCategory> categories = new HashMap<>();
+
+    public SuggestionIndex(@Value("${product.suggest.top-k:10}") int topK) {
+        this.trie = new SuggestionTrie(topK);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            names.clear();
+            categories.clear();
+            catalogSnapshotService.loadCatalog(batch -> batch.forEach(this::track));
+            List<SuggestionTrie.KeyedEntry> entries = new ArrayList<>();
+            names.values().forEach(name -> keys(name.text).forEach(key -> entries.add(new SuggestionTrie.KeyedEntry(key, name.entry()))));
+            categories.values().forEach(category -> keys(category.text).forEach(key -> entries.add(new SuggestionTrie.KeyedEntry(key, category.entry()))));
+            trie.rebuild(entries);
+            logger.info("Suggestion trie built with {} products, {} categories and {} nodes in {} ms",
+                    names.size(), categories.size(), trie.nodeCount(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // Suggestions stay empty (or stale) until the next restart; search still works
+            logger.error("Building suggestion trie failed", e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getType()) {
+            case SAVED -> put(event.getProduct());
+            case DELETED -> remove(event.getProductId());
+            case STOCK_CHANGED -> recordSale(event.getProductId(), -event.getStockDelta());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsImported(ProductsImportedEvent event) {
+        event.getProducts().forEach(this::put);
+    }
+
+    // The trie was loaded from the catalog snapshot: products changed since it was taken, through other
+    // instances too, are re-read from the database
+    @EventListener
+    public void onCatalogWarmupEnded(CatalogWarmupEndedEvent event) {
+        List<Long> ids = new ArrayList<>(event.getChangedProductIds());
+        try {
+            for (int from = 0; from < ids.size(); from += RELOAD_BATCH_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + RELOAD_BATCH_SIZE));
+                Map<Long, Product> fresh = productRepository.findAllById(chunk).stream()
+                        .collect(Collectors.toMap(Product::getProductId, product -> product));
+                synchronized (this) {
+                    for (Long id : chunk) {
+                        Product product = fresh.get(id);
+                        if (product != null) {
+                            put(product);
+                        } else {
+                            remove(id);
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Re-reading products changed since the catalog snapshot failed", e);
+        }
+    }
+
+    /**
+     * Best completions of {@code prefix}, at most {@code limit}. A trailing
+     * space only completes whole words ("phone " does not suggest "Phones").
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        if (Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+            key += " ";
+        }
+        return trie.complete(key, limit).stream()
+                .map(entry -> new ProductSuggestion(entry.text(), entry.type(), entry.productId(), entry.weight()))
+                .collect(Collectors.toList());
+    }
+
+    public synchronized void put(Product product) {
+        if (product == null || product.getProductId() == null) {
+            return;
+        }
+        IndexedName previous = names.get(product.getProductId());
+        String category = product.getCategory();
+        if (previous != null && previous.text.equals(product.getName()) && sameCategory(previous.category, category)) {
+            return;
+        }
+        long sold = previous != null ? previous.sold : 0;
+        remove(product.getProductId());
+        IndexedName name = new IndexedName(product.getProductId(), product.getName(), category, sold);
+        names.put(name.productId, name);
+        keys(name.text).forEach(key -> trie.put(key, name.entry()));
+        changeCategoryCount(category, 1);
+    }
+
+    public synchronized void remove(Long productId) {
+        IndexedName name = productId != null ? names.remove(productId) : null;
+        if (name != null) {
+            keys(name.text).forEach(key -> trie.remove(key, name.id()));
+            changeCategoryCount(name.category, -1);
+        }
+    }
+
+    // Stock decrements count as sales; stock given back (released holds) is subtracted again
+    public synchronized void recordSale(Long productId, int units) {
+        IndexedName name = productId != null ? names.get(productId) : null;
+        if (name == null || units == 0) {
+            return;
+        }
+        long sold = Math.max(0, name.sold + units);
+        if (sold != name.sold) {
+            IndexedName updated = new IndexedName(name.productId, name.text, name.category, sold);
+            names.put(productId, updated);
+            keys(updated.text).forEach(key -> trie.put(key, updated.entry()));
+        }
+    }
+
+    // Records a product during rebuild without touching the trie
+    private void track(Product product) {
+        names.put(product.getProductId(), new IndexedName(product.getProductId(), product.getName(), product.getCategory(), 0));
+        String key = normalize(product.getCategory());
+        if (!key.isEmpty()) {
+            categories.computeIfAbsent(key, k -> new IndexedCategory(product.getCategory().trim(), 0)).count++;
+        }
+    }
+
+    private void changeCategoryCount(String category, int delta) {
+        String normalized = normalize(category);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        IndexedCategory indexed = categories.computeIfAbsent(normalized, k -> new IndexedCategory(category.trim(), 0));
+        indexed.count += delta;
+        if (indexed.count <= 0) {
+            categories.remove(normalized);
+            keys(indexed.text).forEach(key -> trie.remove(key, indexed.id()));
+        } else {
+            keys(indexed.text).forEach(key -> trie.put(key, indexed.entry()));
+        }
+    }
+
+    private static boolean sameCategory(String a, String b) {
+        return normalize(a).equals(normalize(b));
+    }
+
+    // The text from each of its first few word starts to the end, e.g. "apple iphone 13", "iphone 13", "13"
+    private static List<String> keys(String text) {
+        List<String> tokens = SearchTokenizer.tokenize(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < Math.min(tokens.size(), MAX_WORD_STARTS); i++) {
+            keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return String.join(" ", SearchTokenizer.tokenize(text));
+    }
+
+    private static final class IndexedName {
+        final Long productId;
+        final String text;
+        final String category;
+        final long sold;
+
+        IndexedName(Long productId, String text, String category, long sold) {
+            this.productId = productId;
+            this.text = text != null ? text : "";
+            this.category = category;
+            this.sold = sold;
+        }
+
+        String id() {
+            return "p:" + productId;
+        }
+
+        SuggestionTrie.Entry entry() {
+            return new SuggestionTrie.Entry(id(), text, "product", productId, 1 + sold);
+        }
+    }
+
+    private static final class IndexedCategory {
+        final String text;
+        int count;
+
+        IndexedCategory(String text, int count) {
+            this.text = text;
+            this.count = count;
+        }
+
+        String id() {
+            return "c:" + normalize(text);
+        }
+
+        SuggestionTrie.Entry entry() {
+            return new SuggestionTrie.Entry(id(), text, "category", null, count);
+        }
+    }
+}
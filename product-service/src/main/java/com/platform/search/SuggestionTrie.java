@@ -0,0 +1,370 @@
+package com.platform.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Persistent compressed prefix trie (radix tree) for typeahead. Every node
+ * caches the best {@code topK} entries of its subtree, so a lookup is a walk
+ * down at most {@code prefix.length()} characters followed by an array copy,
+ * whatever the size of the catalog.
+ *
+ * Nodes are never mutated: an update copies the path from the root to the
+ * changed node (recomputing the cached top entries on the way) and publishes
+ * the new root, so readers need no locking. Writers must be serialized by the
+ * caller.
+ */
+final class SuggestionTrie {
+
+    static final Comparator<Entry> BEST_FIRST = Comparator
+            .comparingLong(Entry::weight).reversed()
+            .thenComparing(Entry::text)
+            .thenComparing(Entry::id);
+
+    /**
+     * A suggestion stored under one or more keys. {@code id} identifies it
+     * across keys and updates.
+     */
+    record Entry(String id, String text, String type, Long productId, long weight) {
+    }
+
+    record KeyedEntry(String key, Entry entry) {
+    }
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private final int topK;
+    private volatile Node root;
+
+    SuggestionTrie(int topK) {
+        this.topK = topK;
+        this.root = new Node("", NO_CHILDREN, NO_ENTRIES, NO_ENTRIES);
+    }
+
+    /**
+     * Best entries whose key starts with {@code prefix}, at most {@code limit}
+     * (and never more than topK).
+     */
+    List<Entry> complete(String prefix, int limit) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            Node child = node.child(prefix.charAt(pos));
+            if (child == null) {
+                return List.of();
+            }
+            int common = commonPrefix(child.label, prefix, pos);
+            if (pos + common == prefix.length()) {
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return List.of();
+            }
+            node = child;
+            pos += common;
+        }
+        Entry[] top = node.top;
+        return Arrays.asList(top).subList(0, Math.min(limit, top.length));
+    }
+
+    // Replaces the whole trie, e.g. on startup; cheaper than putting entries one by one
+    void rebuild(List<KeyedEntry> entries) {
+        List<KeyedEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(KeyedEntry::key));
+        root = build("", sorted, 0, sorted.size(), 0);
+    }
+
+    // Adds {@code entry} under {@code key}, replacing an entry with the same id there
+    void put(String key, Entry entry) {
+        root = put(root, key, 0, entry);
+    }
+
+    void remove(String key, String id) {
+        Node updated = remove(root, key, 0, id);
+        if (updated != null) {
+            root = updated;
+        }
+    }
+
+    int nodeCount() {
+        return count(root);
+    }
+
+    private Node build(String label, List<KeyedEntry> sorted, int from, int to, int depth) {
+        List<Entry> entries = new ArrayList<>();
+        int i = from;
+        while (i < to && sorted.get(i).key().length() == depth) {
+            entries.add(sorted.get(i++).entry());
+        }
+        List<Node> children = new ArrayList<>();
+        while (i < to) {
+            char c = sorted.get(i).key().charAt(depth);
+            int end = i + 1;
+            while (end < to && sorted.get(end).key().charAt(depth) == c) {
+                end++;
+            }
+            // Keys are sorted, so the first and last key of the group share the group's common prefix
+            String first = sorted.get(i).key();
+            int common = depth + commonPrefix(first.substring(depth), sorted.get(end - 1).key(), depth);
+            children.add(build(first.substring(depth, common), sorted, i, end, common));
+            i = end;
+        }
+        return node(label, children.toArray(NO_CHILDREN), dedupe(entries));
+    }
+
+    private Node put(Node node, String key, int pos, Entry entry) {
+        if (pos == key.length()) {
+            Entry[] entries = withEntry(node.entries, entry);
+            return node(node.label, node.children, entries, topWith(node.top, entry, node.children, entries));
+        }
+        int index = node.childIndex(key.charAt(pos));
+        Node[] children;
+        if (index < 0) {
+            Node leaf = node(key.substring(pos), NO_CHILDREN, new Entry[]{entry}, new Entry[]{entry});
+            children = insertChild(node.children, -index - 1, leaf);
+        } else {
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, pos);
+            if (common < child.label.length()) {
+                // Split the edge: a new node for the shared part, the old child below it
+                Node lower = node(child.label.substring(common), child.children, child.entries, child.top);
+                child = node(child.label.substring(0, common), new Node[]{lower}, NO_ENTRIES, lower.top);
+            }
+            children = replaceChild(node.children, index, put(child, key, pos + common, entry));
+        }
+        return node(node.label, children, node.entries, topWith(node.top, entry, children, node.entries));
+    }
+
+    // Returns null when there was nothing to remove
+    private Node remove(Node node, String key, int pos, String id) {
+        if (pos == key.length()) {
+            Entry[] entries = withoutEntry(node.entries, id);
+            return entries == node.entries ? null : node(node.label, node.children, entries);
+        }
+        int index = node.childIndex(key.charAt(pos));
+        if (index < 0) {
+            return null;
+        }
+        Node child = node.children[index];
+        int common = commonPrefix(child.label, key, pos);
+        if (common < child.label.length()) {
+            return null;
+        }
+        Node updated = remove(child, key, pos + common, id);
+        if (updated == null) {
+            return null;
+        }
+        Node[] children;
+        if (updated.entries.length == 0 && updated.children.length == 0) {
+            children = removeChild(node.children, index);
+        } else if (updated.entries.length == 0 && updated.children.length == 1) {
+            // Keep the trie compressed: fold a pass-through node into its only child
+            Node only = updated.children[0];
+            children = replaceChild(node.children, index,
+                    node(updated.label + only.label, only.children, only.entries, only.top));
+        } else {
+            children = replaceChild(node.children, index, updated);
+        }
+        return node(node.label, children, node.entries);
+    }
+
+    private Node node(String label, Node[] children, Entry[] entries) {
+        return node(label, children, entries, top(children, entries));
+    }
+
+    private static Node node(String label, Node[] children, Entry[] entries, Entry[] top) {
+        return new Node(label, children, entries, top);
+    }
+
+    /**
+     * Best entries of a subtree after {@code entry} was put somewhere in it.
+     * New entries and weight increases only need the previous best list
+     * patched; only a lowered weight needs the full merge.
+     */
+    private Entry[] topWith(Entry[] top, Entry entry, Node[] children, Entry[] entries) {
+        int existing = -1;
+        for (int i = 0; i < top.length; i++) {
+            if (top[i].id().equals(entry.id())) {
+                existing = i;
+                break;
+            }
+        }
+        Entry[] patched;
+        if (existing >= 0) {
+            if (entry.weight() < top[existing].weight()) {
+                return top(children, entries);
+            }
+            patched = top.clone();
+            patched[existing] = entry;
+        } else if (top.length < topK) {
+            patched = Arrays.copyOf(top, top.length + 1);
+            patched[top.length] = entry;
+        } else if (BEST_FIRST.compare(entry, top[top.length - 1]) < 0) {
+            patched = top.clone();
+            patched[top.length - 1] = entry;
+        } else {
+            return top;
+        }
+        Arrays.sort(patched, BEST_FIRST);
+        return patched;
+    }
+
+    // Best topK entries of a subtree: a k-way merge of its own entries and the (sorted) cached best of each child
+    private Entry[] top(Node[] children, Entry[] entries) {
+        Entry[] own = entries.clone();
+        Arrays.sort(own, BEST_FIRST);
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(children.length + 1, (a, b) -> BEST_FIRST.compare(a.head(), b.head()));
+        if (own.length > 0) {
+            heads.add(new Cursor(own));
+        }
+        for (Node child : children) {
+            if (child.top.length > 0) {
+                heads.add(new Cursor(child.top));
+            }
+        }
+        List<Entry> best = new ArrayList<>(topK);
+        Set<String> seen = new HashSet<>();
+        while (best.size() < topK && !heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            // An entry stored under several keys of the subtree shows up once, with its best weight first
+            if (seen.add(cursor.head().id())) {
+                best.add(cursor.head());
+            }
+            if (++cursor.position < cursor.entries.length) {
+                heads.add(cursor);
+            }
+        }
+        return best.toArray(NO_ENTRIES);
+    }
+
+    private static Entry[] dedupe(List<Entry> entries) {
+        Map<String, Entry> byId = new HashMap<>();
+        entries.forEach(entry -> byId.put(entry.id(), entry));
+        return byId.values().toArray(NO_ENTRIES);
+    }
+
+    private static Entry[] withEntry(Entry[] entries, Entry entry) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].id().equals(entry.id())) {
+                Entry[] copy = entries.clone();
+                copy[i] = entry;
+                return copy;
+            }
+        }
+        Entry[] copy = Arrays.copyOf(entries, entries.length + 1);
+        copy[entries.length] = entry;
+        return copy;
+    }
+
+    // Same array instance when the id is not there
+    private static Entry[] withoutEntry(Entry[] entries, String id) {
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].id().equals(id)) {
+                Entry[] copy = new Entry[entries.length - 1];
+                System.arraycopy(entries, 0, copy, 0, i);
+                System.arraycopy(entries, i + 1, copy, i, entries.length - i - 1);
+                return copy;
+            }
+        }
+        return entries;
+    }
+
+    private static Node[] insertChild(Node[] children, int index, Node child) {
+        Node[] copy = new Node[children.length + 1];
+        System.arraycopy(children, 0, copy, 0, index);
+        copy[index] = child;
+        System.arraycopy(children, index, copy, index + 1, children.length - index);
+        return copy;
+    }
+
+    private static Node[] replaceChild(Node[] children, int index, Node child) {
+        Node[] copy = children.clone();
+        copy[index] = child;
+        return copy;
+    }
+
+    private static Node[] removeChild(Node[] children, int index) {
+        Node[] copy = new Node[children.length - 1];
+        System.arraycopy(children, 0, copy, 0, index);
+        System.arraycopy(children, index + 1, copy, index, children.length - index - 1);
+        return copy;
+    }
+
+    // Length of the common prefix of {@code label} and {@code key} starting at {@code pos}
+    private static int commonPrefix(String label, String key, int pos) {
+        int max = Math.min(label.length(), key.length() - pos);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(pos + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int count(Node node) {
+        int count = 1;
+        for (Node child : node.children) {
+            count += count(child);
+        }
+        return count;
+    }
+
+    private static final class Cursor {
+        final Entry[] entries;
+        int position;
+
+        Cursor(Entry[] entries) {
+            this.entries = entries;
+        }
+
+        Entry head() {
+            return entries[position];
+        }
+    }
+
+    private static final class Node {
+        final String label;
+        // Sorted by the first character of their label, which is unique among siblings
+        final Node[] children;
+        final Entry[] entries;
+        final Entry[] top;
+
+        Node(String label, Node[] children, Entry[] entries, Entry[] top) {
+            this.label = label;
+            this.children = children;
+            this.entries = entries;
+            this.top = top;
+        }
+
+        Node child(char c) {
+            int index = childIndex(c);
+            return index >= 0 ? children[index] : null;
+        }
+
+        // Binary search on the first label character; -(insertion point) - 1 when absent
+        int childIndex(char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label.charAt(0);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.platform.search;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Character trigram index over the search vocabulary (the indexed terms, not
+ * the products), used to find the terms a misspelled query token was meant to
+ * be. Terms are padded with '$' so the first and last letters get trigrams of
+ * their own: "phone" -> $ph, pho, hon, one, ne$.
+ *
+ * Candidates must share enough trigrams with the token to possibly be within
+ * the allowed distance (one edit breaks at most three trigrams, a swap of two
+ * letters four) and are then confirmed with a bounded edit distance, so the
+ * expensive comparison only runs on a handful of terms.
+ *
+ * Writes are serialized by ProductSearchIndex; reads need no locking.
+ */
+final class TrigramIndex {
+
+    private static final char PAD = '$';
+
+    private final Map<String, Set<String>> postings = new ConcurrentHashMap<>();
+
+    void add(String term) {
+        for (String trigram : trigrams(term)) {
+            postings.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(term);
+        }
+    }
+
+    void remove(String term) {
+        for (String trigram : trigrams(term)) {
+            postings.computeIfPresent(trigram, (t, terms) -> {
+                terms.remove(term);
+                return terms.isEmpty() ? null : terms;
+            });
+        }
+    }
+
+    /**
+     * Terms within {@code maxDistance} edits of {@code token} (insertions,
+     * deletions, substitutions and swaps of adjacent letters), with their
+     * distance. The token itself is included at distance 0 when indexed.
+     */
+    Map<String, Integer> similar(String token, int maxDistance) {
+        Set<String> grams = trigrams(token);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : grams) {
+            Set<String> terms = postings.get(trigram);
+            if (terms != null) {
+                for (String term : terms) {
+                    shared.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        int minShared = Math.max(1, grams.size() - 4 * maxDistance);
+        Map<String, Integer> matches = new HashMap<>();
+        for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+            String term = candidate.getKey();
+            if (candidate.getValue() < minShared || Math.abs(term.length() - token.length()) > maxDistance) {
+                continue;
+            }
+            int distance = distance(token, term, maxDistance);
+            if (distance <= maxDistance) {
+                matches.put(term, distance);
+            }
+        }
+        return matches;
+    }
+
+    int size() {
+        return postings.size();
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent swaps),
+     * giving up with {@code max + 1} as soon as every path exceeds {@code max}.
+     */
+    static int distance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private static Set<String> trigrams(String term) {
+        String padded = PAD + term + PAD;
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+}
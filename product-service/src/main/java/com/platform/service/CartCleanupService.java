@@ -0,0 +1,120 @@
+package com.platform.service;
+
+import com.platform.entity.CartCleanupTask;
+import com.platform.feign.CartClient;
+import com.platform.model.ProductSummary;
+import com.platform.repository.CartCleanupTaskRepository;
+import com.platform.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox for removing products from carts.
+ *
+ * Catalog writes only record a task row in their own transaction; a scheduled
+ * relay delivers due tasks to cart-service in batches and retries failures
+ * with exponential backoff, so a slow or unavailable cart-service never holds
+ * up or fails an admin request. Delivery is at-least-once: removing a product
+ * from carts twice is harmless.
+ */
+@Service
+public class CartCleanupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartCleanupService.class);
+
+    @Autowired
+    private CartCleanupTaskRepository cartCleanupTaskRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartClient cartClient;
+
+    @Value("${product.cart-cleanup.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${product.cart-cleanup.retry-initial-ms:5000}")
+    private long retryInitialMillis = 5000;
+
+    @Value("${product.cart-cleanup.retry-max-ms:600000}")
+    private long retryMaxMillis = 600000;
+
+    // Joins the caller's transaction, so the task exists exactly when the product change commits
+    public void enqueue(Long productId, String reason) {
+        LocalDateTime now = LocalDateTime.now();
+        CartCleanupTask task = new CartCleanupTask();
+        task.setProductId(productId);
+        task.setReason(reason);
+        task.setCreatedAt(now);
+        task.setNextAttemptAt(now);
+        cartCleanupTaskRepository.save(task);
+        logger.info("Queued cart cleanup for product ID: {} ({})", productId, reason);
+    }
+
+    @Scheduled(fixedDelayString = "${product.cart-cleanup.relay-interval-ms:2000}")
+    public void relay() {
+        List<CartCleanupTask> due;
+        do {
+            due = cartCleanupTaskRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(
+                    LocalDateTime.now(), PageRequest.of(0, batchSize));
+        } while (!due.isEmpty() && deliver(due) && due.size() == batchSize);
+    }
+
+    // Sends one batch to cart-service; returns false when it has to be retried later
+    private boolean deliver(List<CartCleanupTask> tasks) {
+        Set<Long> restocked = restocked(tasks);
+        List<Long> productIds = tasks.stream()
+                .filter(task -> !(CartCleanupTask.OUT_OF_STOCK.equals(task.getReason()) && restocked.contains(task.getProductId())))
+                .map(CartCleanupTask::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        try {
+            if (!productIds.isEmpty()) {
+                cartClient.deleteCartItemsByProductIds(productIds);
+            }
+            cartCleanupTaskRepository.deleteAllInBatch(tasks);
+            logger.info("Removed {} products from carts ({} tasks)", productIds.size(), tasks.size());
+            return true;
+        } catch (Exception e) {
+            LocalDateTime now = LocalDateTime.now();
+            for (CartCleanupTask task : tasks) {
+                task.setAttempts(task.getAttempts() + 1);
+                task.setNextAttemptAt(now.plusNanos(backoffMillis(task.getAttempts()) * 1_000_000));
+            }
+            cartCleanupTaskRepository.saveAll(tasks);
+            logger.warn("Cart cleanup for {} products failed, retrying later: {}", productIds.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    // An out-of-stock cleanup is stale once the product is back in stock
+    private Set<Long> restocked(List<CartCleanupTask> tasks) {
+        List<Long> outOfStock = tasks.stream()
+                .filter(task -> CartCleanupTask.OUT_OF_STOCK.equals(task.getReason()))
+                .map(CartCleanupTask::getProductId)
+                .distinct()
+                .collect(Collectors.toList());
+        if (outOfStock.isEmpty()) {
+            return Set.of();
+        }
+        return productRepository.findSummariesByIdIn(outOfStock).stream()
+                .filter(product -> product.getStockQuantity() > 0)
+                .map(ProductSummary::getProductId)
+                .collect(Collectors.toSet());
+    }
+
+    long backoffMillis(int attempts) {
+        return Math.min(retryMaxMillis, retryInitialMillis << Math.min(attempts - 1, 20));
+    }
+}
@@ -0,0 +1,128 @@
+package com.platform.service;
+
+import com.platform.entity.LowStockAlert;
+import com.platform.entity.Product;
+import com.platform.event.ProductChangedEvent;
+import com.platform.event.ProductsImportedEvent;
+import com.platform.feign.NotificationClient;
+import com.platform.model.LowStockItem;
+import com.platform.repository.LowStockAlertRepository;
+import com.platform.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Low-stock alerts for the admin.
+ *
+ * Every stock change checks only the products it touched: a product that
+ * drops to its threshold is flagged on its row and queued in the
+ * low_stock_alert outbox, in the same transaction as the change, and is not
+ * queued again until its stock has risen back above the threshold. A
+ * scheduled job sends everything queued since the last run as one
+ * notification, so a flash sale produces one email rather than one per
+ * order.
+ */
+@Service
+public class LowStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private LowStockAlertRepository lowStockAlertRepository;
+
+    @Autowired
+    private NotificationClient notificationClient;
+
+    @Value("${product.low-stock.default-threshold:5}")
+    private int defaultThreshold = 5;
+
+    @Value("${product.low-stock.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${admin.email:admin@ecommerce.com}")
+    private String adminEmail;
+
+    // Synchronous, so the flag and the outbox row commit or roll back with the stock change
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getType()) {
+            case SAVED -> check(List.of(event.getProductId()), true, true);
+            case STOCK_CHANGED -> check(List.of(event.getProductId()), event.getStockDelta() < 0, event.getStockDelta() > 0);
+            case DELETED -> { }
+        }
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        check(event.getProducts().stream().map(Product::getProductId).collect(Collectors.toList()), true, true);
+    }
+
+    private void check(Collection<Long> productIds, boolean fell, boolean rose) {
+        if (rose) {
+            productRepository.rearmLowStockAlerts(productIds, defaultThreshold);
+        }
+        if (!fell) {
+            return;
+        }
+        List<Long> low = productRepository.findNewlyLowStock(productIds, defaultThreshold);
+        if (low.isEmpty()) {
+            return;
+        }
+        productRepository.markLowStockAlerted(low);
+        LocalDateTime now = LocalDateTime.now();
+        lowStockAlertRepository.saveAll(low.stream().map(id -> new LowStockAlert(id, now)).collect(Collectors.toList()));
+        logger.info("Queued low-stock alert for product IDs: {}", low);
+    }
+
+    @Scheduled(fixedDelayString = "${product.low-stock.flush-interval-ms:60000}",
+            initialDelayString = "${product.low-stock.flush-interval-ms:60000}")
+    public void sendAlerts() {
+        List<LowStockAlert> pending;
+        do {
+            pending = lowStockAlertRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        } while (!pending.isEmpty() && send(pending) && pending.size() == batchSize);
+    }
+
+    // Sends one notification for the batch; returns false when it has to be retried on the next run
+    private boolean send(List<LowStockAlert> alerts) {
+        List<Long> productIds = alerts.stream().map(LowStockAlert::getProductId).distinct().collect(Collectors.toList());
+        // Current stock, not the stock at the time of the alert; products restocked or deleted meanwhile are left out
+        List<LowStockItem> items = productRepository.findAllById(productIds).stream()
+                .map(product -> new LowStockItem(product.getProductId(), product.getName(), product.getStockQuantity(), threshold(product)))
+                .filter(item -> item.getCurrentStock() <= item.getThreshold())
+                .sorted(Comparator.comparingInt(LowStockItem::getCurrentStock).thenComparing(LowStockItem::getProductId))
+                .collect(Collectors.toList());
+        try {
+            if (items.size() == 1) {
+                notificationClient.sendLowStockAlert(adminEmail, items.get(0).getProductName(), items.get(0).getCurrentStock());
+            } else if (!items.isEmpty()) {
+                notificationClient.sendLowStockDigest(adminEmail, items);
+            }
+            lowStockAlertRepository.deleteAllInBatch(alerts);
+            logger.info("Sent low-stock alert for {} products ({} queued)", items.size(), alerts.size());
+            return true;
+        } catch (Exception e) {
+            logger.warn("Sending low-stock alert for {} products failed, retrying on the next run: {}", items.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private int threshold(Product product) {
+        return product.getLowStockThreshold() != null ? product.getLowStockThreshold() : defaultThreshold;
+    }
+}
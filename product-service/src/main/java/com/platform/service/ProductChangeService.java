@@ -0,0 +1,179 @@
+package com.platform.service;
+
+import com.platform.entity.Product;
+import com.platform.entity.ProductChange;
+import com.platform.event.ProductChangedEvent;
+import com.platform.event.ProductsImportedEvent;
+import com.platform.model.ProductChangeFeed;
+import com.platform.repository.ProductChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Catalog change log behind GET /products/changes.
+ *
+ * Changes are recorded with a plain (synchronous) @EventListener, so the log
+ * row is written in the same transaction as the product mutation and commits
+ * or rolls back with it.
+ *
+ * Versions are assigned at insert but transactions commit in any order, so a
+ * reader can see version v+1 before v. The feed returns every change it can
+ * see, but its resume position never moves past a missing version until the
+ * change after the gap is older than product.changes.gap-timeout-ms; by then
+ * the missing version has committed or was rolled back. Changes above a gap
+ * are returned again until the gap closes, so consumers apply them
+ * idempotently. Rows older than product.changes.retention-days are pruned.
+ */
+@Service
+public class ProductChangeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeService.class);
+
+    // Versions below the latest whose late commit still changes the catalog tag
+    private static final long CATALOG_TAG_WINDOW = 1000;
+
+    private static final String INSERT_SAVED_SQL = "INSERT INTO product_change "
+            + "(product_id, change_type, stock_delta, changed_at) VALUES (?, 'SAVED', 0, ?)";
+
+    @Autowired
+    private ProductChangeRepository productChangeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${product.changes.max-batch-size:500}")
+    private int maxBatchSize = 500;
+
+    // Longer than any transaction writing the log can stay open
+    @Value("${product.changes.gap-timeout-ms:120000}")
+    private long gapTimeoutMillis = 120000;
+
+    @Value("${product.changes.retention-days:7}")
+    private long retentionDays = 7;
+
+    @Value("${product.changes.prune-batch-size:5000}")
+    private int pruneBatchSize = 5000;
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        ProductChange change = new ProductChange();
+        change.setProductId(event.getProductId());
+        change.setChangeType(event.getType().name());
+        change.setStockDelta(event.getStockDelta());
+        change.setChangedAt(LocalDateTime.now());
+        productChangeRepository.save(change);
+    }
+
+    // An import batch is logged with one batched insert rather than a save per product
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Product> products = event.getProducts();
+        jdbcTemplate.batchUpdate(INSERT_SAVED_SQL, products, products.size(), (ps, product) -> {
+            ps.setLong(1, product.getProductId());
+            ps.setTimestamp(2, now);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public ProductChangeFeed getChangesSince(long since, int limit) {
+        logger.info("Getting catalog changes since version: {} (limit {})", since, limit);
+        int batchSize = Math.max(1, Math.min(limit, maxBatchSize));
+        List<ProductChange> changes = productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(
+                since, PageRequest.of(0, batchSize + 1));
+        boolean more = changes.size() > batchSize;
+        if (more) {
+            changes = changes.subList(0, batchSize);
+        }
+        long version = resumePosition(since, changes, gapsExpireBefore());
+        // Held back at a gap, the same changes would come back at once: wait for the next poll instead
+        boolean hasMore = more && version == changes.get(changes.size() - 1).getVersion();
+        return new ProductChangeFeed(changes, version, hasMore);
+    }
+
+    /**
+     * Identifies the committed catalog for conditional GETs: the latest
+     * committed version, and how many of the versions just below it have
+     * committed, so a lower version committing after a higher one changes it
+     * too. Unlike the feed position it never waits on a gap, which a
+     * rolled-back write leaves for good.
+     */
+    @Transactional(readOnly = true)
+    public String getCatalogTag() {
+        long latest = productChangeRepository.findLatestVersion();
+        long recent = productChangeRepository.countByVersionGreaterThan(latest - CATALOG_TAG_WINDOW);
+        return latest + "." + recent;
+    }
+
+    /**
+     * The position a new consumer starts from: the latest version with no
+     * missing version below it that may still commit.
+     */
+    @Transactional(readOnly = true)
+    public long getCurrentVersion() {
+        LocalDateTime gapsExpireBefore = gapsExpireBefore();
+        // Every gap up to the last change older than the timeout has expired
+        long version = productChangeRepository.findLatestVersionBefore(gapsExpireBefore);
+        List<ProductChange> recent;
+        do {
+            recent = productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(version, PageRequest.of(0, maxBatchSize));
+            long position = resumePosition(version, recent, gapsExpireBefore);
+            if (recent.isEmpty() || position != recent.get(recent.size() - 1).getVersion()) {
+                return position;
+            }
+            version = position;
+        } while (recent.size() == maxBatchSize);
+        return version;
+    }
+
+    // Deletes the log rows older than the retention period, a version range at a time
+    @Scheduled(initialDelayString = "${product.changes.prune-interval-ms:3600000}",
+            fixedDelayString = "${product.changes.prune-interval-ms:3600000}")
+    public void pruneChanges() {
+        try {
+            long upTo = productChangeRepository.findLatestVersionBefore(LocalDateTime.now().minusDays(retentionDays));
+            long from = productChangeRepository.findOldestVersion();
+            int removed = 0;
+            while (from > 0 && from <= upTo) {
+                long to = Math.min(upTo, from + pruneBatchSize - 1);
+                removed += productChangeRepository.deleteVersionRange(from, to);
+                from = to + 1;
+            }
+            if (removed > 0) {
+                logger.info("Pruned {} catalog changes older than {} days", removed, retentionDays);
+            }
+        } catch (Exception e) {
+            // The next run picks up where this one stopped
+            logger.error("Pruning catalog changes failed", e);
+        }
+    }
+
+    // How far a reader can move past {@code since} through {@code changes} (ascending): up to the first
+    // missing version whose successor is recent enough that the missing one may still commit
+    private static long resumePosition(long since, List<ProductChange> changes, LocalDateTime gapsExpireBefore) {
+        long position = since;
+        for (ProductChange change : changes) {
+            if (change.getVersion() != position + 1 && change.getChangedAt().isAfter(gapsExpireBefore)) {
+                break;
+            }
+            position = change.getVersion();
+        }
+        return position;
+    }
+
+    private LocalDateTime gapsExpireBefore() {
+        return LocalDateTime.now().minusNanos(gapTimeoutMillis * 1_000_000);
+    }
+}
@@ -0,0 +1,244 @@
+package com.platform.service;
+
+import com.platform.config.CacheConfig;
+import com.platform.entity.Product;
+import com.platform.event.ProductsImportedEvent;
+import com.platform.importer.ImportRow;
+import com.platform.importer.ProductRowReader;
+import com.platform.model.ProductImportStatus;
+import com.platform.stock.HotStockCounters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Streaming catalog import behind POST /products/import.
+ *
+ * Rows are read one at a time and written with plain JDBC batches: Product ids
+ * are IDENTITY columns, which stops Hibernate from batching inserts, so going
+ * through saveAll costs one round trip per row. Each batch commits on its own;
+ * when a batch fails it is retried row by row so only the offending rows are
+ * rejected. Rows with a productId update that product, all others are inserted.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO product "
+            + "(name, description, price, category, image_url, stock_quantity, low_stock_threshold, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+    // The price version is compared first, before price is assigned (MySQL assigns left to right)
+    private static final String UPDATE_SQL = "UPDATE product SET price_version = price_version + CASE WHEN price = ? THEN 0 ELSE 1 END, "
+            + "name = ?, description = ?, price = ?, category = ?, "
+            + "image_url = ?, stock_quantity = ?, low_stock_threshold = ?, version = version + 1 WHERE product_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Value("${product.import.batch-size:500}")
+    private int batchSize = 500;
+
+    /**
+     * Imports every row of {@code reader}. Rejected rows and a progress line per
+     * written batch are passed to {@code listener} as they happen; the final
+     * totals are returned.
+     */
+    public ProductImportStatus importProducts(ProductRowReader reader, Consumer<ProductImportStatus> listener) throws IOException {
+        long start = System.currentTimeMillis();
+        long processed = 0;
+        long imported = 0;
+        long failed = 0;
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            processed++;
+            String error = row.isFailed() ? row.getError() : validate(row.getProduct());
+            if (error != null) {
+                failed++;
+                listener.accept(ProductImportStatus.error(row.getLine(), error));
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                int written = write(batch, listener);
+                imported += written;
+                failed += batch.size() - written;
+                batch.clear();
+                listener.accept(ProductImportStatus.totals("progress", processed, imported, failed));
+            }
+        }
+        if (!batch.isEmpty()) {
+            int written = write(batch, listener);
+            imported += written;
+            failed += batch.size() - written;
+        }
+        logger.info("Product import finished: {} rows, {} imported, {} failed in {} ms",
+                processed, imported, failed, System.currentTimeMillis() - start);
+        return ProductImportStatus.totals("done", processed, imported, failed);
+    }
+
+    // Writes the batch in one transaction, falling back to one transaction per row if it fails
+    private int write(List<ImportRow> rows, Consumer<ProductImportStatus> listener) {
+        List<Product> products = rows.stream().map(ImportRow::getProduct).collect(Collectors.toList());
+        try {
+            writeBatch(products);
+            return rows.size();
+        } catch (RuntimeException e) {
+            logger.warn("Import batch of {} rows failed, retrying row by row: {}", rows.size(), e.getMessage());
+        }
+        int written = 0;
+        for (ImportRow row : rows) {
+            try {
+                writeBatch(List.of(row.getProduct()));
+                written++;
+            } catch (RuntimeException e) {
+                listener.accept(ProductImportStatus.error(row.getLine(), rootMessage(e)));
+            }
+        }
+        return written;
+    }
+
+    private void writeBatch(List<Product> products) {
+        List<Product> updates = products.stream().filter(p -> p.getProductId() != null).collect(Collectors.toList());
+        List<Product> inserts = products.stream().filter(p -> p.getProductId() == null).collect(Collectors.toList());
+        // Unsold hot-SKU units go back to the row before the import overwrites its stock
+        updates.forEach(p -> hotStockCounters.drain(p.getProductId()));
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                update(updates);
+                insert(inserts);
+                eventPublisher.publishEvent(new ProductsImportedEvent(products));
+            });
+        } catch (RuntimeException e) {
+            // Keys handed out by a rolled-back insert are not real, the rows get inserted again on retry
+            inserts.forEach(p -> p.setProductId(null));
+            throw e;
+        }
+        evictCaches();
+    }
+
+    private void update(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Product product = products.get(i);
+                ps.setDouble(1, product.getPrice());
+                bind(ps, product, 2);
+                ps.setLong(9, product.getProductId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return products.size();
+            }
+        });
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new RuntimeException("Product not found with ID: " + products.get(i).getProductId());
+            }
+        }
+    }
+
+    private void insert(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Product product : products) {
+                    bind(ps, product, 1);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Product product : products) {
+                        if (!keys.next()) {
+                            throw new SQLException("Missing generated key for imported product " + product.getName());
+                        }
+                        product.setProductId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    // The seven product columns, from parameter {@code first} on
+    private static void bind(PreparedStatement ps, Product product, int first) throws SQLException {
+        ps.setString(first, product.getName());
+        ps.setString(first + 1, product.getDescription());
+        ps.setDouble(first + 2, product.getPrice());
+        ps.setString(first + 3, product.getCategory());
+        ps.setString(first + 4, product.getImageUrl());
+        ps.setInt(first + 5, product.getStockQuantity());
+        ps.setObject(first + 6, product.getLowStockThreshold(), Types.INTEGER);
+    }
+
+    private static String validate(Product product) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            return "Product name is required";
+        }
+        if (product.getPrice() == null || product.getPrice() < 0) {
+            return "Price must be zero or more";
+        }
+        if (product.getStockQuantity() < 0) {
+            return "Stock quantity must be zero or more";
+        }
+        if (product.getLowStockThreshold() != null && product.getLowStockThreshold() < 0) {
+            return "Low-stock threshold must be zero or more";
+        }
+        return null;
+    }
+
+    private void evictCaches() {
+        for (String name : List.of(CacheConfig.PRODUCTS_CACHE, CacheConfig.PRODUCT_LIST_CACHE)) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        while (e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e.getMessage();
+    }
+}
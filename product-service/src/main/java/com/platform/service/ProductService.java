@@ -1,14 +1,51 @@
 package com.platform.service;
 
+import com.platform.config.CacheConfig;
+import com.platform.entity.CartCleanupTask;
 import com.platform.entity.Product;
+import com.platform.event.ProductChangedEvent;
 import com.platform.repository.ProductRepository;
-import com.platform.feign.CartClient;
+import com.platform.model.ProductFacets;
+import com.platform.model.ProductPage;
+import com.platform.model.ProductSearchResult;
+import com.platform.model.ProductSuggestion;
+import com.platform.model.ProductSummary;
+import com.platform.model.StockUpdateRequest;
+import com.platform.search.IndexedProduct;
+import com.platform.search.ProductSearchIndex;
+import com.platform.search.ProductSort;
+import com.platform.search.SearchHit;
+import com.platform.search.SuggestionIndex;
+import com.platform.snapshot.CatalogSnapshotService;
+import com.platform.stock.HotStockCounters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductService {
@@ -19,16 +56,49 @@ public class ProductService {
     private ProductRepository productRepository;
 
     @Autowired
-    private CartClient cartClient;
+    private CartCleanupService cartCleanupService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private SuggestionIndex suggestionIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private HotStockCounters hotStockCounters;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    private static final int MAX_SEARCH_RESULTS = 200;
+
+    @Value("${product.pagination.max-page-size:100}")
+    private int maxPageSize = 100;
+
+    @Cacheable(CacheConfig.PRODUCT_LIST_CACHE)
     public List<Product> getAllProducts() {
         logger.info("Getting all products");
         return productRepository.findAll();
     }
 
+    @Cacheable(value = CacheConfig.PRODUCTS_CACHE, key = "#id")
     public Product getProductById(Long id) {
         logger.info("Getting product by ID: {}", id);
         try {
+            // Warm start: unchanged products are read from the mapped snapshot
+            Product snapshotted = catalogSnapshotService.find(id);
+            if (snapshotted != null) {
+                return snapshotted;
+            }
             return productRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
         } catch (Exception e) {
@@ -37,22 +107,55 @@ public class ProductService {
         }
     }
 
+    // Batch lookup for cart/order hydration; one query for the whole id list
+    public List<Product> getProductsByIds(List<Long> ids) {
+        logger.info("Getting {} products by ID", ids.size());
+        List<Product> products = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Product snapshotted = catalogSnapshotService.find(id);
+            if (snapshotted != null) {
+                products.add(snapshotted);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            products.addAll(productRepository.findAllById(missing));
+        }
+        return products;
+    }
+
+    @Caching(
+        put = @CachePut(value = CacheConfig.PRODUCTS_CACHE, key = "#result.productId"),
+        evict = @CacheEvict(value = CacheConfig.PRODUCT_LIST_CACHE, allEntries = true)
+    )
+    @Transactional
     public Product saveProduct(Product product) {
         logger.info("Saving product: {}", product.getName());
         try {
-            return productRepository.save(product);
+            Product saved = productRepository.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+            return saved;
         } catch (Exception e) {
             logger.error("Save product failed for product: {}", product.getName(), e);
             throw e;
         }
     }
 
+    @Caching(evict = {
+        @CacheEvict(value = CacheConfig.PRODUCTS_CACHE, key = "#id"),
+        @CacheEvict(value = CacheConfig.PRODUCT_LIST_CACHE, allEntries = true)
+    })
+    @Transactional
     public void deleteProduct(Long id) {
         logger.info("Deleting product with ID: {}", id);
         try {
-            // Remove product from all carts before deleting
-            cartClient.deleteCartItemsByProductId(id);
+            hotStockCounters.drain(id);
             productRepository.deleteById(id);
+            // Carts are cleaned up asynchronously once this commits
+            cartCleanupService.enqueue(id, CartCleanupTask.DELETED);
+            eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
             logger.info("Product deleted successfully: {}", id);
         } catch (Exception e) {
             logger.error("Delete product failed for ID: {}", id, e);
@@ -60,27 +163,36 @@ public class ProductService {
         }
     }
 
+    @Caching(
+        put = @CachePut(value = CacheConfig.PRODUCTS_CACHE, key = "#id", unless = "#result == null"),
+        evict = @CacheEvict(value = CacheConfig.PRODUCT_LIST_CACHE, allEntries = true)
+    )
+    @Transactional
     public Product updateProduct(Long id, Product productDetails) {
         logger.info("Updating product with ID: {}", id);
         try {
+            // Units held by hot-stock counters go back to the row before it is overwritten
+            hotStockCounters.drain(id);
             Product product = productRepository.findById(id).orElse(null);
             if (product != null) {
-                product.setName(productDetails.getName());
-                product.setDescription(productDetails.getDescription());
-                product.setPrice(productDetails.getPrice());
-                product.setCategory(productDetails.getCategory());
-                product.setImageUrl(productDetails.getImageUrl());
-                product.setStockQuantity(productDetails.getStockQuantity());
+                boolean repriced = !Objects.equals(product.getPrice(), productDetails.getPrice());
+                copyDetails(product, productDetails);
                 // Ensure stock quantity is not negative
                 if (product.getStockQuantity() < 0) {
                     throw new RuntimeException("Stock quantity cannot be negative");
                 }
                 // Remove from all carts if stock is zero
                 if (product.getStockQuantity() == 0) {
-                    cartClient.deleteCartItemsByProductId(product.getProductId());
+                    cartCleanupService.enqueue(product.getProductId(), CartCleanupTask.OUT_OF_STOCK);
                 }
+                Product saved = productRepository.save(product);
+                if (repriced) {
+                    productRepository.bumpPriceVersion(List.of(id));
+                    saved.setPriceVersion(saved.getPriceVersion() + 1);
+                }
+                eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
                 logger.info("Product updated successfully: {}", id);
-                return productRepository.save(product);
+                return saved;
             }
             return null;
         } catch (Exception e) {
@@ -94,40 +206,159 @@ public class ProductService {
         return productRepository.findByCategory(category);
     }
 
+    @Caching(evict = {
+        @CacheEvict(value = CacheConfig.PRODUCTS_CACHE, key = "#productId"),
+        @CacheEvict(value = CacheConfig.PRODUCT_LIST_CACHE, allEntries = true)
+    })
     public void updateStockQuantity(Long productId, int quantity) {
         logger.info("Updating stock quantity for product ID: {} with quantity: {}", productId, quantity);
         try {
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
-            
-            if (quantity <= 0) {
-                throw new RuntimeException("Quantity must be positive");
-            }
-            
-            if (product.getStockQuantity() < quantity) {
-                throw new RuntimeException(product.getName() + " is out of stock. Available: " + product.getStockQuantity() + ", Requested: " + quantity);
+            if (hotStockCounters.handles(productId)) {
+                takeHotStock(productId, quantity);
+            } else {
+                inTransaction(() -> decrementStock(productId, quantity));
             }
-            
-            int newStockQuantity = product.getStockQuantity() - quantity;
-            product.setStockQuantity(newStockQuantity);
-            productRepository.save(product);
-            
-            logger.info("Stock updated for product {} (ID: {}): {} -> {}", product.getName(), productId, (product.getStockQuantity() + quantity), newStockQuantity);
+            logger.info("Stock decremented for product ID: {} by {}", productId, quantity);
         } catch (Exception e) {
             logger.error("Update stock quantity failed for product ID: {} with quantity: {}", productId, quantity, e);
             throw e;
         }
     }
 
+    // Reserves stock for every line of an order in one transaction: either all
+    // decrements succeed or the whole reservation is rolled back. Hot products are
+    // taken from their in-memory counters first and given back if the rest fails
+    @CacheEvict(value = CacheConfig.PRODUCT_LIST_CACHE, allEntries = true)
+    public void reserveStock(List<StockUpdateRequest> items) {
+        logger.info("Reserving stock for {} order lines", items.size());
+        Map<Long, Integer> quantities = mergeLines(items);
+        Map<Long, Integer> hotTaken = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                if (hotStockCounters.handles(entry.getKey())) {
+                    takeHotStock(entry.getKey(), entry.getValue());
+                    hotTaken.put(entry.getKey(), entry.getValue());
+                }
+            }
+            inTransaction(() -> {
+                for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                    if (!hotTaken.containsKey(entry.getKey())) {
+                        decrementStock(entry.getKey(), entry.getValue());
+                    }
+                }
+            });
+            logger.info("Stock reserved for {} products", quantities.size());
+        } catch (Exception e) {
+            hotTaken.forEach(hotStockCounters::release);
+            logger.error("Reserve stock failed for {} order lines", items.size(), e);
+            throw e;
+        } finally {
+            evictProducts(quantities.keySet());
+        }
+    }
+
+    // Gives stock back, e.g. when a stock hold is released or expires. Joins the
+    // caller's transaction when there is one
+    @CacheEvict(value = CacheConfig.PRODUCT_LIST_CACHE, allEntries = true)
+    public void releaseStock(List<StockUpdateRequest> items) {
+        logger.info("Releasing stock for {} lines", items.size());
+        Map<Long, Integer> quantities = mergeLines(items);
+        try {
+            inTransaction(() -> quantities.forEach((productId, quantity) -> {
+                if (quantity > 0 && productRepository.incrementStock(productId, quantity) == 1) {
+                    eventPublisher.publishEvent(ProductChangedEvent.stockChanged(productId, quantity));
+                }
+            }));
+        } catch (Exception e) {
+            logger.error("Release stock failed for {} lines", items.size(), e);
+            throw e;
+        } finally {
+            evictProducts(quantities.keySet());
+        }
+    }
+
+    // Merges duplicate lines; id order means concurrent reservations lock rows in the same order and cannot deadlock
+    private Map<Long, Integer> mergeLines(List<StockUpdateRequest> items) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (StockUpdateRequest item : items) {
+            if (item.getProductId() == null) {
+                throw new RuntimeException("Product id is required");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void evictProducts(Iterable<Long> productIds) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        if (cache != null) {
+            productIds.forEach(cache::evict);
+        }
+    }
+
+    private void decrementStock(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+        if (productRepository.decrementStock(productId, quantity) == 0) {
+            // Only the failure path pays for a read, to build a useful message
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+            throw new RuntimeException(product.getName() + " is out of stock. Available: " + product.getStockQuantity() + ", Requested: " + quantity);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(productId, -quantity));
+    }
+
+    // Hot products are decremented in memory without touching the row; the counters
+    // publish the stock change when they flush
+    private void takeHotStock(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive");
+        }
+        if (!hotStockCounters.tryDecrement(productId, quantity)) {
+            Product product = productRepository.findById(productId)
+                    .orElseThrow(() -> new RuntimeException("Product not found with id: " + productId));
+            int available = product.getStockQuantity() + hotStockCounters.available(productId);
+            throw new RuntimeException(product.getName() + " is out of stock. Available: " + available + ", Requested: " + quantity);
+        }
+    }
+
+    // Hot-stock routing has to happen outside the transaction, so stock updates
+    // open their own around the database part only
+    private void inTransaction(Runnable work) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> work.run());
+    }
+
     public long getProductCount() {
         logger.info("Getting product count");
         return productRepository.count();
     }
     
-    // Search products by name
-    public List<Product> searchProductsByName(String name) {
-        logger.info("Searching products by name: {}", name);
-        return productRepository.findByNameContainingIgnoreCase(name);
+    // Typeahead completions for product names and categories; never hits the database
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return new ArrayList<>();
+        }
+        return suggestionIndex.suggest(prefix, Math.max(1, limit));
+    }
+
+    // Search products by name, ranked by relevance
+    @Transactional(readOnly = true)
+    public List<ProductSummary> searchProductsByName(String name, int limit) {
+        return searchProductsByName(name, limit, false);
+    }
+
+    // Fuzzy search also matches misspellings ("iphnoe"); exact matches still rank first
+    @Transactional(readOnly = true)
+    public List<ProductSummary> searchProductsByName(String name, int limit, boolean fuzzy) {
+        logger.info("Searching products by name: {} (limit {}, fuzzy {})", name, limit, fuzzy);
+        int maxResults = clampLimit(limit);
+        if (!searchIndex.isReady()) {
+            return productRepository.findSummariesByNameContaining(name, PageRequest.of(0, maxResults));
+        }
+        return findAllInOrder(searchIndex.search(name, product -> true, maxResults, null, fuzzy).stream()
+                .map(SearchHit::getProductId)
+                .collect(Collectors.toList()));
     }
     
     // Get products by price range
@@ -148,19 +379,237 @@ public class ProductService {
         return productRepository.findByStockQuantityGreaterThan(0);
     }
     
-    // Advanced search with multiple criteria
-    public List<Product> searchProducts(String name, String category, Double minPrice, Double maxPrice, Boolean inStock) {
+    // Advanced search with multiple criteria (unpaginated)
+    public List<Product> searchAllProducts(String name, String category, Double minPrice, Double maxPrice, Boolean inStock) {
         logger.info("Advanced search with name: {}, category: {}, minPrice: {}, maxPrice: {}, inStock: {}", name, category, minPrice, maxPrice, inStock);
         return productRepository.searchProducts(name, category, minPrice, maxPrice, inStock);
     }
 
+    // Advanced search with multiple criteria, one page at a time. Results are ranked by
+    // relevance when a name is given (cursor = "score:id"), otherwise ordered by id (cursor = id).
+    // The first page also carries the facet counts for the filter sidebar
+    @Transactional(readOnly = true)
+    public ProductSearchResult searchProducts(String name, String category, Double minPrice, Double maxPrice, Boolean inStock, String cursor, int size) {
+        return searchProducts(name, category, minPrice, maxPrice, inStock, ProductSort.RELEVANCE, cursor, size);
+    }
+
+    // Same, in another order than relevance (cursor = "key:id"). Sorted orders are served by the search
+    // index; while it is still loading results come in id order
+    @Transactional(readOnly = true)
+    public ProductSearchResult searchProducts(String name, String category, Double minPrice, Double maxPrice, Boolean inStock, ProductSort sort, String cursor, int size) {
+        logger.info("Advanced search with name: {}, category: {}, minPrice: {}, maxPrice: {}, inStock: {}, sort: {}, cursor: {}, size: {}", name, category, minPrice, maxPrice, inStock, sort, cursor, size);
+        int pageSize = clampPageSize(size);
+        if (!searchIndex.isReady()) {
+            return withFacets(idPage(productRepository.searchSummariesAfter(name, category, minPrice, maxPrice, inStock, idCursor(cursor), nextPage(pageSize)), pageSize), null);
+        }
+        ProductFacets facets = cursor == null || cursor.isBlank()
+                ? searchIndex.facets(name, category, minPrice, maxPrice, inStock)
+                : null;
+        Predicate<IndexedProduct> filter = searchFilter(category, minPrice, maxPrice, inStock);
+        if (sort != ProductSort.RELEVANCE) {
+            List<IndexedProduct> rows = searchIndex.sorted(name, filter, sort, sort.after(cursor), pageSize + 1);
+            String nextCursor = null;
+            if (rows.size() > pageSize) {
+                rows = rows.subList(0, pageSize);
+                nextCursor = sort.cursor(rows.get(pageSize - 1));
+            }
+            return new ProductSearchResult(findAllInOrder(rows.stream()
+                    .map(IndexedProduct::getProductId)
+                    .collect(Collectors.toList())), nextCursor, facets);
+        }
+        if (name == null || name.isBlank()) {
+            return withFacets(idPage(findAllInOrder(searchIndex.filter(filter, idCursor(cursor), pageSize + 1).stream()
+                    .map(IndexedProduct::getProductId)
+                    .collect(Collectors.toList())), pageSize), facets);
+        }
+        List<SearchHit> hits = searchIndex.search(name, filter, pageSize + 1, rankedCursor(cursor));
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            SearchHit last = hits.get(pageSize - 1);
+            nextCursor = last.getScore() + ":" + last.getProductId();
+        }
+        return new ProductSearchResult(findAllInOrder(hits.stream()
+                .map(SearchHit::getProductId)
+                .collect(Collectors.toList())), nextCursor, facets);
+    }
+
+    private ProductSearchResult withFacets(ProductPage<ProductSummary> page, ProductFacets facets) {
+        return new ProductSearchResult(page.getItems(), page.getNextCursor(), facets);
+    }
+
+    // Keyset-paginated listings: each page holds the rows after the cursor id, in id order
+
+    @Transactional(readOnly = true)
+    public ProductPage<ProductSummary> getProductsPage(String cursor, int size) {
+        logger.info("Getting products page after cursor: {} (size {})", cursor, size);
+        int pageSize = clampPageSize(size);
+        return idPage(productRepository.findSummaries(idCursor(cursor), nextPage(pageSize)), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPage<ProductSummary> getProductsByCategoryPage(String category, String cursor, int size) {
+        logger.info("Getting products page by category: {} after cursor: {} (size {})", category, cursor, size);
+        int pageSize = clampPageSize(size);
+        return idPage(productRepository.findSummariesByCategory(category, idCursor(cursor), nextPage(pageSize)), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPage<ProductSummary> getProductsByPriceRangePage(Double minPrice, Double maxPrice, String cursor, int size) {
+        logger.info("Getting products page by price range: {} - {} after cursor: {} (size {})", minPrice, maxPrice, cursor, size);
+        int pageSize = clampPageSize(size);
+        return idPage(productRepository.findSummariesByPriceBetween(minPrice, maxPrice, idCursor(cursor), nextPage(pageSize)), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPage<ProductSummary> getProductsByCategoryAndPriceRangePage(String category, Double minPrice, Double maxPrice, String cursor, int size) {
+        logger.info("Getting products page by category: {} and price range: {} - {} after cursor: {} (size {})", category, minPrice, maxPrice, cursor, size);
+        int pageSize = clampPageSize(size);
+        return idPage(productRepository.findSummariesByCategoryAndPriceBetween(category, minPrice, maxPrice, idCursor(cursor), nextPage(pageSize)), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public ProductPage<ProductSummary> getProductsInStockPage(String cursor, int size) {
+        logger.info("Getting products page in stock after cursor: {} (size {})", cursor, size);
+        int pageSize = clampPageSize(size);
+        return idPage(productRepository.findSummariesInStock(idCursor(cursor), nextPage(pageSize)), pageSize);
+    }
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    // Fetch one extra row to learn whether another page exists
+    private Pageable nextPage(int pageSize) {
+        return PageRequest.of(0, pageSize + 1);
+    }
+
+    private ProductPage<ProductSummary> idPage(List<ProductSummary> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new ProductPage<>(rows, null);
+        }
+        List<ProductSummary> items = rows.subList(0, pageSize);
+        return new ProductPage<>(items, String.valueOf(items.get(pageSize - 1).getProductId()));
+    }
+
+    private long idCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            // A ranked or sorted cursor ("score:id", "key:id") still carries a usable id
+            return Long.parseLong(cursor.substring(cursor.lastIndexOf(':') + 1));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private SearchHit rankedCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        int separator = cursor.indexOf(':');
+        try {
+            return new SearchHit(Long.parseLong(cursor.substring(separator + 1)), Double.parseDouble(cursor.substring(0, separator)));
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid cursor: " + cursor);
+        }
+    }
+
+    private Predicate<IndexedProduct> searchFilter(String category, Double minPrice, Double maxPrice, Boolean inStock) {
+        return product -> (category == null || category.equalsIgnoreCase(product.getCategory()))
+                && (minPrice == null || product.getPrice() >= minPrice)
+                && (maxPrice == null || product.getPrice() <= maxPrice)
+                && (!Boolean.TRUE.equals(inStock) || product.getStockQuantity() > 0);
+    }
+
+    // Loads summaries for ranked ids while keeping the ranking order
+    private List<ProductSummary> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, ProductSummary> byId = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            Product snapshotted = catalogSnapshotService.find(id);
+            if (snapshotted != null) {
+                byId.put(id, new ProductSummary(snapshotted.getProductId(), snapshotted.getName(), snapshotted.getDescription(), snapshotted.getPrice(),
+                        snapshotted.getCategory(), snapshotted.getStockQuantity(), snapshotted.getImageUrl()));
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            productRepository.findSummariesByIdIn(missing).forEach(summary -> byId.put(summary.getProductId(), summary));
+        }
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+    }
+
+    // Bulk saves may overwrite existing rows, so drop both caches
+    @Caching(evict = {
+        @CacheEvict(value = CacheConfig.PRODUCTS_CACHE, allEntries = true),
+        @CacheEvict(value = CacheConfig.PRODUCT_LIST_CACHE, allEntries = true)
+    })
+    @Transactional
     public List<Product> saveProductsBulk(List<Product> products) {
         logger.info("Saving {} products in bulk", products.size());
         try {
-            return productRepository.saveAll(products);
+            // Existing rows are loaded and updated field by field like updateProduct, so the version (and price
+            // version) the client sent, usually none or an old one, is never merged onto the row
+            List<Long> ids = products.stream().map(Product::getProductId).filter(Objects::nonNull).collect(Collectors.toList());
+            Map<Long, Product> existing = new HashMap<>();
+            if (!ids.isEmpty()) {
+                // Units held by hot-stock counters go back to the rows before they are overwritten
+                ids.forEach(hotStockCounters::drain);
+                productRepository.findAllById(ids).forEach(product -> existing.put(product.getProductId(), product));
+            }
+            List<Product> toSave = new ArrayList<>(products.size());
+            List<Long> repriced = new ArrayList<>();
+            for (Product details : products) {
+                Product product = details.getProductId() != null ? existing.get(details.getProductId()) : null;
+                if (product == null) {
+                    // Unknown ids are inserted with a generated one, as a merge would
+                    details.setProductId(null);
+                    details.setVersion(0);
+                    toSave.add(details);
+                    continue;
+                }
+                if (!Objects.equals(product.getPrice(), details.getPrice())) {
+                    repriced.add(product.getProductId());
+                }
+                copyDetails(product, details);
+                toSave.add(product);
+            }
+            List<Product> saved = productRepository.saveAll(toSave);
+            if (!repriced.isEmpty()) {
+                productRepository.bumpPriceVersion(repriced);
+                saved.stream()
+                        .filter(product -> repriced.contains(product.getProductId()))
+                        .forEach(product -> product.setPriceVersion(product.getPriceVersion() + 1));
+            }
+            saved.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.saved(product)));
+            return saved;
         } catch (Exception e) {
             logger.error("Save products bulk failed for {} products", products.size(), e);
             throw e;
         }
     }
+
+    // The client-editable fields; ids and versions stay those of the stored row
+    private static void copyDetails(Product product, Product details) {
+        product.setName(details.getName());
+        product.setDescription(details.getDescription());
+        product.setPrice(details.getPrice());
+        product.setCategory(details.getCategory());
+        product.setImageUrl(details.getImageUrl());
+        product.setStockQuantity(details.getStockQuantity());
+        product.setLowStockThreshold(details.getLowStockThreshold());
+    }
 }
@@ -0,0 +1,180 @@
+package com.platform.service;
+
+import com.platform.entity.StockHold;
+import com.platform.entity.StockHoldItem;
+import com.platform.model.StockUpdateRequest;
+import com.platform.repository.StockHoldRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Time-boxed stock reservations for checkout.
+ *
+ * Expiry is driven by an in-memory priority queue ordered by expiry time: the
+ * sweeper only looks at the head of the queue, so checking costs nothing while
+ * no hold is due. Holds are queued when created and, after a restart, reloaded
+ * once from the table. A slow indexed backstop query catches holds that no
+ * running instance has queued (e.g. the creating instance died).
+ */
+@Service
+public class StockHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockHoldService.class);
+
+    private static final int BACKSTOP_BATCH_SIZE = 100;
+
+    @Autowired
+    private StockHoldRepository stockHoldRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${product.holds.default-ttl-seconds:600}")
+    private int defaultTtlSeconds = 600;
+
+    @Value("${product.holds.max-ttl-seconds:3600}")
+    private int maxTtlSeconds = 3600;
+
+    private final PriorityBlockingQueue<PendingExpiry> pending =
+            new PriorityBlockingQueue<>(64, Comparator.comparing(PendingExpiry::expiresAt));
+
+    /**
+     * Takes the stock for every line (all-or-nothing) and records the hold.
+     */
+    public StockHold createHold(List<StockUpdateRequest> items, Integer ttlSeconds) {
+        if (items == null || items.isEmpty()) {
+            throw new RuntimeException("A stock hold needs at least one item");
+        }
+        int ttl = ttlSeconds != null ? ttlSeconds : defaultTtlSeconds;
+        if (ttl <= 0 || ttl > maxTtlSeconds) {
+            throw new RuntimeException("Hold TTL must be between 1 and " + maxTtlSeconds + " seconds");
+        }
+        logger.info("Creating stock hold for {} lines with TTL {}s", items.size(), ttl);
+        productService.reserveStock(items);
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            StockHold hold = new StockHold();
+            hold.setStatus(StockHold.ACTIVE);
+            hold.setCreatedAt(now);
+            hold.setExpiresAt(now.plusSeconds(ttl));
+            for (StockUpdateRequest item : items) {
+                StockHoldItem holdItem = new StockHoldItem();
+                holdItem.setProductId(item.getProductId());
+                holdItem.setQuantity(item.getQuantity());
+                holdItem.setHold(hold);
+                hold.getItems().add(holdItem);
+            }
+            StockHold saved = stockHoldRepository.save(hold);
+            pending.add(new PendingExpiry(saved.getHoldId(), saved.getExpiresAt()));
+            logger.info("Stock hold {} created, expires at {}", saved.getHoldId(), saved.getExpiresAt());
+            return saved;
+        } catch (Exception e) {
+            logger.error("Saving stock hold failed, giving back {} lines", items.size(), e);
+            productService.releaseStock(items);
+            throw e;
+        }
+    }
+
+    public StockHold confirmHold(Long holdId) {
+        logger.info("Confirming stock hold: {}", holdId);
+        if (stockHoldRepository.finishActive(holdId, StockHold.CONFIRMED) == 0) {
+            StockHold hold = getHold(holdId);
+            if (!StockHold.CONFIRMED.equals(hold.getStatus())) {
+                throw new RuntimeException("Stock hold " + holdId + " is no longer active (" + hold.getStatus() + ")");
+            }
+        }
+        return getHold(holdId);
+    }
+
+    // Idempotent: releasing a released or expired hold does nothing
+    public StockHold releaseHold(Long holdId) {
+        logger.info("Releasing stock hold: {}", holdId);
+        StockHold hold = finish(holdId, StockHold.RELEASED);
+        if (StockHold.CONFIRMED.equals(hold.getStatus())) {
+            throw new RuntimeException("Stock hold " + holdId + " is already confirmed");
+        }
+        return hold;
+    }
+
+    public StockHold getHold(Long holdId) {
+        return stockHoldRepository.findById(holdId)
+                .orElseThrow(() -> new RuntimeException("Stock hold not found with id: " + holdId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveHolds() {
+        try {
+            List<StockHold> active = stockHoldRepository.findByStatus(StockHold.ACTIVE);
+            active.forEach(hold -> pending.add(new PendingExpiry(hold.getHoldId(), hold.getExpiresAt())));
+            logger.info("Queued {} active stock holds for expiry", active.size());
+        } catch (Exception e) {
+            // The backstop sweep picks them up later
+            logger.error("Loading active stock holds failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.holds.sweep-interval-ms:1000}")
+    public void expireDueHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        PendingExpiry next;
+        while ((next = pending.peek()) != null && !next.expiresAt().isAfter(now)) {
+            pending.poll();
+            try {
+                finish(next.holdId(), StockHold.EXPIRED);
+            } catch (Exception e) {
+                logger.error("Expiring stock hold {} failed, retrying later", next.holdId(), e);
+                pending.add(new PendingExpiry(next.holdId(), now.plusMinutes(1)));
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.holds.backstop-interval-ms:300000}")
+    public void expireOrphanedHolds() {
+        List<StockHold> overdue = stockHoldRepository.findByStatusAndExpiresAtBefore(
+                StockHold.ACTIVE, LocalDateTime.now().minusMinutes(1), PageRequest.of(0, BACKSTOP_BATCH_SIZE));
+        for (StockHold hold : overdue) {
+            try {
+                finish(hold.getHoldId(), StockHold.EXPIRED);
+            } catch (Exception e) {
+                logger.error("Expiring orphaned stock hold {} failed", hold.getHoldId(), e);
+            }
+        }
+    }
+
+    // Settles an active hold and gives its stock back in the same transaction
+    private StockHold finish(Long holdId, String status) {
+        return new TransactionTemplate(transactionManager).execute(tx -> {
+            boolean settled = stockHoldRepository.finishActive(holdId, status) == 1;
+            StockHold hold = getHold(holdId);
+            if (settled) {
+                productService.releaseStock(hold.getItems().stream()
+                        .map(item -> new StockUpdateRequest(item.getProductId(), item.getQuantity()))
+                        .collect(Collectors.toList()));
+                logger.info("Stock hold {} {}", holdId, status.toLowerCase());
+            }
+            return hold;
+        });
+    }
+
+    private record PendingExpiry(Long holdId, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,250 @@
+package com.platform.snapshot;
+
+import com.platform.entity.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Read-only, memory-mapped binary copy of the catalog.
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   header  64 bytes: magic, format, catalog version, created at (epoch ms the catalog scan started),
+ *           count, index offset
+ *   records productId, version, price version, price, stock, then name, category, imageUrl and
+ *           description as (int length, UTF-8 bytes), length -1 for null
+ *   index   count x (productId, record offset), sorted by productId
+ * </pre>
+ * The file is mapped in 1 GiB segments and records never straddle a segment,
+ * so catalogs beyond the 2 GiB limit of a single mapping work too. Lookups are
+ * a binary search over the index plus one record decode; nothing is loaded
+ * onto the Java heap up front, the OS pages the file in on demand.
+ */
+public final class CatalogSnapshot implements Closeable {
+
+    static final int MAGIC = 0x50534e50; // "PSNP"
+    static final int FORMAT = 2;
+    static final int HEADER_SIZE = 64;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int INDEX_ENTRY_SIZE = 16;
+    private static final int FIXED_RECORD_SIZE = 8 + 8 + 8 + 8 + 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long catalogVersion;
+    private final long createdAt;
+    private final int count;
+    private final long indexOffset;
+
+    private CatalogSnapshot(FileChannel channel, MappedByteBuffer[] segments) {
+        this.channel = channel;
+        this.segments = segments;
+        ByteBuffer header = segments[0];
+        if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT) {
+            throw new IllegalStateException("Not a catalog snapshot (format " + FORMAT + ")");
+        }
+        this.catalogVersion = header.getLong(8);
+        this.createdAt = header.getLong(16);
+        this.count = header.getInt(24);
+        this.indexOffset = header.getLong(32);
+    }
+
+    public static CatalogSnapshot open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IllegalStateException("Catalog snapshot is truncated: " + path);
+            }
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+            return new CatalogSnapshot(channel, segments);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes {@code products} (ascending productId) to {@code path}, stamped with
+     * {@code createdAt}, the time reading them started. The file is written next
+     * to the target and moved into place, so readers never see a partial snapshot.
+     */
+    public static int write(Path path, long catalogVersion, long createdAt, Iterator<Product> products) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        long[] ids = new long[1024];
+        long[] offsets = new long[1024];
+        int count = 0;
+        long position = HEADER_SIZE;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.write(new byte[HEADER_SIZE]);
+            while (products.hasNext()) {
+                Product product = products.next();
+                byte[][] strings = {
+                        utf8(product.getName()), utf8(product.getCategory()),
+                        utf8(product.getImageUrl()), utf8(product.getDescription())
+                };
+                long size = FIXED_RECORD_SIZE;
+                for (byte[] string : strings) {
+                    size += 4 + (string != null ? string.length : 0);
+                }
+                position = pad(out, position, size);
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                ids[count] = product.getProductId();
+                offsets[count] = position;
+                count++;
+                out.writeLong(product.getProductId());
+                out.writeLong(product.getVersion());
+                out.writeLong(product.getPriceVersion());
+                out.writeDouble(product.getPrice() != null ? product.getPrice() : Double.NaN);
+                out.writeInt(product.getStockQuantity());
+                for (byte[] string : strings) {
+                    out.writeInt(string != null ? string.length : -1);
+                    if (string != null) {
+                        out.write(string);
+                    }
+                }
+                position += size;
+            }
+            // Index entries are 16-byte aligned, so none of them crosses a segment boundary either
+            while (position % INDEX_ENTRY_SIZE != 0) {
+                out.write(0);
+                position++;
+            }
+            long indexOffset = position;
+            for (int i = 0; i < count; i++) {
+                out.writeLong(ids[i]);
+                out.writeLong(offsets[i]);
+            }
+            out.flush();
+            writeHeader(tmp, catalogVersion, createdAt, count, indexOffset);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // The product as of the snapshot, or null when it was not in the catalog then
+    public Product find(long productId) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long id = getLong(indexOffset + (long) mid * INDEX_ENTRY_SIZE);
+            if (id < productId) {
+                low = mid + 1;
+            } else if (id > productId) {
+                high = mid - 1;
+            } else {
+                return read(getLong(indexOffset + (long) mid * INDEX_ENTRY_SIZE + 8));
+            }
+        }
+        return null;
+    }
+
+    // Every product in ascending id order
+    public void forEach(Consumer<Product> action) {
+        for (int i = 0; i < count; i++) {
+            action.accept(read(getLong(indexOffset + (long) i * INDEX_ENTRY_SIZE + 8)));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // The mappings stay valid until garbage collected; closing only releases the file handle
+        channel.close();
+    }
+
+    private Product read(long offset) {
+        ByteBuffer segment = segments[(int) (offset >>> SEGMENT_SHIFT)];
+        int pos = (int) (offset & (SEGMENT_SIZE - 1));
+        Product product = new Product();
+        product.setProductId(segment.getLong(pos));
+        product.setVersion(segment.getLong(pos + 8));
+        product.setPriceVersion(segment.getLong(pos + 16));
+        double price = segment.getDouble(pos + 24);
+        product.setPrice(Double.isNaN(price) ? null : price);
+        product.setStockQuantity(segment.getInt(pos + 32));
+        pos += FIXED_RECORD_SIZE;
+        String[] strings = new String[4];
+        for (int i = 0; i < strings.length; i++) {
+            int length = segment.getInt(pos);
+            pos += 4;
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                segment.get(pos, bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                pos += length;
+            }
+        }
+        product.setName(strings[0]);
+        product.setCategory(strings[1]);
+        product.setImageUrl(strings[2]);
+        product.setDescription(strings[3]);
+        return product;
+    }
+
+    private long getLong(long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getLong((int) (offset & (SEGMENT_SIZE - 1)));
+    }
+
+    // Skips to the next segment when {@code size} bytes would not fit in the current one
+    private static long pad(DataOutputStream out, long position, long size) throws IOException {
+        long remaining = SEGMENT_SIZE - (position & (SEGMENT_SIZE - 1));
+        long padding = size > remaining ? remaining : 0;
+        for (long i = 0; i < padding; i++) {
+            out.write(0);
+        }
+        return position + padding;
+    }
+
+    private static void writeHeader(Path path, long catalogVersion, long createdAt, int count, long indexOffset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT).putLong(catalogVersion).putLong(createdAt)
+                .putInt(count).putInt(0).putLong(indexOffset);
+        header.rewind();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+            channel.force(true);
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+}
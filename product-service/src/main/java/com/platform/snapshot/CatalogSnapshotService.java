@@ -0,0 +1,334 @@
+package com.platform.snapshot;
+
+import com.platform.config.CacheConfig;
+import com.platform.entity.Product;
+import com.platform.event.CatalogWarmupEndedEvent;
+import com.platform.event.ProductChangedEvent;
+import com.platform.event.ProductsImportedEvent;
+import com.platform.model.ProductChangeFeed;
+import com.platform.repository.ProductChangeRepository;
+import com.platform.repository.ProductRepository;
+import com.platform.service.ProductChangeService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Warm start from a memory-mapped {@link CatalogSnapshot}.
+ *
+ * Every instance periodically writes the catalog to a local snapshot file.
+ * On startup the file is mapped and product reads by id are answered from it
+ * for a warm-up period, while the search and suggestion indexes are loaded
+ * from the file instead of a full table scan. Products changed after the
+ * snapshot was taken are tracked as dirty and always read from the database:
+ * those in the change log from a margin before the snapshot was taken, changes
+ * made through this instance, and changes made elsewhere as the change log
+ * catches up. When warm-up ends the indexes re-read the dirty products. A
+ * snapshot older than the change log retention is not used.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductChangeRepository productChangeRepository;
+
+    @Autowired
+    private ProductChangeService productChangeService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${product.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${product.snapshot.path:data/catalog-snapshot.bin}")
+    private String path = "data/catalog-snapshot.bin";
+
+    @Value("${product.snapshot.warmup-ms:300000}")
+    private long warmupMillis = 300000;
+
+    // Longest a change can take to commit; changes logged up to this long before a snapshot was taken may
+    // be missing from it
+    @Value("${product.changes.gap-timeout-ms:120000}")
+    private long changeMarginMillis = 120000;
+
+    @Value("${product.changes.retention-days:7}")
+    private long retentionDays = 7;
+
+    private volatile CatalogSnapshot snapshot;
+    private volatile long servingUntil;
+    // Change log position the dirty set is current up to
+    private volatile long catchUpVersion;
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    // Catalog version of the last snapshot written (or mapped), to skip writes when nothing changed
+    private long writtenVersion = -1;
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        Path file = Paths.get(path);
+        if (!Files.exists(file)) {
+            logger.info("No catalog snapshot at {}, starting cold", file.toAbsolutePath());
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            CatalogSnapshot opened = CatalogSnapshot.open(file);
+            LocalDateTime takenAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(opened.getCreatedAt()), ZoneId.systemDefault());
+            LocalDateTime changedSince = takenAt.minusNanos(changeMarginMillis * 1_000_000);
+            if (changedSince.isBefore(LocalDateTime.now().minusDays(retentionDays))) {
+                // The change log may have been pruned past it, so what changed since is unknown
+                logger.info("Catalog snapshot {} was taken at {}, before the change log retention, starting cold", file, takenAt);
+                opened.close();
+                return;
+            }
+            writtenVersion = opened.getCatalogVersion();
+            snapshot = opened;
+            servingUntil = System.currentTimeMillis() + warmupMillis;
+            // Everything logged from the margin before the snapshot on is dirty, whatever its version
+            Long firstVersion = productChangeRepository.findFirstVersionSince(changedSince);
+            catchUpVersion = firstVersion != null ? firstVersion - 1 : productChangeRepository.findLatestVersionBefore(changedSince);
+            catchUp();
+            logger.info("Serving {} products from catalog snapshot {} (taken at {}, {} changed since) after {} ms",
+                    opened.size(), file, takenAt, dirty.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // A missing or unreadable snapshot only costs the warm start
+            logger.warn("Could not use catalog snapshot {}, starting cold: {}", file, e.getMessage());
+            close();
+        }
+    }
+
+    public boolean isServing() {
+        return snapshot != null;
+    }
+
+    /**
+     * The product as of the snapshot while warming up, or null when the product
+     * has changed since (or warm-up is over) and must be read from the database.
+     */
+    public Product find(Long productId) {
+        CatalogSnapshot current = snapshot;
+        if (current == null || productId == null || dirty.contains(productId)) {
+            return null;
+        }
+        return current.find(productId);
+    }
+
+    /**
+     * Passes the whole catalog to {@code batches} in id order: from the snapshot
+     * (with changed products read from the database) while warming up, otherwise
+     * with a keyset scan of the product table.
+     */
+    public void loadCatalog(Consumer<List<Product>> batches) {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            scanDatabase(batches);
+            return;
+        }
+        Set<Long> changed = Set.copyOf(dirty);
+        List<Product> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        current.forEach(product -> {
+            if (!changed.contains(product.getProductId())) {
+                batch.add(product);
+                if (batch.size() == LOAD_BATCH_SIZE) {
+                    batches.accept(new ArrayList<>(batch));
+                    batch.clear();
+                }
+            }
+        });
+        if (!batch.isEmpty()) {
+            batches.accept(batch);
+        }
+        List<Long> ids = new ArrayList<>(changed);
+        for (int from = 0; from < ids.size(); from += LOAD_BATCH_SIZE) {
+            List<Product> fresh = productRepository.findAllById(ids.subList(from, Math.min(ids.size(), from + LOAD_BATCH_SIZE)));
+            if (!fresh.isEmpty()) {
+                batches.accept(fresh);
+            }
+        }
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (snapshot != null) {
+            dirty.add(event.getProductId());
+        }
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (snapshot != null) {
+            event.getProducts().forEach(product -> dirty.add(product.getProductId()));
+        }
+    }
+
+    // Picks up changes made through other instances, and ends warm-up when its time is up
+    @Scheduled(fixedDelayString = "${product.snapshot.catch-up-interval-ms:1000}")
+    public void catchUpChanges() {
+        if (snapshot == null) {
+            return;
+        }
+        if (System.currentTimeMillis() >= servingUntil) {
+            logger.info("Catalog snapshot warm-up over, {} of {} products had changed", dirty.size(), snapshot.size());
+            endWarmup();
+            return;
+        }
+        try {
+            catchUp();
+        } catch (Exception e) {
+            // Nothing newer is known, so stop answering from the snapshot rather than risk stale reads
+            logger.error("Catalog snapshot catch-up failed, ending warm-up", e);
+            endWarmup();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.snapshot.interval-ms:300000}",
+            initialDelayString = "${product.snapshot.interval-ms:300000}")
+    public void writeSnapshot() {
+        // While warming up the file is still being served, and the point is to keep load off the database
+        if (!enabled || snapshot != null) {
+            return;
+        }
+        try {
+            // Only used to skip unchanged catalogs; a reader finds what changed after the snapshot by the
+            // time the scan started
+            long version = productChangeService.getCurrentVersion();
+            if (version == writtenVersion) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            Path file = Paths.get(path);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            int count = CatalogSnapshot.write(file, version, start, new CatalogIterator());
+            writtenVersion = version;
+            logger.info("Wrote catalog snapshot of {} products (version {}) to {} in {} ms",
+                    count, version, file, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            // The previous snapshot (if any) stays in place
+            logger.error("Writing catalog snapshot failed", e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        CatalogSnapshot current = snapshot;
+        snapshot = null;
+        dirty.clear();
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                logger.warn("Closing catalog snapshot failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Hands the products changed while warming up to the indexes, which were loaded from the snapshot
+    private void endWarmup() {
+        Set<Long> changed = Set.copyOf(dirty);
+        close();
+        eventPublisher.publishEvent(new CatalogWarmupEndedEvent(changed));
+    }
+
+    // Marks every product in the change log after catchUpVersion as dirty, and drops it from the products
+    // cache, which may hold it as read from the snapshot. The feed holds its position below versions that
+    // may still commit, so a late commit is picked up by the next pass
+    private synchronized void catchUp() {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        ProductChangeFeed feed;
+        do {
+            feed = productChangeService.getChangesSince(catchUpVersion, LOAD_BATCH_SIZE);
+            feed.getChanges().forEach(change -> {
+                dirty.add(change.getProductId());
+                if (cache != null) {
+                    cache.evict(change.getProductId());
+                }
+            });
+            catchUpVersion = feed.getVersion();
+        } while (feed.isHasMore());
+    }
+
+    private void scanDatabase(Consumer<List<Product>> batches) {
+        long lastId = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByProductIdGreaterThanOrderByProductIdAsc(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getProductId();
+                batches.accept(batch);
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+    }
+
+    // Keyset scan of the product table, one page in memory at a time
+    private class CatalogIterator implements Iterator<Product> {
+        private List<Product> page = List.of();
+        private int position;
+        private long lastId;
+        private boolean exhausted;
+
+        @Override
+        public boolean hasNext() {
+            if (position < page.size()) {
+                return true;
+            }
+            if (exhausted) {
+                return false;
+            }
+            page = productRepository.findByProductIdGreaterThanOrderByProductIdAsc(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            position = 0;
+            exhausted = page.size() < LOAD_BATCH_SIZE;
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getProductId();
+            }
+            return !page.isEmpty();
+        }
+
+        @Override
+        public Product next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.get(position++);
+        }
+    }
+}
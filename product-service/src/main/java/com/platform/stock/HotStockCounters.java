@@ -0,0 +1,176 @@
+package com.platform.stock;
+
+import com.platform.config.CacheConfig;
+import com.platform.event.ProductChangedEvent;
+import com.platform.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional flash-sale mode: stock for a configured set of hot products is
+ * decremented in striped in-memory counters instead of on the product row.
+ *
+ * The counters only ever hold units that were already taken off the
+ * stockQuantity column (leased with the same conditional UPDATE checkout uses),
+ * so the database never shows more stock than is really left and a crash can
+ * at most strand the leased units; it can never oversell. A periodic flush
+ * gives unsold units back to the row and publishes the net stock change, so the
+ * column, the search index and the change feed catch up every flush interval.
+ */
+@Component
+public class HotStockCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockCounters.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Value("${product.hot-stock.enabled:false}")
+    private boolean enabled;
+
+    @Value("${product.hot-stock.product-ids:}")
+    private Set<Long> productIds = Set.of();
+
+    @Value("${product.hot-stock.stripes:16}")
+    private int stripes = 16;
+
+    // Units taken from the row per lease; larger leases mean fewer row locks
+    @Value("${product.hot-stock.lease-size:50}")
+    private int leaseSize = 50;
+
+    private final Map<Long, StripedStock> counters = new ConcurrentHashMap<>();
+
+    public boolean handles(Long productId) {
+        return enabled && productId != null && productIds.contains(productId);
+    }
+
+    /**
+     * Takes {@code quantity} units of a hot product, leasing more from the
+     * database when the counters run dry. Returns false when the product does
+     * not have enough stock left.
+     */
+    public boolean tryDecrement(Long productId, int quantity) {
+        StripedStock stock = counters.computeIfAbsent(productId, id -> new StripedStock(stripes));
+        return stock.tryTake(quantity) || refillAndTake(productId, stock, quantity);
+    }
+
+    // Gives back units of a decrement that was not used after all
+    public void release(Long productId, int quantity) {
+        StripedStock stock = counters.get(productId);
+        if (stock != null && quantity > 0) {
+            stock.add(quantity);
+        }
+    }
+
+    // Units currently held in memory for the product
+    public int available(Long productId) {
+        StripedStock stock = counters.get(productId);
+        return stock != null ? stock.available() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${product.hot-stock.flush-interval-ms:1000}")
+    public void flush() {
+        counters.forEach(this::flush);
+    }
+
+    // Returns the product's unsold units to the database, e.g. before an admin overwrites the stock
+    public void drain(Long productId) {
+        StripedStock stock = counters.get(productId);
+        if (stock != null) {
+            flush(productId, stock);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!counters.isEmpty()) {
+            logger.info("Returning in-memory stock of {} hot products before shutdown", counters.size());
+            flush();
+        }
+    }
+
+    private boolean refillAndTake(Long productId, StripedStock stock, int quantity) {
+        synchronized (stock) {
+            // Another caller may have refilled while we waited
+            if (stock.tryTake(quantity)) {
+                return true;
+            }
+            // Pool what is left across stripes before going to the database
+            int pooled = stock.drain();
+            if (pooled >= quantity) {
+                stock.spread(pooled - quantity);
+                return true;
+            }
+            int needed = quantity - pooled;
+            int leased = lease(productId, Math.max(leaseSize, needed));
+            if (leased == 0 && needed < leaseSize) {
+                // Not enough for a full lease; take exactly what this caller needs
+                leased = lease(productId, needed);
+            }
+            if (leased == 0) {
+                stock.spread(pooled);
+                return false;
+            }
+            stock.leasedSinceFlush += leased;
+            stock.spread(pooled + leased - quantity);
+            return true;
+        }
+    }
+
+    private int lease(Long productId, int quantity) {
+        return productRepository.decrementStock(productId, quantity) == 1 ? quantity : 0;
+    }
+
+    private void flush(Long productId, StripedStock stock) {
+        synchronized (stock) {
+            int unsold = stock.drain();
+            int sold = stock.leasedSinceFlush - unsold;
+            if (unsold == 0 && sold == 0) {
+                return;
+            }
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    if (unsold > 0) {
+                        productRepository.incrementStock(productId, unsold);
+                    }
+                    if (sold != 0) {
+                        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(productId, -sold));
+                    }
+                });
+                stock.leasedSinceFlush = 0;
+                Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+                if (cache != null) {
+                    cache.evict(productId);
+                }
+                logger.debug("Flushed hot stock for product ID: {} (sold {}, returned {})", productId, sold, unsold);
+            } catch (Exception e) {
+                // Keep the units in memory and retry on the next flush
+                stock.spread(unsold);
+                logger.error("Flushing hot stock failed for product ID: {}", productId, e);
+            }
+        }
+    }
+}
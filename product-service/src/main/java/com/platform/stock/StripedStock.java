@@ -0,0 +1,77 @@
+package com.platform.stock;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Units of one product held in memory, split over several stripes so
+ * concurrent callers decrement different cache lines instead of one counter.
+ * Single-stripe takes are lock-free; anything that moves units between
+ * stripes (refill, drain) runs under the owning HotStockCounters' lock.
+ */
+final class StripedStock {
+
+    // One 64-byte cache line worth of ints between two live cells
+    private static final int PADDING = 16;
+
+    private final AtomicIntegerArray cells;
+    private final int stripes;
+    // Units leased from the database since the last flush (guarded by this)
+    int leasedSinceFlush;
+
+    StripedStock(int stripes) {
+        this.stripes = stripes;
+        this.cells = new AtomicIntegerArray(stripes * PADDING);
+    }
+
+    /**
+     * Takes {@code quantity} units from a single stripe, starting with the
+     * caller's home stripe. Fails when no stripe holds enough on its own.
+     */
+    boolean tryTake(int quantity) {
+        int home = homeStripe();
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((home + i) % stripes) * PADDING;
+            int current = cells.get(cell);
+            while (current >= quantity) {
+                if (cells.compareAndSet(cell, current, current - quantity)) {
+                    return true;
+                }
+                current = cells.get(cell);
+            }
+        }
+        return false;
+    }
+
+    void add(int quantity) {
+        cells.addAndGet(homeStripe() * PADDING, quantity);
+    }
+
+    // Spreads units evenly so the next callers all find stock in their home stripe
+    void spread(int quantity) {
+        int share = quantity / stripes;
+        for (int i = 0; i < stripes; i++) {
+            cells.addAndGet(i * PADDING, i == 0 ? share + quantity % stripes : share);
+        }
+    }
+
+    // Empties every stripe and returns what they held
+    int drain() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.getAndSet(i * PADDING, 0);
+        }
+        return total;
+    }
+
+    int available() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    private int homeStripe() {
+        return (int) (Thread.currentThread().getId() % stripes);
+    }
+}
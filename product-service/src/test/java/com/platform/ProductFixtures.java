@@ -0,0 +1,89 @@
+package com.platform;
+
+import com.platform.entity.CartCleanupTask;
+import com.platform.entity.LowStockAlert;
+import com.platform.entity.Product;
+import com.platform.entity.ProductChange;
+import com.platform.entity.StockHold;
+
+import java.time.LocalDateTime;
+
+// Products, change log entries, holds and queued tasks shared by the product-service tests
+public final class ProductFixtures {
+
+    private ProductFixtures() {
+    }
+
+    public static Product product(Long id) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setName("Product " + id);
+        product.setPrice(10.0);
+        product.setStockQuantity(5);
+        product.setVersion(0L);
+        product.setPriceVersion(0L);
+        return product;
+    }
+
+    public static Product catalogProduct(Long id, String name, String category) {
+        Product product = product(id);
+        product.setName(name);
+        product.setCategory(category);
+        return product;
+    }
+
+    public static Product catalogProduct(Long id, String name, String category, String description, Double price, int stock) {
+        Product product = catalogProduct(id, name, category);
+        product.setDescription(description);
+        product.setPrice(price);
+        product.setStockQuantity(stock);
+        return product;
+    }
+
+    public static Product pricedProduct(Long id, double price, long priceVersion) {
+        Product product = product(id);
+        product.setPrice(price);
+        product.setPriceVersion(priceVersion);
+        return product;
+    }
+
+    public static Product stockedProduct(Long id, int stock, Integer lowStockThreshold) {
+        Product product = product(id);
+        product.setStockQuantity(stock);
+        product.setLowStockThreshold(lowStockThreshold);
+        return product;
+    }
+
+    // Logged now, so it is not yet past the gap timeout
+    public static ProductChange change(Long version) {
+        ProductChange change = new ProductChange();
+        change.setVersion(version);
+        change.setChangedAt(LocalDateTime.now());
+        return change;
+    }
+
+    public static ProductChange change(Long version, Long productId) {
+        ProductChange change = change(version);
+        change.setProductId(productId);
+        change.setChangeType("SAVED");
+        return change;
+    }
+
+    public static StockHold hold(Long id, String status) {
+        StockHold hold = new StockHold();
+        hold.setHoldId(id);
+        hold.setStatus(status);
+        return hold;
+    }
+
+    public static CartCleanupTask cleanupTask(Long productId, String reason) {
+        CartCleanupTask task = new CartCleanupTask();
+        task.setProductId(productId);
+        task.setReason(reason);
+        return task;
+    }
+
+    public static LowStockAlert lowStockAlert(Long productId) {
+        return new LowStockAlert(productId, LocalDateTime.now());
+    }
+}
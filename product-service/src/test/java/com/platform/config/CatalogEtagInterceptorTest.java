@@ -0,0 +1,74 @@
+package com.platform.config;
+
+import com.platform.repository.ProductChangeRepository;
+import com.platform.service.ProductChangeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogEtagInterceptorTest {
+
+    @Mock
+    private ProductChangeRepository productChangeRepository;
+    @InjectMocks
+    private ProductChangeService productChangeService;
+
+    private CatalogEtagInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new CatalogEtagInterceptor();
+        ReflectionTestUtils.setField(interceptor, "productChangeService", productChangeService);
+    }
+
+    @Test
+    void preHandle_changesTheTagWhenAWriteCommitsAfterARolledBackOne() {
+        // Versions 1-12 committed
+        when(productChangeRepository.findLatestVersion()).thenReturn(12L);
+        when(productChangeRepository.countByVersionGreaterThan(12L - 1000)).thenReturn(12L);
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(get(null), first, null));
+        String etag = first.getHeader("ETag");
+
+        // Version 13 was rolled back and left a gap for good; version 14 committed
+        when(productChangeRepository.findLatestVersion()).thenReturn(14L);
+        when(productChangeRepository.countByVersionGreaterThan(14L - 1000)).thenReturn(13L);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(get(etag), second, null));
+        assertEquals(200, second.getStatus());
+        assertNotEquals(etag, second.getHeader("ETag"));
+        // Listings never pay for the gap scan of the feed position
+        verify(productChangeRepository, never()).findByVersionGreaterThanOrderByVersionAsc(anyLong(), any());
+    }
+
+    @Test
+    void preHandle_answersNotModifiedWhileNothingCommitted() {
+        when(productChangeRepository.findLatestVersion()).thenReturn(12L);
+        when(productChangeRepository.countByVersionGreaterThan(anyLong())).thenReturn(12L);
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        interceptor.preHandle(get(null), first, null);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(get(first.getHeader("ETag")), second, null));
+        assertEquals(304, second.getStatus());
+    }
+
+    private static MockHttpServletRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return request;
+    }
+}
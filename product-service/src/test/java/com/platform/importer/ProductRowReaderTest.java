@@ -0,0 +1,62 @@
+package com.platform.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductRowReaderTest {
+
+    @Test
+    void csv_handlesQuotedFieldsAndAnyColumnOrder() throws IOException {
+        CsvProductReader reader = new CsvProductReader(new StringReader(
+                "price,Name,description,stock_quantity\r\n"
+                        + "19.5,\"Case, clear\",\"Says \"\"hi\"\"\nover two lines\",4\r\n"
+                        + "\n"
+                        + "5,Cable,,0\n"));
+
+        ImportRow first = reader.next();
+        assertEquals(2, first.getLine());
+        assertEquals("Case, clear", first.getProduct().getName());
+        assertEquals("Says \"hi\"\nover two lines", first.getProduct().getDescription());
+        assertEquals(19.5, first.getProduct().getPrice());
+        assertEquals(4, first.getProduct().getStockQuantity());
+
+        ImportRow second = reader.next();
+        assertEquals(5, second.getLine());
+        assertEquals("Cable", second.getProduct().getName());
+        assertNull(second.getProduct().getDescription());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void csv_reportsBadRowsAndKeepsReading() throws IOException {
+        CsvProductReader reader = new CsvProductReader(new StringReader("name,price\nPhone,cheap\nPhone\nPhone,10\n"));
+
+        assertTrue(reader.next().getError().contains("Invalid number for price"));
+        assertTrue(reader.next().getError().contains("Expected 2 fields"));
+        assertEquals(10.0, reader.next().getProduct().getPrice());
+    }
+
+    @Test
+    void csv_rejectsUnknownColumns() {
+        Exception ex = assertThrows(RuntimeException.class, () -> new CsvProductReader(new StringReader("name,colour\n")));
+        assertTrue(ex.getMessage().contains("Unknown CSV column: colour"));
+    }
+
+    @Test
+    void ndjson_readsOneProductPerLine() throws IOException {
+        NdjsonProductReader reader = new NdjsonProductReader(new StringReader(
+                "{\"productId\":7,\"name\":\"Phone\",\"price\":10}\n\n{not json}\n"), new ObjectMapper());
+
+        ImportRow first = reader.next();
+        assertEquals(7L, first.getProduct().getProductId());
+        ImportRow second = reader.next();
+        assertEquals(3, second.getLine());
+        assertTrue(second.isFailed());
+        assertNull(reader.next());
+    }
+}
@@ -23,6 +23,34 @@ import java.util.Arrays;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import com.platform.entity.CartCleanupTask;
+import com.platform.entity.LowStockAlert;
+import com.platform.entity.ProductChange;
+import com.platform.entity.StockHold;
+import com.platform.entity.StockHoldItem;
+import com.platform.event.ProductChangedEvent;
+import com.platform.feign.CartClient;
+import com.platform.feign.NotificationClient;
+import com.platform.model.ProductChangeFeed;
+import com.platform.model.ProductSummary;
+import com.platform.model.StockUpdateRequest;
+import com.platform.repository.CartCleanupTaskRepository;
+import com.platform.repository.LowStockAlertRepository;
+import com.platform.repository.ProductChangeRepository;
+import com.platform.repository.StockHoldRepository;
+import com.platform.service.CartCleanupService;
+import com.platform.service.LowStockService;
+import com.platform.service.ProductChangeService;
+import com.platform.service.StockHoldService;
+import com.platform.snapshot.CatalogSnapshotService;
+import com.platform.stock.HotStockCounters;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import static com.platform.ProductFixtures.*;
 
 @SpringBootTest
 class ProductServiceApplicationTests {
@@ -72,6 +100,8 @@ class ProductServiceApplicationTests {
 class ProductServiceUnitTest {
 	@Mock
 	private ProductRepository productRepository;
+	@Mock
+	private CatalogSnapshotService catalogSnapshotService;
 	@InjectMocks
 	private ProductService productService;
 
@@ -82,3 +112,333 @@ class ProductServiceUnitTest {
 		assertTrue(ex.getMessage().contains("Product not found"));
 	}
 }
+
+@ExtendWith(MockitoExtension.class)
+class ProductStockReservationTest {
+	@Mock
+	private ProductRepository productRepository;
+	@Mock
+	private CacheManager cacheManager;
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	@Mock
+	private HotStockCounters hotStockCounters;
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	@InjectMocks
+	private ProductService productService;
+
+	@Test
+	void reserveStock_mergesDuplicateLinesIntoOneDecrement() {
+		when(productRepository.decrementStock(1L, 5)).thenReturn(1);
+		productService.reserveStock(Arrays.asList(
+				new StockUpdateRequest(1L, 2),
+				new StockUpdateRequest(1L, 3)));
+		verify(productRepository, times(1)).decrementStock(1L, 5);
+		verify(productRepository, never()).findById(anyLong());
+	}
+
+	@Test
+	void reserveStock_failsWhenAnyLineIsShort() {
+		Product product = new Product();
+		product.setName("Phone");
+		product.setStockQuantity(1);
+		when(productRepository.decrementStock(1L, 1)).thenReturn(1);
+		when(productRepository.decrementStock(2L, 4)).thenReturn(0);
+		when(productRepository.findById(2L)).thenReturn(Optional.of(product));
+		Exception ex = assertThrows(RuntimeException.class, () -> productService.reserveStock(Arrays.asList(
+				new StockUpdateRequest(2L, 4),
+				new StockUpdateRequest(1L, 1))));
+		assertTrue(ex.getMessage().contains("Phone is out of stock"));
+	}
+}
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeFeedTest {
+	@Mock
+	private ProductChangeRepository productChangeRepository;
+	@InjectMocks
+	private ProductChangeService productChangeService;
+
+	@Test
+	void getChangesSince_returnsLastVersionAndHasMore() {
+		when(productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(10L), any()))
+				.thenReturn(Arrays.asList(change(11L), change(12L), change(13L)));
+		ProductChangeFeed feed = productChangeService.getChangesSince(10L, 2);
+		assertEquals(2, feed.getChanges().size());
+		assertEquals(12L, feed.getVersion());
+		assertTrue(feed.isHasMore());
+	}
+
+	@Test
+	void getChangesSince_keepsVersionWhenNothingChanged() {
+		when(productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(42L), any())).thenReturn(List.of());
+		ProductChangeFeed feed = productChangeService.getChangesSince(42L, 100);
+		assertEquals(42L, feed.getVersion());
+		assertFalse(feed.isHasMore());
+	}
+
+	@Test
+	void getChangesSince_holdsVersionBelowARecentGapButReturnsTheChangesAboveIt() {
+		// Version 12 is not visible yet: its transaction may still commit
+		when(productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(10L), any()))
+				.thenReturn(Arrays.asList(change(11L), change(13L), change(14L)));
+		ProductChangeFeed feed = productChangeService.getChangesSince(10L, 2);
+		assertEquals(List.of(11L, 13L), feed.getChanges().stream().map(ProductChange::getVersion).toList());
+		assertEquals(11L, feed.getVersion());
+		assertFalse(feed.isHasMore());
+	}
+
+	@Test
+	void getChangesSince_movesPastAGapOnceItHasTimedOut() {
+		ProductChange old = change(13L);
+		old.setChangedAt(LocalDateTime.now().minusMinutes(10));
+		when(productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(10L), any()))
+				.thenReturn(Arrays.asList(change(11L), old, change(15L)));
+		assertEquals(13L, productChangeService.getChangesSince(10L, 100).getVersion());
+	}
+
+	@Test
+	void getCurrentVersion_stopsBelowTheFirstRecentGap() {
+		when(productChangeRepository.findLatestVersionBefore(any())).thenReturn(20L);
+		when(productChangeRepository.findByVersionGreaterThanOrderByVersionAsc(eq(20L), any()))
+				.thenReturn(Arrays.asList(change(21L), change(22L), change(24L)));
+		assertEquals(22L, productChangeService.getCurrentVersion());
+	}
+
+	@Test
+	void pruneChanges_deletesExpiredVersionsInRanges() {
+		ReflectionTestUtils.setField(productChangeService, "pruneBatchSize", 100);
+		when(productChangeRepository.findLatestVersionBefore(any())).thenReturn(250L);
+		when(productChangeRepository.findOldestVersion()).thenReturn(1L);
+		when(productChangeRepository.deleteVersionRange(anyLong(), anyLong())).thenReturn(100, 100, 50);
+		productChangeService.pruneChanges();
+		verify(productChangeRepository).deleteVersionRange(1L, 100L);
+		verify(productChangeRepository).deleteVersionRange(101L, 200L);
+		verify(productChangeRepository).deleteVersionRange(201L, 250L);
+	}
+
+	@Test
+	void onProductChanged_recordsStockDelta() {
+		productChangeService.onProductChanged(ProductChangedEvent.stockChanged(5L, -3));
+		verify(productChangeRepository).save(argThat(change ->
+				change.getProductId() == 5L && "STOCK_CHANGED".equals(change.getChangeType()) && change.getStockDelta() == -3));
+	}
+}
+
+@ExtendWith(MockitoExtension.class)
+class StockHoldServiceTest {
+	@Mock
+	private StockHoldRepository stockHoldRepository;
+	@Mock
+	private ProductService productService;
+	@Mock
+	private PlatformTransactionManager transactionManager;
+	@InjectMocks
+	private StockHoldService stockHoldService;
+
+	@Test
+	void createHold_takesStockAndGivesItBackWhenSavingFails() {
+		List<StockUpdateRequest> items = List.of(new StockUpdateRequest(1L, 2));
+		when(stockHoldRepository.save(any())).thenThrow(new RuntimeException("db down"));
+		assertThrows(RuntimeException.class, () -> stockHoldService.createHold(items, 60));
+		verify(productService).reserveStock(items);
+		verify(productService).releaseStock(items);
+	}
+
+	@Test
+	void confirmHold_failsOnceTheHoldHasExpired() {
+		StockHold hold = hold(7L, StockHold.EXPIRED);
+		when(stockHoldRepository.finishActive(7L, StockHold.CONFIRMED)).thenReturn(0);
+		when(stockHoldRepository.findById(7L)).thenReturn(Optional.of(hold));
+		Exception ex = assertThrows(RuntimeException.class, () -> stockHoldService.confirmHold(7L));
+		assertTrue(ex.getMessage().contains("no longer active"));
+	}
+
+	@Test
+	void releaseHold_givesStockBackOnlyOnce() {
+		StockHold hold = hold(8L, StockHold.RELEASED);
+		StockHoldItem item = new StockHoldItem();
+		item.setProductId(3L);
+		item.setQuantity(4);
+		hold.getItems().add(item);
+		when(stockHoldRepository.findById(8L)).thenReturn(Optional.of(hold));
+		when(stockHoldRepository.finishActive(8L, StockHold.RELEASED)).thenReturn(1, 0);
+
+		stockHoldService.releaseHold(8L);
+		stockHoldService.releaseHold(8L);
+
+		verify(productService, times(1)).releaseStock(argThat(lines ->
+				lines.size() == 1 && lines.get(0).getProductId() == 3L && lines.get(0).getQuantity() == 4));
+	}
+}
+
+@ExtendWith(MockitoExtension.class)
+class CartCleanupServiceTest {
+	@Mock
+	private CartCleanupTaskRepository cartCleanupTaskRepository;
+	@Mock
+	private ProductRepository productRepository;
+	@Mock
+	private CartClient cartClient;
+	@InjectMocks
+	private CartCleanupService cartCleanupService;
+
+	@Test
+	void relay_sendsOneBatchAndSkipsRestockedProducts() {
+		List<CartCleanupTask> tasks = Arrays.asList(
+				cleanupTask(1L, CartCleanupTask.DELETED),
+				cleanupTask(2L, CartCleanupTask.OUT_OF_STOCK),
+				cleanupTask(3L, CartCleanupTask.OUT_OF_STOCK),
+				cleanupTask(1L, CartCleanupTask.DELETED));
+		when(cartCleanupTaskRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any())).thenReturn(tasks);
+		when(productRepository.findSummariesByIdIn(List.of(2L, 3L))).thenReturn(List.of(
+				new ProductSummary(2L, "Back in stock", null, 1.0, "Misc", 4, null),
+				new ProductSummary(3L, "Still out", null, 1.0, "Misc", 0, null)));
+
+		cartCleanupService.relay();
+
+		verify(cartClient).deleteCartItemsByProductIds(List.of(1L, 3L));
+		verify(cartCleanupTaskRepository).deleteAllInBatch(tasks);
+	}
+
+	@Test
+	void relay_keepsTasksAndBacksOffWhenCartServiceFails() {
+		CartCleanupTask task = cleanupTask(1L, CartCleanupTask.DELETED);
+		task.setAttempts(2);
+		when(cartCleanupTaskRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any())).thenReturn(List.of(task));
+		doThrow(new RuntimeException("cart-service unavailable")).when(cartClient).deleteCartItemsByProductIds(any());
+
+		LocalDateTime before = LocalDateTime.now();
+		cartCleanupService.relay();
+
+		verify(cartCleanupTaskRepository, never()).deleteAllInBatch(any());
+		verify(cartCleanupTaskRepository).saveAll(List.of(task));
+		assertEquals(3, task.getAttempts());
+		assertFalse(task.getNextAttemptAt().isBefore(before.plusSeconds(20)));
+	}
+}
+
+@ExtendWith(MockitoExtension.class)
+class LowStockServiceTest {
+	@Mock
+	private ProductRepository productRepository;
+	@Mock
+	private LowStockAlertRepository lowStockAlertRepository;
+	@Mock
+	private NotificationClient notificationClient;
+	@InjectMocks
+	private LowStockService lowStockService;
+
+	@Test
+	void stockDecrement_queuesAlertOnlyForNewlyLowProduct() {
+		when(productRepository.findNewlyLowStock(List.of(1L), 5)).thenReturn(List.of(1L));
+
+		lowStockService.onProductChanged(ProductChangedEvent.stockChanged(1L, -2));
+
+		verify(productRepository).markLowStockAlerted(List.of(1L));
+		verify(lowStockAlertRepository).saveAll(argThat(alerts -> alerts.iterator().next().getProductId().equals(1L)));
+		verify(productRepository, never()).rearmLowStockAlerts(any(), anyInt());
+	}
+
+	@Test
+	void stockIncrement_onlyRearms() {
+		lowStockService.onProductChanged(ProductChangedEvent.stockChanged(1L, 3));
+
+		verify(productRepository).rearmLowStockAlerts(List.of(1L), 5);
+		verify(productRepository, never()).findNewlyLowStock(any(), anyInt());
+		verifyNoInteractions(lowStockAlertRepository);
+	}
+
+	@Test
+	void sendAlerts_coalescesQueueIntoOneDigestAndSkipsRestocked() {
+		List<LowStockAlert> alerts = Arrays.asList(lowStockAlert(1L), lowStockAlert(2L), lowStockAlert(1L), lowStockAlert(3L));
+		when(lowStockAlertRepository.findAllByOrderByIdAsc(any())).thenReturn(alerts);
+		when(productRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(
+				stockedProduct(1L, 4, null), stockedProduct(2L, 30, 10), stockedProduct(3L, 0, 10)));
+
+		lowStockService.sendAlerts();
+
+		verify(notificationClient).sendLowStockDigest(any(), argThat(items -> items.size() == 2
+				&& items.get(0).getProductId() == 3L && items.get(1).getProductId() == 1L));
+		verify(notificationClient, never()).sendLowStockAlert(any(), any(), anyInt());
+		verify(lowStockAlertRepository).deleteAllInBatch(alerts);
+	}
+
+	@Test
+	void sendAlerts_keepsQueueWhenNotificationFails() {
+		List<LowStockAlert> alerts = List.of(lowStockAlert(1L));
+		when(lowStockAlertRepository.findAllByOrderByIdAsc(any())).thenReturn(alerts);
+		when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(stockedProduct(1L, 2, null)));
+		when(notificationClient.sendLowStockAlert(any(), eq("Product 1"), eq(2))).thenThrow(new RuntimeException("notification-service unavailable"));
+
+		lowStockService.sendAlerts();
+
+		verify(lowStockAlertRepository, never()).deleteAllInBatch(any());
+	}
+}
+
+@ExtendWith(MockitoExtension.class)
+class ProductPriceVersionTest {
+	@Mock
+	private ProductRepository productRepository;
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	@Mock
+	private HotStockCounters hotStockCounters;
+	@Mock
+	private CartCleanupService cartCleanupService;
+	@InjectMocks
+	private ProductService productService;
+
+	@Test
+	void updateProduct_bumpsPriceVersionOnlyWhenPriceChanges() {
+		Product stored = pricedProduct(1L, 10.0, 4);
+		when(productRepository.findById(1L)).thenReturn(Optional.of(stored));
+		when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+		Product restocked = pricedProduct(1L, 10.0, 0);
+		restocked.setStockQuantity(50);
+		assertEquals(4, productService.updateProduct(1L, restocked).getPriceVersion());
+		verify(productRepository, never()).bumpPriceVersion(anyCollection());
+
+		assertEquals(5, productService.updateProduct(1L, pricedProduct(1L, 12.5, 0)).getPriceVersion());
+		verify(productRepository).bumpPriceVersion(List.of(1L));
+	}
+
+	@Test
+	void saveProductsBulk_bumpsPriceVersionOfRepricedRowsInOneStatement() {
+		when(productRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(pricedProduct(1L, 10.0, 0), pricedProduct(2L, 20.0, 3)));
+		when(productRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		List<Product> saved = productService.saveProductsBulk(Arrays.asList(
+				pricedProduct(1L, 10.0, 0), pricedProduct(2L, 25.0, 3), pricedProduct(null, 5.0, 0)));
+
+		verify(productRepository).bumpPriceVersion(List.of(2L));
+		assertEquals(0, saved.get(0).getPriceVersion());
+		assertEquals(4, saved.get(1).getPriceVersion());
+	}
+
+	@Test
+	void saveProductsBulk_updatesStoredRowsWhateverVersionTheRequestCarries() {
+		// Stock was sold since the client read the product, which bumped the row version
+		Product stored = pricedProduct(1L, 10.0, 2);
+		stored.setVersion(7);
+		stored.setStockQuantity(3);
+		when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(stored));
+		when(productRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+		Product upload = pricedProduct(1L, 10.0, 0);
+		upload.setName("Renamed");
+		upload.setStockQuantity(40);
+
+		List<Product> saved = productService.saveProductsBulk(List.of(upload));
+
+		assertSame(stored, saved.get(0));
+		assertEquals(7, saved.get(0).getVersion());
+		assertEquals(2, saved.get(0).getPriceVersion());
+		assertEquals("Renamed", saved.get(0).getName());
+		assertEquals(40, saved.get(0).getStockQuantity());
+		verify(hotStockCounters).drain(1L);
+		verify(productRepository, never()).bumpPriceVersion(anyCollection());
+	}
+}
@@ -0,0 +1,244 @@
+package com.platform.search;
+
+import com.platform.entity.Product;
+import com.platform.event.CatalogWarmupEndedEvent;
+import com.platform.event.ProductChangedEvent;
+import com.platform.model.ProductFacets;
+import com.platform.repository.ProductRepository;
+import com.platform.snapshot.CatalogSnapshotService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static com.platform.ProductFixtures.catalogProduct;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.put(catalogProduct(1L, "Apple iPhone 13", "Phones", "Smartphone with a great camera", 799.0, 5));
+        index.put(catalogProduct(2L, "Phone Case", "Accessories", "Protective case for the iphone", 19.0, 0));
+        index.put(catalogProduct(3L, "Samsung Galaxy S22", "Phones", "Android phone", 699.0, 3));
+    }
+
+    @Test
+    void search_ranksNameMatchesAboveDescriptionMatches() {
+        List<Long> ids = ids(index.search("iphone", p -> true, 10));
+        assertEquals(List.of(1L, 2L), ids);
+    }
+
+    @Test
+    void search_matchesLastTokenAsPrefix() {
+        assertEquals(List.of(1L), ids(index.search("apple iph", p -> true, 10)));
+    }
+
+    @Test
+    void search_requiresEveryTokenAndAppliesFilterAndLimit() {
+        assertTrue(index.search("samsung iphone", p -> true, 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("iphone", p -> p.getStockQuantity() > 0, 10)));
+        assertEquals(1, index.search("phone", p -> true, 1).size());
+    }
+
+    @Test
+    void updatesAndDeletesAreReflectedIncrementally() {
+        index.put(catalogProduct(3L, "Samsung Galaxy S23", "Phones", "Android phone", 749.0, 3));
+        assertTrue(index.search("s22", p -> true, 10).isEmpty());
+        assertEquals(List.of(3L), ids(index.search("s23", p -> true, 10)));
+
+        index.remove(3L);
+        assertTrue(index.search("samsung", p -> true, 10).isEmpty());
+
+        index.adjustStock(1L, -5);
+        assertEquals(0, index.get(1L).getStockQuantity());
+    }
+
+    @Test
+    void facets_areMaintainedIncrementallyAndIgnoreTheirOwnFilter() {
+        ProductFacets all = index.facets(null, null, null, null, null);
+        assertEquals(Map.of("Phones", 2L, "Accessories", 1L), all.getCategories());
+        assertEquals(2, all.getInStock());
+        assertEquals(3, all.getTotal());
+        assertEquals(1, all.getPriceBuckets().get(0).getCount());
+        assertEquals(2, all.getPriceBuckets().get(1).getCount());
+
+        ProductFacets phones = index.facets(null, "phones", null, null, true);
+        assertEquals(Map.of("Phones", 2L), phones.getCategories());
+        assertEquals(2, phones.getTotal());
+
+        index.adjustStock(1L, -5);
+        index.remove(3L);
+        ProductFacets afterChanges = index.facets(null, null, null, null, true);
+        assertTrue(afterChanges.getCategories().isEmpty());
+        assertEquals(0, afterChanges.getInStock());
+    }
+
+    @Test
+    void facets_forTextQueryAndPriceRangeCountMatchingProducts() {
+        ProductFacets facets = index.facets("phone", null, 100.0, null, null);
+        assertEquals(Map.of("Phones", 2L), facets.getCategories());
+        assertEquals(2, facets.getTotal());
+        // The price histogram ignores the price filter, so the cheap case still shows up
+        assertEquals(1, facets.getPriceBuckets().get(0).getCount());
+    }
+
+    @Test
+    void facets_forPriceRangeWithoutQueryComeFromRunningCounts() {
+        ProductFacets facets = index.facets(null, null, 100.0, 799.0, null);
+        assertEquals(Map.of("Phones", 2L), facets.getCategories());
+        assertEquals(2, facets.getTotal());
+        assertEquals(2, facets.getInStock());
+        // The price histogram ignores the price filter
+        assertEquals(1, facets.getPriceBuckets().get(0).getCount());
+
+        index.adjustStock(3L, -3);
+        index.put(catalogProduct(4L, "Phone Case Deluxe", "Accessories", "Leather case", 150.0, 2));
+        ProductFacets inStock = index.facets(null, "phones", 100.0, null, true);
+        assertEquals(Map.of("Phones", 1L, "Accessories", 1L), inStock.getCategories());
+        assertEquals(1, inStock.getTotal());
+        assertEquals(1, inStock.getInStock());
+
+        index.remove(4L);
+        assertEquals(Map.of("Phones", 2L), index.facets(null, null, 100.0, null, null).getCategories());
+        assertEquals(0, index.facets(null, null, 800.0, 900.0, null).getTotal());
+    }
+
+    @Test
+    void fuzzySearch_toleratesTyposAndRanksExactMatchesFirst() {
+        assertTrue(index.search("iphnoe", p -> true, 10).isEmpty());
+        assertEquals(List.of(1L, 2L), ids(index.search("iphnoe", p -> true, 10, null, true)));
+        assertEquals(List.of(3L), ids(index.search("samsnug galxy", p -> true, 10, null, true)));
+
+        index.put(catalogProduct(4L, "Phono Cartridge", "Audio", "Turntable part", 49.0, 1));
+        List<SearchHit> hits = index.search("phone", p -> true, 10, null, true);
+        assertEquals(4L, hits.get(hits.size() - 1).getProductId());
+        assertTrue(hits.get(0).getScore() > hits.get(hits.size() - 1).getScore());
+
+        index.remove(4L);
+        assertTrue(ids(index.search("phono", p -> true, 10, null, true)).stream().noneMatch(id -> id == 4L));
+    }
+
+    @Test
+    void sorted_pagesThroughSortedViewsThatFollowChanges() {
+        List<IndexedProduct> first = index.sorted(null, p -> true, ProductSort.PRICE_ASC, null, 2);
+        assertEquals(List.of(2L, 3L), docIds(first));
+        IndexedProduct after = ProductSort.PRICE_ASC.after(ProductSort.PRICE_ASC.cursor(first.get(1)));
+        assertEquals(List.of(1L), docIds(index.sorted(null, p -> true, ProductSort.PRICE_ASC, after, 2)));
+
+        index.adjustStock(2L, 10);
+        index.put(catalogProduct(3L, "Samsung Galaxy S23", "Phones", "Android phone", 749.0, 3));
+        assertEquals(List.of(2L, 1L, 3L), docIds(index.sorted(null, p -> true, ProductSort.STOCK, null, 10)));
+        assertEquals(List.of(1L, 2L, 3L), docIds(index.sorted(null, p -> true, ProductSort.NAME, null, 10)));
+        assertEquals(3, index.sorted(null, p -> true, ProductSort.PRICE_DESC, null, 10).size());
+        // With a query only the matches are ordered
+        assertEquals(List.of(2L, 1L), docIds(index.sorted("iphone", p -> true, ProductSort.PRICE_ASC, null, 10)));
+        assertEquals(List.of(1L), docIds(index.sorted("iphone", p -> p.getPrice() > 100, ProductSort.NAME, null, 10)));
+    }
+
+    @Test
+    void rebuild_rereadsProductsChangedWhileTheirBatchWasInFlight() {
+        CatalogSnapshotService catalogSnapshotService = mock(CatalogSnapshotService.class);
+        ProductRepository productRepository = mock(ProductRepository.class);
+        index = new ProductSearchIndex();
+        ReflectionTestUtils.setField(index, "catalogSnapshotService", catalogSnapshotService);
+        ReflectionTestUtils.setField(index, "productRepository", productRepository);
+        Product renamed = catalogProduct(1L, "Apple iPhone 14", "Phones", "Smartphone", 899.0, 5);
+        doAnswer(invocation -> {
+            Consumer<List<Product>> batches = invocation.getArgument(0);
+            List<Product> batch = List.of(catalogProduct(1L, "Apple iPhone 13", "Phones", "Smartphone", 799.0, 5),
+                    catalogProduct(2L, "Phone Case", "Accessories", "Protective case", 19.0, 0));
+            // Both change after the batch was read and before it is applied
+            index.onProductChanged(ProductChangedEvent.saved(renamed));
+            index.onProductChanged(ProductChangedEvent.deleted(2L));
+            batches.accept(batch);
+            return null;
+        }).when(catalogSnapshotService).loadCatalog(any());
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(renamed));
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L), ids(index.search("iphone 14", p -> true, 10)));
+        assertTrue(index.search("13", p -> true, 10).isEmpty());
+        assertNull(index.get(2L));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void onCatalogWarmupEnded_rereadsProductsChangedSinceTheSnapshot() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        ReflectionTestUtils.setField(index, "productRepository", productRepository);
+        // Changed through another instance: 1 renamed, 3 deleted
+        when(productRepository.findAllById(anyIterable()))
+                .thenReturn(List.of(catalogProduct(1L, "Apple iPhone 14", "Phones", "Smartphone", 899.0, 5)));
+
+        index.onCatalogWarmupEnded(new CatalogWarmupEndedEvent(Set.of(1L, 3L)));
+
+        assertEquals(List.of(1L), ids(index.search("iphone 14", p -> true, 10)));
+        assertNull(index.get(3L));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void trigramDistance_countsAdjacentSwapsAsOneEdit() {
+        assertEquals(1, TrigramIndex.distance("iphnoe", "iphone", 2));
+        assertEquals(2, TrigramIndex.distance("galxy", "galaxyy", 2));
+        assertEquals(2, TrigramIndex.distance("abcdef", "xyzdef", 1));
+    }
+
+    /**
+     * Fuzzy query latency over a synthetic 200k-product catalog. Run with -Dbenchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_fuzzySearchLatency() {
+        String[] brands = {"Apple", "Samsung", "Sony", "Lenovo", "Dell", "Asus", "Philips", "Bosch", "Nike", "Adidas"};
+        String[] kinds = {"Phone", "Laptop", "Headphones", "Monitor", "Shoes", "Watch", "Camera", "Speaker", "Tablet", "Charger"};
+        Random random = new Random(7);
+        index = new ProductSearchIndex();
+        for (long id = 1; id <= 200_000; id++) {
+            index.put(catalogProduct(id, brands[random.nextInt(brands.length)] + " " + kinds[random.nextInt(kinds.length)]
+                    + " " + Long.toString(random.nextLong() & 0xffffff, 36), kinds[random.nextInt(kinds.length)],
+                    "Model " + Long.toString(random.nextLong() & 0xfffff, 36), 10.0 + random.nextInt(1000), 1));
+        }
+        String[] correct = {"samsung", "headphones", "lenovo laptop", "iphone", "monitor", "adidas shoes"};
+        String[] misspelled = {"samsnug", "hedphones", "lenvo laptop", "iphnoe", "moniter", "addidas shoes"};
+        measure("exact queries, fuzzy=false", correct, false);
+        measure("exact queries, fuzzy=true", correct, true);
+        measure("misspelled queries, fuzzy=true", misspelled, true);
+    }
+
+    private void measure(String label, String[] queries, boolean fuzzy) {
+        long[] nanos = new long[1200];
+        for (int i = 0; i < nanos.length; i++) {
+            long t = System.nanoTime();
+            index.search(queries[i % queries.length], p -> true, 20, null, fuzzy);
+            nanos[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%s: p50 %.2f ms, p99 %.2f ms%n", label, nanos[nanos.length / 2] / 1e6, nanos[nanos.length * 99 / 100] / 1e6);
+    }
+
+    private static List<Long> docIds(List<IndexedProduct> docs) {
+        return docs.stream().map(IndexedProduct::getProductId).collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::getProductId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,123 @@
+package com.platform.search;
+
+import com.platform.entity.Product;
+import com.platform.event.ProductChangedEvent;
+import com.platform.model.ProductSuggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static com.platform.ProductFixtures.catalogProduct;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestionIndex(10);
+        index.put(catalogProduct(1L, "Apple iPhone 13", "Phones"));
+        index.put(catalogProduct(2L, "Phone Case", "Accessories"));
+        index.put(catalogProduct(3L, "Samsung Galaxy S22", "Phones"));
+    }
+
+    @Test
+    void suggest_completesAnyWordStartAndRanksCategoriesByProductCount() {
+        assertEquals(List.of("Phones", "Phone Case"), texts(index.suggest("pho", 10)));
+        assertEquals(List.of("Apple iPhone 13"), texts(index.suggest("IPH", 10)));
+        assertEquals(List.of("Phone Case"), texts(index.suggest("phone ", 10)));
+        assertTrue(index.suggest("xyz", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_followsRenamesDeletesAndSales() {
+        index.onProductChanged(ProductChangedEvent.saved(catalogProduct(2L, "Phone Stand", "Accessories")));
+        index.onProductChanged(ProductChangedEvent.stockChanged(2L, -5));
+        index.onProductChanged(ProductChangedEvent.deleted(3L));
+
+        List<ProductSuggestion> suggestions = index.suggest("pho", 10);
+        assertEquals(List.of("Phone Stand", "Phones"), texts(suggestions));
+        assertEquals(6, suggestions.get(0).getWeight());
+        assertEquals(1, suggestions.get(1).getWeight());
+        assertTrue(index.suggest("case", 10).isEmpty());
+        assertTrue(index.suggest("galaxy", 10).isEmpty());
+    }
+
+    @Test
+    void trie_matchesBruteForceUnderRandomUpdates() {
+        SuggestionTrie trie = new SuggestionTrie(5);
+        Map<String, Map<String, SuggestionTrie.Entry>> expected = new HashMap<>();
+        Random random = new Random(42);
+        String[] words = {"a", "ab", "abc", "abd", "b", "ba", "bab", "c"};
+        for (int i = 0; i < 5_000; i++) {
+            String key = words[random.nextInt(words.length)] + (random.nextBoolean() ? " " + words[random.nextInt(words.length)] : "");
+            String id = "e" + random.nextInt(20);
+            if (random.nextInt(3) == 0) {
+                trie.remove(key, id);
+                expected.getOrDefault(key, new HashMap<>()).remove(id);
+            } else {
+                SuggestionTrie.Entry entry = new SuggestionTrie.Entry(id, id, "product", null, random.nextInt(100));
+                trie.put(key, entry);
+                expected.computeIfAbsent(key, k -> new HashMap<>()).put(id, entry);
+            }
+        }
+        SuggestionTrie rebuilt = new SuggestionTrie(5);
+        List<SuggestionTrie.KeyedEntry> all = new ArrayList<>();
+        expected.forEach((key, entries) -> entries.values().forEach(e -> all.add(new SuggestionTrie.KeyedEntry(key, e))));
+        rebuilt.rebuild(all);
+        for (String prefix : List.of("", "a", "ab", "abc", "ab ", "b", "ba", "bab a", "c", "d")) {
+            Map<String, SuggestionTrie.Entry> best = new HashMap<>();
+            expected.forEach((key, entries) -> {
+                if (key.startsWith(prefix)) {
+                    entries.values().forEach(e -> best.merge(e.id(), e, (x, y) -> x.weight() >= y.weight() ? x : y));
+                }
+            });
+            List<SuggestionTrie.Entry> brute = best.values().stream().sorted(SuggestionTrie.BEST_FIRST).limit(5).collect(Collectors.toList());
+            assertEquals(brute, trie.complete(prefix, 5), "prefix '" + prefix + "'");
+            assertEquals(brute, rebuilt.complete(prefix, 5), "rebuilt, prefix '" + prefix + "'");
+        }
+    }
+
+    /**
+     * Lookup latency over a synthetic 200k-product catalog. Run with -Dbenchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_suggestLatency() {
+        String[] brands = {"Apple", "Samsung", "Sony", "Lenovo", "Dell", "Asus", "Philips", "Bosch", "Nike", "Adidas"};
+        String[] kinds = {"Phone", "Laptop", "Headphones", "Monitor", "Shoes", "Watch", "Camera", "Speaker", "Tablet", "Charger"};
+        Random random = new Random(7);
+        List<Product> catalog = new ArrayList<>();
+        for (long id = 1; id <= 200_000; id++) {
+            catalog.add(catalogProduct(id, brands[random.nextInt(brands.length)] + " " + kinds[random.nextInt(kinds.length)]
+                    + " " + Long.toString(random.nextLong() & 0xffffff, 36), kinds[random.nextInt(kinds.length)]));
+        }
+        long start = System.nanoTime();
+        catalog.forEach(index::put);
+        System.out.printf("Indexed %,d products one by one in %d ms%n", catalog.size(), (System.nanoTime() - start) / 1_000_000);
+
+        String[] prefixes = {"a", "ap", "sam", "phone", "laptop s", "head", "w", "sony c", "x", "1"};
+        long[] nanos = new long[200_000];
+        for (int i = 0; i < nanos.length; i++) {
+            long t = System.nanoTime();
+            index.suggest(prefixes[i % prefixes.length], 10);
+            nanos[i] = System.nanoTime() - t;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("suggest p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                nanos[nanos.length / 2] / 1e3, nanos[nanos.length * 99 / 100] / 1e3, nanos[nanos.length - 1] / 1e3);
+    }
+
+    private static List<String> texts(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getText).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,109 @@
+package com.platform.snapshot;
+
+import com.platform.entity.ProductChange;
+import com.platform.model.ProductChangeFeed;
+import com.platform.repository.ProductChangeRepository;
+import com.platform.repository.ProductRepository;
+import com.platform.search.ProductSearchIndex;
+import com.platform.search.SuggestionIndex;
+import com.platform.service.CartCleanupService;
+import com.platform.service.ProductChangeService;
+import com.platform.service.ProductService;
+import com.platform.stock.HotStockCounters;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static com.platform.ProductFixtures.pricedProduct;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Product reads through the cached ProductService while warming up from a snapshot
+@SpringJUnitConfig(CatalogSnapshotProductCacheTest.Config.class)
+class CatalogSnapshotProductCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import({ProductService.class, CatalogSnapshotService.class})
+    static class Config {
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("products", "productList");
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    @MockBean
+    private ProductRepository productRepository;
+    @MockBean
+    private ProductChangeRepository productChangeRepository;
+    @MockBean
+    private ProductChangeService productChangeService;
+    @MockBean
+    private CartCleanupService cartCleanupService;
+    @MockBean
+    private ProductSearchIndex searchIndex;
+    @MockBean
+    private SuggestionIndex suggestionIndex;
+    @MockBean
+    private HotStockCounters hotStockCounters;
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @AfterEach
+    void tearDown() {
+        catalogSnapshotService.close();
+    }
+
+    @Test
+    void getProductById_readsAProductChangedOnAnotherInstanceOnceTheChangeIsCaughtUp() throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        CatalogSnapshot.write(file, 1, System.currentTimeMillis(), List.of(pricedProduct(1L, 10.0, 0)).iterator());
+        ReflectionTestUtils.setField(catalogSnapshotService, "enabled", true);
+        ReflectionTestUtils.setField(catalogSnapshotService, "path", file.toString());
+        when(productChangeRepository.findFirstVersionSince(any(LocalDateTime.class))).thenReturn(null);
+        when(productChangeRepository.findLatestVersionBefore(any(LocalDateTime.class))).thenReturn(5L);
+        when(productChangeService.getChangesSince(eq(5L), anyInt())).thenReturn(new ProductChangeFeed(List.of(), 5L, false));
+        catalogSnapshotService.open();
+        assertEquals(10.0, productService.getProductById(1L).getPrice());
+
+        // Repriced through another instance: this one only learns of it from the change log
+        ProductChange change = new ProductChange();
+        change.setVersion(6L);
+        change.setProductId(1L);
+        change.setChangeType("SAVED");
+        when(productChangeService.getChangesSince(eq(5L), anyInt())).thenReturn(new ProductChangeFeed(List.of(change), 6L, false));
+        when(productChangeService.getChangesSince(eq(6L), anyInt())).thenReturn(new ProductChangeFeed(List.of(), 6L, false));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(pricedProduct(1L, 12.5, 1)));
+        catalogSnapshotService.catchUpChanges();
+
+        assertEquals(12.5, productService.getProductById(1L).getPrice());
+        assertEquals(12.5, productService.getProductById(1L).getPrice());
+        verify(productRepository, times(1)).findById(1L);
+    }
+}
@@ -0,0 +1,114 @@
+package com.platform.snapshot;
+
+import com.platform.event.CatalogWarmupEndedEvent;
+import com.platform.model.ProductChangeFeed;
+import com.platform.repository.ProductChangeRepository;
+import com.platform.repository.ProductRepository;
+import com.platform.service.ProductChangeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+
+import static com.platform.ProductFixtures.change;
+import static com.platform.ProductFixtures.product;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+
+    @TempDir
+    Path dir;
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductChangeRepository productChangeRepository;
+    @Mock
+    private ProductChangeService productChangeService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private CacheManager cacheManager;
+    @InjectMocks
+    private CatalogSnapshotService service;
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("catalog.bin");
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "path", file.toString());
+    }
+
+    @Test
+    void open_marksEverythingLoggedFromTheMarginBeforeTheSnapshotAsChanged() throws IOException {
+        LocalDateTime takenAt = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MILLIS);
+        // Written with a version far ahead of the log: the dirty set does not depend on it
+        CatalogSnapshot.write(file, 1_000, epochMillis(takenAt), List.of(product(1L), product(2L), product(3L)).iterator());
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(productChangeRepository.findFirstVersionSince(since.capture())).thenReturn(40L);
+        when(productChangeService.getChangesSince(eq(39L), anyInt()))
+                .thenReturn(new ProductChangeFeed(List.of(change(40L, 2L), change(41L, 9L)), 41L, false));
+
+        service.open();
+
+        assertTrue(service.isServing());
+        assertEquals(takenAt.minusMinutes(2), since.getValue());
+        assertNotNull(service.find(1L));
+        assertNull(service.find(2L));
+        service.close();
+    }
+
+    @Test
+    void open_startsColdFromASnapshotOlderThanTheChangeLogRetention() throws IOException {
+        LocalDateTime takenAt = LocalDateTime.now().minusDays(7);
+        CatalogSnapshot.write(file, 1, epochMillis(takenAt), List.of(product(1L)).iterator());
+
+        service.open();
+
+        assertFalse(service.isServing());
+        verifyNoInteractions(productChangeRepository, productChangeService);
+    }
+
+    @Test
+    void catchUpChanges_handsTheChangedProductsToTheIndexesWhenWarmUpEnds() throws IOException {
+        CatalogSnapshot.write(file, 1, System.currentTimeMillis(), List.of(product(1L), product(2L)).iterator());
+        when(productChangeRepository.findFirstVersionSince(any(LocalDateTime.class))).thenReturn(null);
+        when(productChangeRepository.findLatestVersionBefore(any(LocalDateTime.class))).thenReturn(7L);
+        when(productChangeService.getChangesSince(eq(7L), anyInt()))
+                .thenReturn(new ProductChangeFeed(List.of(), 7L, false))
+                .thenReturn(new ProductChangeFeed(List.of(change(8L, 2L)), 8L, false));
+        service.open();
+        service.catchUpChanges();
+
+        ReflectionTestUtils.setField(service, "servingUntil", 0L);
+        service.catchUpChanges();
+
+        assertFalse(service.isServing());
+        ArgumentCaptor<CatalogWarmupEndedEvent> event = ArgumentCaptor.forClass(CatalogWarmupEndedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Set.of(2L), event.getValue().getChangedProductIds());
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
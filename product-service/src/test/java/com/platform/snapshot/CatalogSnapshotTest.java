@@ -0,0 +1,67 @@
+package com.platform.snapshot;
+
+import com.platform.entity.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.platform.ProductFixtures.catalogProduct;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void write_thenFindEveryProductById() throws IOException {
+        List<Product> products = new ArrayList<>();
+        for (long id = 1; id <= 2500; id += 2) {
+            Product product = catalogProduct(id, "Product " + id, id % 3 == 0 ? null : "Category " + id % 7, null, id * 1.5, (int) id % 11);
+            product.setVersion(id % 5);
+            product.setPriceVersion(id % 3);
+            products.add(product);
+        }
+        products.add(catalogProduct(3001L, "Café crème ☕", "Kitchen", null, null, 0));
+        Path file = dir.resolve("catalog.bin");
+
+        assertEquals(products.size(), CatalogSnapshot.write(file, 42, 1700000000000L, products.iterator()));
+
+        try (CatalogSnapshot snapshot = CatalogSnapshot.open(file)) {
+            assertEquals(42, snapshot.getCatalogVersion());
+            assertEquals(1700000000000L, snapshot.getCreatedAt());
+            assertEquals(products.size(), snapshot.size());
+            for (Product expected : products) {
+                Product actual = snapshot.find(expected.getProductId());
+                assertEquals(expected.getName(), actual.getName());
+                assertEquals(expected.getCategory(), actual.getCategory());
+                assertEquals(expected.getPrice(), actual.getPrice());
+                assertEquals(expected.getStockQuantity(), actual.getStockQuantity());
+                assertEquals(expected.getVersion(), actual.getVersion());
+                assertEquals(expected.getPriceVersion(), actual.getPriceVersion());
+                assertNull(actual.getImageUrl());
+            }
+            assertNull(snapshot.find(2));
+            assertNull(snapshot.find(0));
+            assertNull(snapshot.find(5000));
+
+            List<Long> ids = new ArrayList<>();
+            snapshot.forEach(product -> ids.add(product.getProductId()));
+            assertEquals(products.stream().map(Product::getProductId).toList(), ids);
+        }
+        assertFalse(Files.exists(dir.resolve("catalog.bin.tmp")));
+    }
+
+    @Test
+    void open_rejectsOtherFiles() throws IOException {
+        Path file = dir.resolve("other.bin");
+        Files.write(file, new byte[128]);
+
+        assertThrows(IllegalStateException.class, () -> CatalogSnapshot.open(file));
+    }
+}
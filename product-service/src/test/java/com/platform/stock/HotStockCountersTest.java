@@ -0,0 +1,199 @@
+package com.platform.stock;
+
+import com.platform.event.ProductChangedEvent;
+import com.platform.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class HotStockCountersTest {
+
+    private static final long PRODUCT_ID = 1L;
+    private static final int THREADS = 64;
+
+    private SimulatedRow row;
+    private HotStockCounters counters;
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        row = new SimulatedRow(0);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        counters = counters(row, eventPublisher);
+    }
+
+    @Test
+    void concurrentDecrements_neverOversell() throws Exception {
+        row.stock = 10_000;
+        AtomicInteger sold = new AtomicInteger();
+        runConcurrently(() -> {
+            while (counters.tryDecrement(PRODUCT_ID, 1)) {
+                sold.incrementAndGet();
+            }
+        });
+        assertEquals(10_000, sold.get());
+        assertEquals(0, row.stock);
+        assertEquals(0, counters.available(PRODUCT_ID));
+    }
+
+    @Test
+    void flush_returnsUnsoldUnitsAndPublishesNetChange() {
+        row.stock = 100;
+        assertTrue(counters.tryDecrement(PRODUCT_ID, 3));
+        // One lease of 50 came off the row
+        assertEquals(50, row.stock);
+
+        counters.flush();
+
+        assertEquals(97, row.stock);
+        assertEquals(0, counters.available(PRODUCT_ID));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof ProductChangedEvent
+                && ((ProductChangedEvent) event).getStockDelta() == -3));
+    }
+
+    @Test
+    void tryDecrement_leasesExactlyWhatIsNeededNearTheEnd() {
+        row.stock = 4;
+        assertTrue(counters.tryDecrement(PRODUCT_ID, 3));
+        assertFalse(counters.tryDecrement(PRODUCT_ID, 2));
+        counters.release(PRODUCT_ID, 3);
+        assertEquals(3, counters.available(PRODUCT_ID));
+        assertEquals(1, row.stock);
+    }
+
+    /**
+     * Decrements per second with 64 callers: the row-lock path (every decrement
+     * holds the row lock for a simulated UPDATE + commit) versus the striped
+     * counters, which only take the row lock once per lease.
+     * Run with -Dbenchmark=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_rowLockVersusStripedCounters() throws Exception {
+        long lockHoldNanos = Long.getLong("benchmark.lockHoldMicros", 100) * 1_000;
+        long durationMillis = Long.getLong("benchmark.durationMillis", 3_000);
+
+        SimulatedRow rowLockPath = new SimulatedRow(Integer.MAX_VALUE, lockHoldNanos);
+        double rowLockRate = measure(durationMillis, () -> rowLockPath.decrement(1) == 1);
+
+        SimulatedRow leasedRow = new SimulatedRow(Integer.MAX_VALUE, lockHoldNanos);
+        HotStockCounters striped = counters(leasedRow, mock(ApplicationEventPublisher.class));
+        double stripedRate = measure(durationMillis, () -> striped.tryDecrement(PRODUCT_ID, 1));
+
+        System.out.printf("Row-lock path:    %,.0f decrements/s (%d threads, %d us lock hold)%n", rowLockRate, THREADS, lockHoldNanos / 1_000);
+        System.out.printf("Striped counters: %,.0f decrements/s (%d threads, lease size 50)%n", stripedRate, THREADS);
+        assertTrue(stripedRate > rowLockRate);
+    }
+
+    private HotStockCounters counters(SimulatedRow row, ApplicationEventPublisher eventPublisher) {
+        ProductRepository repository = mock(ProductRepository.class);
+        when(repository.decrementStock(eq(PRODUCT_ID), anyInt()))
+                .thenAnswer(invocation -> row.decrement(invocation.getArgument(1)));
+        when(repository.incrementStock(eq(PRODUCT_ID), anyInt()))
+                .thenAnswer(invocation -> row.increment(invocation.getArgument(1)));
+        HotStockCounters counters = new HotStockCounters();
+        ReflectionTestUtils.setField(counters, "productRepository", repository);
+        ReflectionTestUtils.setField(counters, "transactionManager", mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(counters, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(counters, "cacheManager", mock(CacheManager.class));
+        ReflectionTestUtils.setField(counters, "enabled", true);
+        ReflectionTestUtils.setField(counters, "productIds", Set.of(PRODUCT_ID));
+        return counters;
+    }
+
+    private static double measure(long durationMillis, BooleanSupplier decrement) throws Exception {
+        LongAdder done = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        long start = System.nanoTime();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                while (running.get()) {
+                    if (decrement.getAsBoolean()) {
+                        done.increment();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        Thread.sleep(durationMillis);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return done.sum() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < THREADS; i++) {
+            executor.submit(() -> {
+                start.await();
+                task.run();
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+
+    // Stands in for the product row: one lock, optionally held for a simulated statement + commit
+    private static final class SimulatedRow {
+        private int stock;
+        private final long lockHoldNanos;
+
+        SimulatedRow(int stock) {
+            this(stock, 0);
+        }
+
+        SimulatedRow(int stock, long lockHoldNanos) {
+            this.stock = stock;
+            this.lockHoldNanos = lockHoldNanos;
+        }
+
+        synchronized int decrement(int quantity) {
+            hold();
+            if (stock < quantity) {
+                return 0;
+            }
+            stock -= quantity;
+            return 1;
+        }
+
+        synchronized int increment(int quantity) {
+            hold();
+            stock += quantity;
+            return 1;
+        }
+
+        private void hold() {
+            if (lockHoldNanos > 0) {
+                LockSupport.parkNanos(lockHoldNanos);
+            }
+        }
+    }
+}